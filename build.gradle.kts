@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("com.github.johnrengelman.shadow") version("7.1.2")
+    id("me.champeau.jmh") version("0.7.2")
 }
 
 group = "com.akraml"
@@ -11,7 +12,24 @@ repositories {
 }
 
 dependencies {
-    implementation("org.openjdk.nashorn:nashorn-core:15.4")
+    implementation("org.ow2.asm:asm:9.8")
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+// Benchmarks live in src/jmh/java, run them with `./gradlew jmh`.
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
 }
 
 tasks.withType<Jar> {
@@ -0,0 +1,58 @@
+package com.akraml.algo.benchmark;
+
+import com.akraml.algo.interpreter.AlgoInterpreter;
+import com.akraml.algo.interpreter.Algorithm;
+import com.akraml.algo.interpreter.InterpretationException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Generates the .algo sources used by the benchmarks.
+ */
+final class BenchmarkPrograms {
+
+    private BenchmarkPrograms() {
+    }
+
+    /**
+     * A program mixing declarations, arithmetic, output and a loop, with {@code statements} body lines.
+     */
+    static String generate(final int statements) {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("Algorithm Generated;\n\n");
+        builder.append("Variables\n");
+        builder.append("    i: Integer;\n");
+        builder.append("    a = 3: Integer;\n");
+        builder.append("    b = 4: Integer;\n");
+        builder.append("    x = 1.5: Real;\n");
+        builder.append("    name = \"bench\": String;\n\n");
+        builder.append("Begin\n");
+        for (int line = 0; line < statements; line++) {
+            switch (line % 4) {
+                case 0 -> builder.append("    a = (a + b) * 3 - a % 7;\n");
+                case 1 -> builder.append("    x = x * 0.5 + a / 3;\n");
+                case 2 -> builder.append("    Write(\"a is \", a, \", x is \", x, \" for \", name, \"\\n\");\n");
+                default -> builder.append("    // comment line ").append(line).append('\n');
+            }
+        }
+        builder.append("    For i = 1 To 10 Do\n");
+        builder.append("        b = b + i;\n");
+        builder.append("    EndFor\n");
+        builder.append("End\n");
+        return builder.toString();
+    }
+
+    static File write(final String source) throws IOException {
+        final File file = File.createTempFile("benchmark", ".algo");
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), source);
+        return file;
+    }
+
+    static Algorithm interpret(final String source) throws IOException, InterpretationException {
+        return new AlgoInterpreter(write(source)).interpret();
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.akraml.algo.benchmark;
+
+import com.akraml.algo.interpreter.AlgoInterpreter;
+import com.akraml.algo.interpreter.Algorithm;
+import com.akraml.algo.interpreter.InterpretationException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link AlgoInterpreter#interpret()} on a small and a very large generated file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InterpretBenchmark {
+
+    @Param({"16", "50000"})
+    public int statements;
+
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = BenchmarkPrograms.write(BenchmarkPrograms.generate(statements));
+    }
+
+    @Benchmark
+    public Algorithm interpret() throws InterpretationException {
+        return new AlgoInterpreter(file).interpret();
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.akraml.algo.benchmark;
+
+import com.akraml.algo.interpreter.Algorithm;
+import com.akraml.algo.interpreter.InterpretationException;
+import com.akraml.algo.interpreter.runtime.ExecutionContext;
+import com.akraml.algo.interpreter.runtime.Frame;
+import com.akraml.algo.interpreter.runtime.InputReader;
+import com.akraml.algo.interpreter.runtime.MemoryOutputSink;
+import com.akraml.algo.interpreter.runtime.Statement;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of assignments compiled by the operation processor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OperationBenchmark {
+
+    private static final String SOURCE = """
+            Algorithm Operations;
+
+            Variables
+                a = 3: Integer;
+                b = 4: Integer;
+                c: Integer;
+                x = 1.5: Real;
+                y = 2.5: Real;
+
+            Begin
+                c = (a + b) * 3 - a % 7;
+                x = x * 0.5 + y / 3 - (a + 1);
+            End
+            """;
+
+    private Statement integerAssignment, realAssignment;
+    private Frame frame;
+    private ExecutionContext context;
+
+    @Setup
+    public void setup() throws IOException, InterpretationException {
+        final Algorithm algorithm = BenchmarkPrograms.interpret(SOURCE);
+        integerAssignment = algorithm.getInstructions().get(0).getStatement();
+        realAssignment = algorithm.getInstructions().get(1).getStatement();
+        frame = algorithm.getVariableTable().newFrame();
+        context = new ExecutionContext(frame, new MemoryOutputSink(), InputReader.fromString(""));
+    }
+
+    @Benchmark
+    public int integerArithmetic() {
+        integerAssignment.execute(context);
+        return frame.getInteger(2);
+    }
+
+    @Benchmark
+    public double realArithmetic() {
+        realAssignment.execute(context);
+        return frame.getReal(0);
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.akraml.algo.benchmark;
+
+import com.akraml.algo.interpreter.Algorithm;
+import com.akraml.algo.interpreter.InterpretationException;
+import com.akraml.algo.interpreter.runtime.ExecutionContext;
+import com.akraml.algo.interpreter.runtime.Frame;
+import com.akraml.algo.interpreter.runtime.InputReader;
+import com.akraml.algo.interpreter.runtime.MemoryOutputSink;
+import com.akraml.algo.interpreter.runtime.Statement;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code Read} statements ingesting a large input, one invocation reads the whole input.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReadBenchmark {
+
+    @Param({"100000"})
+    public int values;
+
+    @Param({"Integer", "Real", "String"})
+    public String type;
+
+    private byte[] input;
+    private Statement read;
+    private Frame frame;
+    private MemoryOutputSink output;
+
+    @Setup
+    public void setup() throws IOException, InterpretationException {
+        final Random random = new Random(42);
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < values; i++) {
+            switch (type) {
+                case "Integer" -> builder.append(random.nextInt());
+                case "Real" -> builder.append(random.nextDouble() * 1000);
+                default -> builder.append("line number ").append(i);
+            }
+            builder.append(i % 10 == 9 || type.equals("String") ? '\n' : ' ');
+        }
+        input = builder.toString().getBytes(StandardCharsets.UTF_8);
+        final Algorithm algorithm = BenchmarkPrograms.interpret("""
+                Algorithm Input;
+
+                Variables
+                    v: %s;
+
+                Begin
+                    Read(v);
+                End
+                """.formatted(type));
+        read = algorithm.getInstructions().get(0).getStatement();
+        frame = algorithm.getVariableTable().newFrame();
+        output = new MemoryOutputSink();
+    }
+
+    @Benchmark
+    public void read(final Blackhole blackhole) {
+        final ExecutionContext context = new ExecutionContext(frame, output,
+                new InputReader(new ByteArrayInputStream(input), StandardCharsets.UTF_8));
+        for (int i = 0; i < values; i++) {
+            read.execute(context);
+        }
+        blackhole.consume(frame);
+    }
+
+}
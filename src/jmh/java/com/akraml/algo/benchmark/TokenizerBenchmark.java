@@ -0,0 +1,56 @@
+package com.akraml.algo.benchmark;
+
+import com.akraml.algo.interpreter.token.TokenType;
+import com.akraml.algo.interpreter.token.TokenizeException;
+import com.akraml.algo.interpreter.token.Tokenizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Tokenizer#tokenize} for every {@link TokenType.DataType}, with a valid and an invalid literal.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TokenizerBenchmark {
+
+    @Param({"INTEGER", "DOUBLE", "STRING"})
+    public TokenType.DataType dataType;
+
+    private final Tokenizer tokenizer = new Tokenizer();
+    private String valid, invalid;
+
+    @Setup
+    public void setup() {
+        switch (dataType) {
+            case INTEGER -> {
+                valid = "-1234567";
+                invalid = "12a34";
+            }
+            case DOUBLE -> {
+                valid = "-12345.6789";
+                invalid = "12.34.56";
+            }
+            case STRING -> {
+                valid = "\"Hello, \\\"World\\\"!\\n\"";
+                invalid = "\"Hello\" World\"";
+            }
+        }
+    }
+
+    @Benchmark
+    public Object valid() throws TokenizeException {
+        return tokenizer.tokenize(dataType, valid);
+    }
+
+    @Benchmark
+    public Object invalid() {
+        try {
+            return tokenizer.tokenize(dataType, invalid);
+        } catch (final TokenizeException exception) {
+            return exception;
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.akraml.algo.benchmark;
+
+import com.akraml.algo.interpreter.Algorithm;
+import com.akraml.algo.interpreter.InterpretationException;
+import com.akraml.algo.interpreter.runtime.BufferedOutputSink;
+import com.akraml.algo.interpreter.runtime.ExecutionContext;
+import com.akraml.algo.interpreter.runtime.InputReader;
+import com.akraml.algo.interpreter.runtime.Statement;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a {@code Write} statement with many components going through the default buffered sink.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WriteBenchmark {
+
+    @Param({"1", "16", "64"})
+    public int components;
+
+    private Statement write;
+    private ExecutionContext context;
+
+    @Setup
+    public void setup() throws IOException, InterpretationException {
+        final StringBuilder arguments = new StringBuilder();
+        for (int i = 0; i < components; i++) {
+            if (i > 0) arguments.append(", ");
+            arguments.append(switch (i % 4) {
+                case 0 -> "\"text \"";
+                case 1 -> "n";
+                case 2 -> "r";
+                default -> "s";
+            });
+        }
+        final Algorithm algorithm = BenchmarkPrograms.interpret("""
+                Algorithm Output;
+
+                Variables
+                    n = 123456: Integer;
+                    r = 3.14159: Real;
+                    s = "string": String;
+
+                Begin
+                    Write(%s);
+                End
+                """.formatted(arguments));
+        write = algorithm.getInstructions().get(0).getStatement();
+        context = new ExecutionContext(algorithm.getVariableTable().newFrame(),
+                new BufferedOutputSink(OutputStream.nullOutputStream()), InputReader.fromString(""));
+    }
+
+    @Benchmark
+    public void write() {
+        write.execute(context);
+    }
+
+}
@@ -1,11 +1,26 @@
 package com.akraml.algo;
 
+import com.akraml.algo.daemon.AlgoClient;
+import com.akraml.algo.daemon.AlgoDaemon;
 import com.akraml.algo.interpreter.AlgoInterpreter;
+import com.akraml.algo.interpreter.AlgoRuntime;
+import com.akraml.algo.interpreter.BatchRunner;
 import com.akraml.algo.interpreter.Algorithm;
+import com.akraml.algo.interpreter.AlgorithmSerializer;
 import com.akraml.algo.interpreter.InterpretationException;
+import com.akraml.algo.interpreter.Profiler;
+import com.akraml.algo.interpreter.compiler.BytecodeCompiler;
+import com.akraml.algo.interpreter.runtime.BufferedOutputSink;
+import com.akraml.algo.interpreter.runtime.ExecutionLimits;
+import com.akraml.algo.interpreter.runtime.InputReader;
+import com.akraml.algo.interpreter.runtime.Statement;
+import com.akraml.algo.interpreter.token.NumberParser;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Map;
 
 /**
@@ -13,14 +28,82 @@ import java.util.Map;
  */
 public final class AlgoMain {
 
-    public static void main(String[] args) throws IOException {
-        if (args.length != 1) {
-            System.out.println("Usage: ./algo <file>");
+    public static void main(String[] args) {
+        boolean compile = false, emit = false, profile = false, daemon = false, client = false, valid = true;
+        String fileName = null, batch = null;
+        Path socket = null;
+        Duration timeout = null;
+        ExecutionLimits limits = ExecutionLimits.NONE;
+        for (final String arg : args) {
+            if (arg.startsWith("--max-statements=") || arg.startsWith("--max-output=") || arg.startsWith("--max-string=")
+                    || arg.startsWith("--max-depth=")) {
+                final long value = parseLimit(arg.substring(arg.indexOf('=') + 1));
+                if (value <= 0) {
+                    valid = false;
+                    break;
+                }
+                if (arg.startsWith("--max-statements=")) {
+                    limits = limits.withMaxStatements(value);
+                } else if (arg.startsWith("--max-output=")) {
+                    limits = limits.withMaxOutputBytes(value);
+                } else if (arg.startsWith("--max-string=")) {
+                    limits = limits.withMaxStringLength((int) Math.min(value, Integer.MAX_VALUE));
+                } else {
+                    limits = limits.withMaxCallDepth((int) Math.min(value, Integer.MAX_VALUE));
+                }
+            } else if (arg.startsWith("--batch=")) {
+                batch = arg.substring("--batch=".length());
+            } else if (arg.startsWith("--socket=")) {
+                socket = Path.of(arg.substring("--socket=".length()));
+            } else if (arg.startsWith("--timeout=")) {
+                final double seconds = NumberParser.parseReal(arg.substring("--timeout=".length()));
+                if (!(seconds > 0)) {
+                    valid = false;
+                    break;
+                }
+                timeout = Duration.ofNanos((long) (seconds * 1e9));
+            } else if (arg.equals("--daemon")) {
+                daemon = true;
+            } else if (arg.equals("--client")) {
+                client = true;
+            } else if (arg.equals("--compile")) {
+                compile = true;
+            } else if (arg.equals("--emit")) {
+                emit = true;
+            } else if (arg.equals("--profile")) {
+                profile = true;
+            } else if (fileName == null && !arg.startsWith("--")) {
+                fileName = arg;
+            } else {
+                valid = false;
+                break;
+            }
+        }
+        if (valid && daemon) {
+            if (fileName != null || client || compile || profile || emit || batch != null) {
+                usage();
+            } else {
+                daemon(socket == null ? AlgoDaemon.defaultSocket() : socket, timeout, limits);
+            }
+            return;
+        }
+        if (!valid || fileName == null || (client && (compile || profile || emit || batch != null || timeout != null
+                || limits != ExecutionLimits.NONE))) {
+            usage();
+            return;
+        }
+        if (compile && profile) {
+            System.out.println("Profiling is only available in interpreted mode, remove '--compile'");
+            return;
+        }
+        if (batch != null && (compile || profile || emit)) {
+            System.out.println("Batch mode runs the interpreted algorithm, remove '--compile', '--profile' and '--emit'");
             return;
         }
-        final String fileName = args[0];
-        if (!fileName.toLowerCase().endsWith(".algo")) {
-            System.out.println("Please specify a valid file, file name should end with '.algo'");
+        final boolean precompiled = fileName.toLowerCase().endsWith(AlgorithmSerializer.EXTENSION);
+        if (!precompiled && !fileName.toLowerCase().endsWith(".algo")) {
+            System.out.println("Please specify a valid file, file name should end with '.algo' or '" +
+                    AlgorithmSerializer.EXTENSION + "'");
             return;
         }
         final File file = new File(fileName);
@@ -28,25 +111,188 @@ public final class AlgoMain {
             System.out.println("Cannot find a file with this name.");
             return;
         }
-        final AlgoInterpreter interpreter = new AlgoInterpreter(file);
-        interpreter.readFile();
+        if (client) {
+            if (precompiled) {
+                System.out.println("The daemon runs '.algo' sources only");
+                return;
+            }
+            client(socket == null ? AlgoDaemon.defaultSocket() : socket, file.toPath());
+            return;
+        }
+        final AlgorithmSerializer serializer = new AlgorithmSerializer();
         Algorithm algorithm = null;
-        try {
-            algorithm = interpreter.interpret();
-        } catch (final InterpretationException exception) {
-            System.err.println("[INTERPRETER] " + exception.getMessage());
+        if (precompiled) {
+            try {
+                algorithm = serializer.load(file.toPath());
+            } catch (final InterpretationException exception) {
+                System.err.println("[LOADER] " + exception.getMessage());
+                return;
+            }
+        } else {
+            try {
+                algorithm = new AlgoInterpreter(file).interpret();
+            } catch (final InterpretationException exception) {
+                System.err.println("[INTERPRETER] " + exception.getMessage());
+                return;
+            }
+        }
+        if (emit) {
+            // Writes the interpreted algorithm next to its source instead of running it.
+            final Path output = Path.of(fileName.substring(0, fileName.lastIndexOf('.')) + AlgorithmSerializer.EXTENSION);
+            try {
+                serializer.write(algorithm, output);
+            } catch (final InterpretationException exception) {
+                System.err.println("[COMPILER] " + exception.getMessage());
+                return;
+            }
+            System.out.println("Compiled algorithm written to " + output);
             return;
         }
+        if (batch != null) {
+            batch(algorithm, Path.of(batch), timeout, limits);
+            return;
+        }
+        // Without a runtime to time the execution out, the deadline is enforced by the execution itself.
+        if (timeout != null) limits = limits.withTimeout(timeout);
 //        System.out.println("[TEST] Algorithm name is " + algorithm.getName());
 //        for (Map.Entry<String, Object> entry : algorithm.getVariables().entrySet()) {
 //            System.out.println("[TEST] Found variable " + entry.getKey() +
 //                    (entry.getValue().getClass().getSimpleName().equals("Object") ? " with no value assigned" : " with value " + entry.getValue()));
 //        }
+        if (compile) {
+            final Statement compiled;
+            try {
+                compiled = new BytecodeCompiler().compile(algorithm);
+            } catch (final InterpretationException exception) {
+                System.err.println("[COMPILER] " + exception.getMessage());
+                return;
+            }
+            try {
+                algorithm.execute(algorithm.newContext(new BufferedOutputSink(System.out), new InputReader(System.in),
+                        limits), compiled);
+            } catch (final Exception exception) {
+                reportFailure(exception);
+            }
+            return;
+        }
+        if (profile) {
+            profile(algorithm, Path.of(fileName.substring(0, fileName.lastIndexOf('.')) + ".profile.json"), limits);
+            return;
+        }
+        try {
+            algorithm.execute(algorithm.newContext(new BufferedOutputSink(System.out), new InputReader(System.in), limits));
+        } catch (final Exception exception) {
+            reportFailure(exception);
+        }
+    }
+
+    /**
+     * Reports a failed execution, a failure of the algorithm only prints its message, anything else is a bug of the
+     * interpreter and prints its stack trace too.
+     */
+    private static void reportFailure(final Exception exception) {
+        if (exception.getCause() instanceof InterpretationException interpretation) {
+            System.err.println("[INTERPRETER] " + interpretation.getMessage());
+            return;
+        }
+        exception.printStackTrace();
+        System.err.println("[INTERPRETER] " + exception.getMessage());
+    }
+
+    private static void usage() {
+        System.out.println("Usage: ./algo [--compile | --profile | --batch=<directory>] [--timeout=<seconds>] [--emit] [<limits>] <file>");
+        System.out.println("       ./algo --daemon [--socket=<path>] [--timeout=<seconds>] [<limits>]");
+        System.out.println("       ./algo --client [--socket=<path>] <file>");
+        System.out.println("Limits: --max-statements=<count> --max-output=<bytes> --max-string=<characters> " +
+                "--max-depth=<calls>");
+    }
+
+    /**
+     * @return the positive whole number written in the argument, exponents allowed, or {@code -1} if it is invalid.
+     */
+    private static long parseLimit(final String value) {
+        final double number = NumberParser.parseReal(value);
+        if (!(number >= 1) || number != Math.rint(number)) return -1;
+        return number >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) number;
+    }
+
+    /**
+     * Serves runs on a Unix-domain socket until the process is stopped.
+     */
+    private static void daemon(final Path socket,
+                               final Duration timeout,
+                               final ExecutionLimits limits) {
+        final AlgoDaemon daemon = new AlgoDaemon(socket, timeout, limits);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                daemon.close();
+            } catch (final IOException ignored) {
+            }
+        }));
+        try {
+            daemon.bind();
+            System.out.println("Listening on " + socket);
+            daemon.serve();
+        } catch (final IOException exception) {
+            System.err.println("[DAEMON] " + exception.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the file on the daemon, this process exits with the exit status of the run.
+     */
+    private static void client(final Path socket,
+                               final Path file) {
+        final int status;
+        try {
+            status = new AlgoClient(socket).run(file, System.in, System.out, System.err);
+        } catch (final IOException exception) {
+            System.err.println("[CLIENT] Cannot run on the daemon at " + socket + ": " + exception.getMessage());
+            System.exit(1);
+            return;
+        }
+        System.exit(status);
+    }
+
+    /**
+     * Executes the algorithm once for every input file of the directory, the outputs and the expected outputs
+     * are files next to the inputs, see {@link BatchRunner}. The summary goes to the standard output.
+     */
+    private static void batch(final Algorithm algorithm,
+                              final Path directory,
+                              final Duration timeout,
+                              final ExecutionLimits limits) {
+        if (!Files.isDirectory(directory)) {
+            System.out.println("Cannot find a directory with this name.");
+            return;
+        }
+        try (final AlgoRuntime runtime = new AlgoRuntime()) {
+            System.out.print(new BatchRunner(runtime, timeout, Runtime.getRuntime().availableProcessors(), limits).run(algorithm, directory).format());
+        } catch (final InterpretationException exception) {
+            System.err.println("[BATCH] " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Executes the algorithm with a profiler, the report goes to the error stream so the output stays untouched.
+     */
+    private static void profile(final Algorithm algorithm,
+                                final Path json,
+                                final ExecutionLimits limits) {
+        final Profiler profiler = new Profiler(algorithm);
         try {
-            algorithm.startExecution();
+            algorithm.execute(algorithm.newContext(new BufferedOutputSink(System.out), new InputReader(System.in),
+                    limits), profiler);
         } catch (final Exception exception) {
-            exception.printStackTrace();
-            System.err.println("[INTERPRETER] " + exception.getMessage());
+            reportFailure(exception);
+        }
+        System.err.print(profiler.report());
+        try {
+            Files.writeString(json, profiler.toJson());
+            System.err.println("Profile written to " + json);
+        } catch (final IOException exception) {
+            System.err.println("[PROFILER] Failed to write profile: " + exception.getMessage());
         }
     }
 
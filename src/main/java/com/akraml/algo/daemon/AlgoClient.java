@@ -0,0 +1,90 @@
+package com.akraml.algo.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Thin client of {@link AlgoDaemon}: sends a source file and its standard input, then prints what the run writes
+ * as it comes.
+ */
+public final class AlgoClient {
+
+    private final Path socket;
+
+    public AlgoClient(final Path socket) {
+        this.socket = socket;
+    }
+
+    /**
+     * Runs the source file on the daemon with the given input and outputs.
+     *
+     * @return the exit status of the run.
+     * @throws IOException if the daemon cannot be reached or the connection is lost.
+     */
+    public int run(final Path file,
+                   final InputStream stdin,
+                   final PrintStream stdout,
+                   final PrintStream stderr) throws IOException {
+        final String source = Files.readString(file, StandardCharsets.UTF_8);
+        try (final SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socket));
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Protocol.outputStream(channel)));
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(Protocol.inputStream(channel)));
+            out.writeInt(Protocol.VERSION);
+            Protocol.writeString(out, file.getFileName().toString());
+            Protocol.writeString(out, source);
+            out.flush();
+            // The input is forwarded as it comes, from a daemon thread so a run that never reads does not wait
+            // for the end of the input.
+            final Thread forwarder = new Thread(() -> forwardInput(stdin, out), "algo-client-input");
+            forwarder.setDaemon(true);
+            forwarder.start();
+            while (true) {
+                final int type = in.read();
+                if (type == -1) throw new EOFException("Connection closed by the daemon");
+                final int value = in.readInt();
+                switch (type) {
+                    case Protocol.STDOUT -> {
+                        stdout.write(in.readNBytes(value));
+                        stdout.flush();
+                    }
+                    case Protocol.STDERR -> {
+                        stderr.write(in.readNBytes(value));
+                        stderr.flush();
+                    }
+                    case Protocol.EXIT -> {
+                        return value;
+                    }
+                    default -> throw new IOException("Unknown frame type " + type);
+                }
+            }
+        }
+    }
+
+    private static void forwardInput(final InputStream stdin,
+                                     final DataOutputStream out) {
+        final byte[] buffer = new byte[8192];
+        try {
+            int read;
+            while ((read = stdin.read(buffer)) != -1) {
+                if (read > 0) Protocol.writeFrame(out, Protocol.STDIN, buffer, 0, read);
+            }
+            Protocol.writeFrame(out, Protocol.STDIN, buffer, 0, 0);
+        } catch (final IOException ignored) {
+            // The run ended and the connection is closed.
+        }
+    }
+
+}
@@ -0,0 +1,290 @@
+package com.akraml.algo.daemon;
+
+import com.akraml.algo.interpreter.AlgoRuntime;
+import com.akraml.algo.interpreter.Algorithm;
+import com.akraml.algo.interpreter.ExecutionResult;
+import com.akraml.algo.interpreter.InterpretationException;
+import com.akraml.algo.interpreter.runtime.ExecutionLimits;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.Pipe;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Long-lived process executing algorithms sent by {@link AlgoClient} over a Unix-domain socket, so a run does not
+ * pay for starting a JVM and the interpreter and the JIT are already warm.
+ * <p>
+ * Every connection is one run with its own context, input and output, executed on an {@link AlgoRuntime}.
+ * Identical sources are interpreted once thanks to the runtime cache. A run is cancelled when its client
+ * disconnects or when it reaches the timeout of the daemon, and fails once it goes over the limits of the daemon.
+ */
+public final class AlgoDaemon implements AutoCloseable {
+
+    private final Path socket;
+    private final Duration timeout;
+    private final ExecutionLimits limits;
+    private final AlgoRuntime runtime = new AlgoRuntime();
+    // Connections mostly wait for their client or their run, they get threads of their own.
+    private final ExecutorService connections = newConnectionExecutor();
+    private volatile ServerSocketChannel server;
+
+    /**
+     * @param timeout the maximum execution time of a run, or {@code null} for no limit.
+     */
+    public AlgoDaemon(final Path socket,
+                      final Duration timeout) {
+        this(socket, timeout, ExecutionLimits.NONE);
+    }
+
+    /**
+     * @param timeout the maximum execution time of a run, or {@code null} for no limit.
+     * @param limits  the resources every run may use.
+     */
+    public AlgoDaemon(final Path socket,
+                      final Duration timeout,
+                      final ExecutionLimits limits) {
+        this.socket = socket;
+        this.timeout = timeout;
+        this.limits = limits;
+    }
+
+    /**
+     * @return the socket used when none is given, in the temporary directory and specific to the user.
+     */
+    public static Path defaultSocket() {
+        return Protocol.defaultSocket();
+    }
+
+    /**
+     * Binds the socket, a socket file left by a daemon that is not running anymore is replaced.
+     */
+    public void bind() throws IOException {
+        if (server != null) return;
+        if (Files.exists(socket)) {
+            if (isListening(socket)) throw new IOException("A daemon is already listening on " + socket);
+            Files.delete(socket);
+        }
+        final ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.bind(UnixDomainSocketAddress.of(socket));
+        } catch (final IOException exception) {
+            channel.close();
+            throw exception;
+        }
+        server = channel;
+    }
+
+    /**
+     * Binds the socket if needed and accepts connections until the daemon is closed.
+     */
+    public void serve() throws IOException {
+        bind();
+        try {
+            while (true) {
+                final SocketChannel channel = server.accept();
+                connections.execute(() -> handle(channel));
+            }
+        } catch (final ClosedChannelException exception) {
+            // Closed by close().
+        } finally {
+            Files.deleteIfExists(socket);
+        }
+    }
+
+    private static boolean isListening(final Path socket) {
+        final SocketChannel channel;
+        try {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(socket));
+        } catch (final IOException exception) {
+            return false;
+        }
+        // Connecting was enough to know, the connection is not used.
+        try {
+            channel.close();
+        } catch (final IOException ignored) {
+        }
+        return true;
+    }
+
+    private void handle(final SocketChannel channel) {
+        try (channel) {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(Protocol.inputStream(channel)));
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Protocol.outputStream(channel)));
+            final int version = in.readInt();
+            if (version != Protocol.VERSION) {
+                fail(out, "[DAEMON] Unsupported protocol version " + version + ", expected " + Protocol.VERSION);
+                return;
+            }
+            final String name = Protocol.readString(in);
+            final String source = Protocol.readString(in);
+            final Algorithm algorithm;
+            try {
+                algorithm = runtime.parse(source);
+            } catch (final InterpretationException exception) {
+                fail(out, "[INTERPRETER] " + name + ": " + exception.getMessage());
+                return;
+            }
+            final Pipe input = Pipe.open();
+            try (final InputStream stdin = Channels.newInputStream(input.source());
+                 final OutputStream stdout = new FrameOutputStream(out, Protocol.STDOUT)) {
+                final CompletableFuture<ExecutionResult> run = runtime.submit(algorithm, stdin, stdout, timeout, limits);
+                connections.execute(() -> forwardInput(in, input.sink(), run));
+                Protocol.writeExit(out, await(run, out));
+            }
+        } catch (final IOException ignored) {
+            // The client is gone, its run is cancelled by forwardInput.
+        }
+    }
+
+    /**
+     * Copies the standard input frames of the client to the run, and cancels the run once the client disconnects.
+     */
+    private void forwardInput(final DataInputStream in,
+                              final Pipe.SinkChannel sink,
+                              final CompletableFuture<ExecutionResult> run) {
+        try (sink) {
+            int type;
+            while ((type = in.read()) == Protocol.STDIN) {
+                final int length = in.readInt();
+                if (length <= 0) break;
+                final ByteBuffer buffer = ByteBuffer.wrap(in.readNBytes(length));
+                while (buffer.hasRemaining()) {
+                    sink.write(buffer);
+                }
+            }
+            if (type == Protocol.STDIN) {
+                sink.close();
+                // Nothing else is sent, the read returns when the client disconnects or the run ends.
+                while (in.read() != -1) {
+                    // Ignore anything sent after the end of the input.
+                }
+            }
+        } catch (final IOException ignored) {
+            // Disconnected, or the run ended and closed the connection.
+        }
+        run.cancel(false);
+    }
+
+    private static int await(final CompletableFuture<ExecutionResult> run,
+                             final DataOutputStream out) throws IOException {
+        try {
+            run.get();
+            return Protocol.EXIT_SUCCESS;
+        } catch (final CancellationException exception) {
+            return Protocol.EXIT_FAILURE;
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            run.cancel(false);
+            return Protocol.EXIT_FAILURE;
+        } catch (final ExecutionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof TimeoutException) {
+                error(out, "[INTERPRETER] Execution timed out");
+                return Protocol.EXIT_TIMEOUT;
+            }
+            if (cause instanceof InterpretationException interpretation
+                    && interpretation.getKind() == InterpretationException.Kind.LIMIT) {
+                error(out, "[INTERPRETER] " + cause.getMessage());
+                return Protocol.EXIT_LIMIT;
+            }
+            String message = "[INTERPRETER] " + cause.getMessage();
+            // Failures of the algorithm already tell what went wrong, like the command line does.
+            if (cause.getCause() != null && !(cause instanceof InterpretationException)) {
+                message += "\nCaused by: " + cause.getCause();
+            }
+            error(out, message);
+            return Protocol.EXIT_FAILURE;
+        }
+    }
+
+    private static void fail(final DataOutputStream out,
+                             final String message) throws IOException {
+        error(out, message);
+        Protocol.writeExit(out, Protocol.EXIT_FAILURE);
+    }
+
+    private static void error(final DataOutputStream out,
+                              final String message) throws IOException {
+        final byte[] bytes = (message + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        Protocol.writeFrame(out, Protocol.STDERR, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Stops accepting connections and removes the socket if this daemon bound it, runs in progress are not
+     * interrupted.
+     */
+    @Override
+    public void close() throws IOException {
+        if (server != null) {
+            server.close();
+            Files.deleteIfExists(socket);
+        }
+        connections.shutdown();
+        runtime.close();
+    }
+
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final ReflectiveOperationException | UnsupportedOperationException exception) {
+            final AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                final Thread thread = new Thread(runnable, "algo-daemon-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Sends everything written to it as frames of the given type.
+     */
+    private static final class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+        private final int type;
+
+        private FrameOutputStream(final DataOutputStream out,
+                                  final int type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] bytes,
+                          final int offset,
+                          final int length) throws IOException {
+            if (length > 0) Protocol.writeFrame(out, type, bytes, offset, length);
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.akraml.algo.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Wire format between {@link AlgoDaemon} and {@link AlgoClient}, all numbers are big-endian.
+ * <p>
+ * The client sends the protocol version, the source name and the source, strings being written as their UTF-8
+ * length followed by their bytes. Then it streams its standard input as {@link #STDIN} frames, an empty frame
+ * meaning the end of the input. The daemon answers with {@link #STDOUT} and {@link #STDERR} frames and ends with
+ * an {@link #EXIT} frame holding the exit status instead of a length, then closes the connection.
+ * A frame is its type byte, the length of its content and the content.
+ */
+final class Protocol {
+
+    static final int VERSION = 1;
+    static final int STDIN = 0, STDOUT = 1, STDERR = 2, EXIT = 3;
+
+    static final int EXIT_SUCCESS = 0, EXIT_FAILURE = 1, EXIT_TIMEOUT = 2, EXIT_LIMIT = 3;
+
+    private Protocol() {
+    }
+
+    /**
+     * @return the socket used when none is given, in the temporary directory and specific to the user.
+     */
+    static Path defaultSocket() {
+        return Path.of(System.getProperty("java.io.tmpdir"), "algo-" + System.getProperty("user.name") + ".sock");
+    }
+
+    static void writeString(final DataOutputStream out,
+                            final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) throw new IOException("Invalid string length " + length);
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes and flushes a whole frame, frames written by different threads never interleave.
+     */
+    static void writeFrame(final DataOutputStream out,
+                           final int type,
+                           final byte[] bytes,
+                           final int offset,
+                           final int length) throws IOException {
+        synchronized (out) {
+            out.writeByte(type);
+            out.writeInt(length);
+            out.write(bytes, offset, length);
+            out.flush();
+        }
+    }
+
+    static void writeExit(final DataOutputStream out,
+                          final int status) throws IOException {
+        synchronized (out) {
+            out.writeByte(EXIT);
+            out.writeInt(status);
+            out.flush();
+        }
+    }
+
+    /**
+     * The streams of {@link java.nio.channels.Channels} lock the channel for a whole blocking read, which would
+     * block writes from another thread. These ones call the channel directly, it supports a concurrent reader
+     * and writer.
+     */
+    static InputStream inputStream(final SocketChannel channel) {
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                final byte[] single = new byte[1];
+                return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(final byte[] bytes,
+                            final int offset,
+                            final int length) throws IOException {
+                if (length == 0) return 0;
+                return channel.read(ByteBuffer.wrap(bytes, offset, length));
+            }
+        };
+    }
+
+    static OutputStream outputStream(final SocketChannel channel) {
+        return new OutputStream() {
+            @Override
+            public void write(final int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(final byte[] bytes,
+                              final int offset,
+                              final int length) throws IOException {
+                final ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        };
+    }
+
+}
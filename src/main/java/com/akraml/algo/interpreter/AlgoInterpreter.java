@@ -1,32 +1,84 @@
 package com.akraml.algo.interpreter;
 
+import com.akraml.algo.interpreter.expression.BinaryExpression;
+import com.akraml.algo.interpreter.expression.ComparisonCondition;
+import com.akraml.algo.interpreter.expression.ComparisonOperator;
+import com.akraml.algo.interpreter.expression.Condition;
+import com.akraml.algo.interpreter.expression.Expression;
+import com.akraml.algo.interpreter.expression.ExpressionParser;
+import com.akraml.algo.interpreter.expression.LiteralExpression;
+import com.akraml.algo.interpreter.expression.Operator;
+import com.akraml.algo.interpreter.expression.VariableExpression;
+import com.akraml.algo.interpreter.metrics.AlgoMetrics;
+import com.akraml.algo.interpreter.processor.CallProcessor;
 import com.akraml.algo.interpreter.processor.OperationProcessor;
 import com.akraml.algo.interpreter.processor.Processor;
 import com.akraml.algo.interpreter.processor.ReadProcessor;
 import com.akraml.algo.interpreter.processor.WriteProcessor;
+import com.akraml.algo.interpreter.runtime.AssignmentStatement;
+import com.akraml.algo.interpreter.runtime.ReturnStatement;
+import com.akraml.algo.interpreter.runtime.Routine;
+import com.akraml.algo.interpreter.runtime.Variable;
+import com.akraml.algo.interpreter.runtime.VariableTable;
+import com.akraml.algo.interpreter.token.NumberParser;
 import com.akraml.algo.interpreter.token.TokenType;
 import com.akraml.algo.interpreter.token.TokenizeException;
 import com.akraml.algo.interpreter.token.Tokenizer;
 
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.*;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * This class will handle file translation from readable code into processable instructions.
+ * <p>
+ * Functions and procedures are declared before the Begin body of the algorithm, each one with its parameters,
+ * an optional Variables section and a Begin body closed by {@code EndFunction} or {@code EndProcedure}:
+ * <pre>
+ * Function Factorial(n: Integer): Integer;
+ * Begin
+ *     If n &lt;= 1 Then
+ *         Return 1;
+ *     EndIf
+ *     Return n * Factorial(n - 1);
+ * EndFunction
+ * </pre>
+ * A routine can be called once its header is read, so it may call itself and the ones declared before it.
  */
 public final class AlgoInterpreter {
 
     private static final Pattern VALIDATION_PATTERN = Pattern.compile("^[A-Za-z0-9_]+$");
-    private static final Pattern NUMBER_PATTERN = Pattern.compile("^[0-9].*");
+    private static final Pattern FOR_PATTERN =
+            Pattern.compile("^For\\s+(\\w+)\\s*=\\s*(.+?)\\s+To\\s+(.+?)(?:\\s+Step\\s+(.+?))?\\s+Do$");
+    private static final Pattern ARRAY_PATTERN = Pattern.compile("^Array\\s*\\[\\s*(\\w+)\\s*]\\s+of\\s+(\\w+)$");
+    private static final Pattern ROUTINE_PATTERN =
+            Pattern.compile("^(Function|Procedure)\\s+(\\w+)\\s*\\((.*)\\)\\s*(?::\\s*(\\w+)\\s*)?;$");
 
     private final File file;
-    private final List<String> fileContent = new ArrayList<>();
     private final Tokenizer tokenizer = new Tokenizer();
-    private final Map<String, Object> variables = new HashMap<>(), constants = new HashMap<>();
+    private VariableTable variables = new VariableTable();
+    private Map<String, Object> constants = new LinkedHashMap<>();
+    private Map<String, Routine> routines = new LinkedHashMap<>();
+    // The routine whose body is being interpreted, variables are its own table meanwhile.
+    private Routine routine;
     private final Map<String, Processor> processorMap = new HashMap<>();
     private final OperationProcessor operationProcessor = new OperationProcessor(this);
+    private final CallProcessor callProcessor = new CallProcessor(this);
+
+    /**
+     * Creates an interpreter without a file, the source is given to {@link #interpret(Reader)}.
+     */
+    public AlgoInterpreter() {
+        this(null);
+    }
 
     public AlgoInterpreter(final File file) {
         this.file = file;
@@ -34,230 +86,624 @@ public final class AlgoInterpreter {
         processorMap.put("Read", new ReadProcessor(this));
     }
 
-    public void readFile() throws FileNotFoundException {
-        // Initialize scanner and start reading file content.S
-        final Scanner scanner = new Scanner(file);
-        while (scanner.hasNextLine()) {
-            fileContent.add(scanner.nextLine());
+    /**
+     * Interprets the file in a single pass, the source is streamed line by line and the algorithm is built
+     * while reading it. Every call starts from a clean state and returns an independent algorithm.
+     */
+    public Algorithm interpret() throws InterpretationException {
+        if (file == null) throw new IllegalStateException("No file to interpret");
+        try (final BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            return interpretSource(reader);
+        } catch (final IOException exception) {
+            AlgoMetrics.get().recordFailure(InterpretationException.Kind.IO);
+            throw new InterpretationException(InterpretationException.Kind.IO,
+                    "Failed to read file: " + exception.getMessage(), exception);
         }
     }
 
-    public Algorithm interpret() throws InterpretationException {
-        // Check if file is empty
-        if (fileContent.stream().filter(str -> !str.trim().isEmpty()).toList().isEmpty()) {
-            throw new InterpretationException("File is empty");
+    /**
+     * Interprets the source read from the given reader, the reader is not closed.
+     */
+    public Algorithm interpret(final Reader reader) throws InterpretationException {
+        try {
+            return interpretSource(reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader));
+        } catch (final IOException exception) {
+            AlgoMetrics.get().recordFailure(InterpretationException.Kind.IO);
+            throw new InterpretationException(InterpretationException.Kind.IO,
+                    "Failed to read source: " + exception.getMessage(), exception);
         }
-        // Now, we will start the interpreter.
-        int currentLine = 0;
+    }
 
-        Algorithm algorithm = null;
+    private Algorithm interpretSource(final BufferedReader reader) throws IOException, InterpretationException {
+        final long start = System.nanoTime();
+        try {
+            final Algorithm algorithm = interpretLines(reader);
+            AlgoMetrics.get().recordParse(System.nanoTime() - start);
+            return algorithm;
+        } catch (final InterpretationException exception) {
+            AlgoMetrics.get().recordFailure(exception.getKind());
+            throw exception;
+        }
+    }
 
-        // Perform order check.
-        boolean algorithmPresent = false,
+    private Algorithm interpretLines(final BufferedReader reader) throws IOException, InterpretationException {
+        variables = new VariableTable();
+        constants = new LinkedHashMap<>();
+        routines = new LinkedHashMap<>();
+        routine = null;
+        int currentLine = 0;
+        String algorithmName = null;
+        final ProgramBuilder program = new ProgramBuilder();
+        boolean contentPresent = false,
                 variablesPresent = false,
                 constantsPresent = false,
-                beginPresent = false;
-        for (String str : fileContent) {
+                beginPresent = false,
+                endPresent = false,
+                inVariables = false,
+                inConstants = false;
+
+        String raw;
+        while ((raw = reader.readLine()) != null) {
             currentLine++;
-            if (str.trim().startsWith("//")) continue;
-            str = removeComments(str);
-            // Identify algorithm name first.
-            if (!variablesPresent && !constantsPresent && !beginPresent && !algorithmPresent) {
-                if (str.startsWith("Algorithm ")) {
-                    algorithmPresent = true;
-                    continue;
-                }
+            if (!contentPresent && !raw.trim().isEmpty()) contentPresent = true;
+            if (raw.trim().startsWith("//")) continue;
+            final String str = removeComments(raw);
+
+            // The file should start with the algorithm name.
+            if (algorithmName == null) {
+                if (str.isEmpty()) continue;
+                algorithmName = interpretName(str, currentLine);
+                continue;
             }
-            // Check for out-of-order with algorithm keyword.
-            if (variablesPresent || constantsPresent || beginPresent) {
-                if (str.startsWith("Algorithm ")) {
-                    throw new InterpretationException("Error in line " + currentLine + ": Algorithm name should be first");
-                }
+
+            // Perform order check.
+            if ((variablesPresent || constantsPresent || beginPresent) && str.startsWith("Algorithm ")) {
+                throw new InterpretationException("Error in line " + currentLine + ": Algorithm name should be first");
             }
-            // Check for out of order with constants keyword
             if (constantsPresent && str.equals("Constants")) {
                 throw new InterpretationException("Error in line " + currentLine + ": Constants keyword duplication");
             }
-            // Check for out of order with variables keyword
             if (variablesPresent && str.equals("Variables")) {
                 throw new InterpretationException("Error in line " + currentLine + ": Variables keyword duplication");
             }
-            // Check for begin duplication
             if (beginPresent && str.equals("Begin")) {
                 throw new InterpretationException("Error in line " + currentLine + ": Begin keyword duplication");
             }
-            // Identify constants now.
-            if (!beginPresent && !variablesPresent && str.equals("Variables")) {
-                variablesPresent = true;
+
+            if (inVariables) {
+                if (str.trim().isEmpty()) {
+                    inVariables = false;
+                } else {
+                    interpretVariable(str, currentLine);
+                }
                 continue;
             }
-            if (!beginPresent && !constantsPresent && str.equals("Constants")) {
-                constantsPresent = true;
+            if (inConstants) {
+                if (str.trim().isEmpty()) {
+                    inConstants = false;
+                } else {
+                    interpretConstant(str, currentLine);
+                }
                 continue;
             }
-            if (!beginPresent && str.equals("Begin")) {
+            if (beginPresent) {
+                if (endPresent) continue;
+                if (str.equalsIgnoreCase("End")) {
+                    endPresent = true;
+                    continue;
+                }
+                interpretCommand(program, str, currentLine);
+                continue;
+            }
+            if (str.startsWith("Function ") || str.startsWith("Procedure ")) {
+                currentLine = interpretRoutine(reader, str, currentLine);
+                continue;
+            }
+            if (str.equals("Variables")) {
+                variablesPresent = true;
+                inVariables = true;
+            } else if (str.equals("Constants")) {
+                constantsPresent = true;
+                inConstants = true;
+            } else if (str.equals("Begin")) {
                 beginPresent = true;
             }
         }
-        if (!algorithmPresent) {
+
+        if (!contentPresent) {
+            throw new InterpretationException("File is empty");
+        }
+        if (algorithmName == null) {
             throw new InterpretationException("Algorithm name is missing");
         }
         if (!beginPresent) {
             throw new InterpretationException("Algorithm begin body is missing");
         }
+        if (!endPresent) {
+            throw new InterpretationException("Algorithm has Begin body without End close\n" +
+                    "Suggestion: Add `End` keyword to the end of your algorithm");
+        }
+        return new Algorithm(algorithmName, variables, constants, routines.values(),
+                new ProgramOptimizer(variables).optimize(program.finish()));
+    }
 
-        // Initialize file name.
-            currentLine = 0;
-        for (String str : fileContent) {
-            currentLine++;
-            if (str.trim().startsWith("//")) continue;
-            str = removeComments(str);
-            if (!str.trim().isEmpty() && !str.startsWith("Algorithm ")) {
-                throw new InterpretationException("Error in line " + currentLine +
-                        ": The file should start with 'Algorithm <algorithm name>'");
-            }
-            if (!str.endsWith(";")) { // Check for EOL (End of line)
-                throw new InterpretationException("Error in line " + currentLine +
-                        ": Semicolon ';' is missing in the end of the line.");
-            }
-            String algorithmName = str.replaceFirst("Algorithm ", "");
-            algorithmName = algorithmName.substring(0, algorithmName.length() - 1);
-            if (!VALIDATION_PATTERN.matcher(algorithmName).matches()) {
-                throw new InterpretationException("Error in line " + currentLine +
-                        ": Invalid algorithm name '" + algorithmName + "'");
-            }
-            if (NUMBER_PATTERN.matcher(algorithmName).matches()) {
+    private String interpretName(final String str,
+                                 final int currentLine) throws InterpretationException {
+        if (!str.startsWith("Algorithm ")) {
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": The file should start with 'Algorithm <algorithm name>'");
+        }
+        if (!str.endsWith(";")) { // Check for EOL (End of line)
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": Semicolon ';' is missing in the end of the line.");
+        }
+        final String algorithmName = str.substring("Algorithm ".length(), str.length() - 1);
+        if (!VALIDATION_PATTERN.matcher(algorithmName).matches()) {
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": Invalid algorithm name '" + algorithmName + "'");
+        }
+        if (Character.isDigit(algorithmName.charAt(0))) {
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": Algorithm name should not start with a number.");
+        }
+        return algorithmName;
+    }
+
+    private void interpretVariable(final String str,
+                                   final int currentLine) throws InterpretationException {
+        // We will tokenize the string now.
+        // Here's how it's going to be tokenized:
+        // x:                Integer;
+        // ^                   ^
+        // variable name     data type
+        //
+        // Another case: let's say variable is pre-identified.
+        // in this case, we will check if there's an equal symbol in variable name's part
+        // example: x =       "Hello, World!":            String;
+        //          ^              ^                        ^
+        //   variable name     variable data              data type
+        final int leadingSpaces = countLeadingSpaces(str);
+        if (leadingSpaces != 4) {
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": Expected 4 white spaces, but found " + leadingSpaces + "\n" + str);
+        }
+        if (!str.contains(":") || !str.contains(";")) {
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": Invalid format\n" + str);
+        }
+        final String line = str.substring(leadingSpaces);
+        final int separator = line.indexOf(':');
+        final String variablePart = line.substring(0, separator);
+        String variableName, variableData = null;
+        final int equals = variablePart.indexOf('=');
+        if (equals != -1) {
+            variableName = variablePart.substring(0, equals).trim();
+            variableData = variablePart.substring(equals + 1);
+            if (variableData.trim().isEmpty()) {
                 throw new InterpretationException("Error in line " + currentLine +
-                        ": Algorithm name should not start with a number.");
+                        ": Variable is not identified\n" + str);
             }
-            algorithm = new Algorithm(algorithmName);
-            break;
+            // Let's replace white spaces at first now.
+            variableData = variableData.substring(countLeadingSpaces(variableData));
+        } else {
+            variableName = variablePart.trim().replaceAll("\\s{2,}", "");
+        }
+        // Check for variable duplication.
+        if (variables.contains(variableName) || constants.containsKey(variableName) || routines.containsKey(variableName)) {
+            throw new InterpretationException("Error at line " + currentLine +
+                    ": Variable name duplication '" + variableName + "'\n" + str);
+        }
+        final int typeEnd = line.indexOf(':', separator + 1);
+        final String type = line.substring(separator + 1, typeEnd == -1 ? line.length() : typeEnd).trim().replace(";", "");
+        final Matcher array = ARRAY_PATTERN.matcher(type);
+        if (array.matches()) {
+            interpretArray(str, currentLine, variableName, variableData, array);
+            return;
         }
+        final TokenType.DataType dataType = TokenType.DataType.fromName(type);
+        if (dataType == null) {
+            throw new InterpretationException("Error at line " + currentLine +
+                    ": Invalid data type '" + type + "'\n" + str);
+        }
+        try {
+            final Object tokenized = tokenizer.tokenize(dataType, variableData);
+            variables.declare(variableName, dataType, tokenized);
+        } catch (final TokenizeException exception) {
+            throw new InterpretationException("Error at line " + currentLine +
+                    ": Failed to tokenize: " + exception.getMessage() + "\n" + str);
+        }
+    }
 
-        if (algorithm == null) {
-            throw new InterpretationException("An unexpected error occurred when initializing the algorithm");
+    /**
+     * Declares an array, {@code t: Array[n] of Type;}. The size is a positive integer or an integer constant
+     * and the elements start with the default value of their type.
+     */
+    private void interpretArray(final String str,
+                                final int currentLine,
+                                final String name,
+                                final String data,
+                                final Matcher array) throws InterpretationException {
+        if (data != null) {
+            throw new InterpretationException("Error at line " + currentLine +
+                    ": Array '" + name + "' cannot be initialized in its declaration\n" + str);
+        }
+        final TokenType.DataType dataType = TokenType.DataType.fromName(array.group(2));
+        if (dataType == null) {
+            throw new InterpretationException("Error at line " + currentLine +
+                    ": Invalid data type '" + array.group(2) + "'\n" + str);
+        }
+        final String size = array.group(1);
+        final long length = parseLength(size);
+        if (length <= 0) {
+            throw new InterpretationException("Error at line " + currentLine +
+                    ": Array size should be a positive integer but found '" + size + "'\n" + str);
         }
+        variables.declareArray(name, dataType, (int) length);
+    }
 
-        // Initialize variables now.
-        currentLine = 0;
-        boolean beganVariables = false;
-        for (String str : fileContent) {
-            currentLine++;
-            if (str.trim().startsWith("//")) continue;
-            str = removeComments(str);
-            if (!beganVariables && str.equals("Variables")) {
-                beganVariables = true;
-                continue;
+    /**
+     * @return the length written in an array type, a number or an integer constant, not positive if it is invalid.
+     */
+    private long parseLength(final String size) {
+        return constants.get(size) instanceof Integer constant
+                ? constant
+                : NumberParser.parseInteger(size);
+    }
+
+    /**
+     * Interprets a routine from its header to its closing keyword, the lines of its body are read from the reader.
+     * Its variables and statements are interpreted like the ones of the algorithm, with the table of the routine
+     * in place of the algorithm one.
+     *
+     * @return the number of the last line read.
+     */
+    private int interpretRoutine(final BufferedReader reader,
+                                 final String header,
+                                 final int headerLine) throws IOException, InterpretationException {
+        final Matcher matcher = ROUTINE_PATTERN.matcher(header);
+        if (!matcher.matches()) {
+            throw new InterpretationException("Error in line " + headerLine + ": Invalid routine, expected " +
+                    "'Function <name>(<parameters>): <type>;' or 'Procedure <name>(<parameters>);'\n" + header);
+        }
+        final String kind = matcher.group(1), name = matcher.group(2);
+        if (Character.isDigit(name.charAt(0))) {
+            throw new InterpretationException("Error in line " + headerLine +
+                    ": " + kind + " name should not start with a number\n" + header);
+        }
+        if (routines.containsKey(name) || variables.contains(name) || constants.containsKey(name)
+                || processorMap.containsKey(name)) {
+            throw new InterpretationException("Error at line " + headerLine +
+                    ": " + kind + " name duplication '" + name + "'\n" + header);
+        }
+        final boolean function = kind.equals("Function");
+        TokenType.DataType returnType = null;
+        if (function) {
+            returnType = matcher.group(4) == null ? null : TokenType.DataType.fromName(matcher.group(4));
+            if (returnType == null) {
+                throw new InterpretationException("Error in line " + headerLine +
+                        ": Function '" + name + "' should declare a valid return type\n" + header);
             }
-            if (beganVariables) {
-                if (str.trim().isEmpty()) break;
-                // We will tokenize the string now.
-                // Here's how it's going to be tokenized:
-                // x:                Integer;
-                // ^                   ^
-                // variable name     data type
-                //
-                // Another case: let's say variable is pre-identified.
-                // in this case, we will check if there's an equal symbol in variable name's part
-                // example: x =       "Hello, World!":            String;
-                //          ^              ^                        ^
-                //   variable name     variable data              data type
-                final int leadingSpaces = countLeadingSpaces(str);
-                if (leadingSpaces != 4) {
-                    throw new InterpretationException("Error in line " + currentLine +
-                            ": Expected 4 white spaces, but found " + countLeadingSpaces(str) + "\n" + str);
-                }
-                if (!str.contains(":") || !str.contains(";")) {
-                    throw new InterpretationException("Error in line " + currentLine +
-                            ": Invalid format\n" + str);
+        } else if (matcher.group(4) != null) {
+            throw new InterpretationException("Error in line " + headerLine +
+                    ": Procedure '" + name + "' cannot return a value\n" + header);
+        }
+        final VariableTable table = new VariableTable();
+        if (!matcher.group(3).isBlank()) {
+            for (final String parameter : matcher.group(3).split(",")) {
+                interpretParameter(table, name, parameter, headerLine, header);
+            }
+        }
+        final Routine declared = new Routine(name, returnType, table, routines.size(), headerLine, header);
+        // Declared before its body so it can call itself.
+        routines.put(name, declared);
+        final String closing = "End" + kind;
+        final VariableTable globals = variables;
+        variables = table;
+        routine = declared;
+        try {
+            final ProgramBuilder body = new ProgramBuilder();
+            int currentLine = headerLine;
+            boolean variablesPresent = false, inVariables = false, beginPresent = false;
+            String raw;
+            while ((raw = reader.readLine()) != null) {
+                currentLine++;
+                if (raw.trim().startsWith("//")) continue;
+                final String str = removeComments(raw);
+                if (beginPresent) {
+                    if (str.equals(closing)) {
+                        declared.define(new ProgramOptimizer(table).optimize(body.finish()));
+                        return currentLine;
+                    }
+                    interpretCommand(body, str, currentLine);
+                    continue;
                 }
-                final String line = str.replaceFirst("\\s{2,}", "");
-                final String variablePart = line.split(":")[0];
-                String variableName, variableData = null;
-                if (variablePart.contains("=")) {
-                    final String[] values = variablePart.split("=", 2);
-                    variableName = values[0].trim();
-                    if (values.length == 1 || values[1].trim().isEmpty()) {
-                        throw new InterpretationException("Error in line " + currentLine +
-                                ": Variable is not identified\n" + str);
+                if (inVariables) {
+                    if (str.trim().isEmpty()) {
+                        inVariables = false;
+                        continue;
                     }
-                    variableData = values[1];
-                    // Let's replace white spaces at first now.
-                    if (variableData.startsWith(" ")) {
-                        final int preSpaces = countLeadingSpaces(variableData);
-                        for (int i = 0; i < preSpaces; i++) {
-                            variableData = variableData.replaceFirst(" ", "");
-                        }
+                    if (!str.equals("Begin")) {
+                        interpretVariable(str, currentLine);
+                        continue;
                     }
-                } else {
-                    variableName = variablePart.trim().replaceAll("\\s{2,}", "");
-                }
-                // Check for variable duplication.
-                if (variables.containsKey(variableName) || constants.containsKey(variableName)) {
-                    throw new InterpretationException("Error at line " + currentLine +
-                            ": Variable name duplication '" + variableName + "'\n" + str);
+                    inVariables = false;
                 }
-                final String type = line.split(":")[1].trim().replace(";", "");
-                final TokenType.DataType dataType = TokenType.DataType.fromName(type);
-                if (dataType == null) {
-                    throw new InterpretationException("Error at line " + currentLine +
-                            ": Invalid data type '" + type + "'\n" + str);
-                }
-                try {
-                    final Object tokenized = tokenizer.tokenize(dataType, variableData);
-                    variables.put(variableName, tokenized);
-                } catch (final TokenizeException exception) {
-                    throw new InterpretationException("Error at line " + currentLine +
-                            ": Failed to tokenize: " + exception.getMessage() + "\n" + str);
+                if (str.isEmpty()) continue;
+                if (str.equals("Variables") && !variablesPresent) {
+                    variablesPresent = true;
+                    inVariables = true;
+                } else if (str.equals("Begin")) {
+                    beginPresent = true;
+                } else {
+                    throw new InterpretationException("Error in line " + currentLine +
+                            ": Expected 'Variables' or 'Begin' in " + kind + " '" + name + "'\n" + str);
                 }
             }
+            throw new InterpretationException("Error in line " + headerLine + ": " + kind + " '" + name +
+                    "' is not closed, expected '" + closing + "'");
+        } finally {
+            variables = globals;
+            routine = null;
         }
-        // Now, interpret for begin statement.
-        currentLine = 0;
-        boolean endPresent = false;
-        for (String str : fileContent) {
-            currentLine++;
-            if (str.trim().startsWith("//")) continue;
-            str = removeComments(str);
-            if (str.equals("Begin")) {
-                for (int j = currentLine; j < fileContent.size(); j++) {
-                    currentLine++;
-                    if (fileContent.get(j).trim().startsWith("//")) continue;
-                    final String line = removeComments(fileContent.get(j));
-                    final int spacesCount = countLeadingSpaces(line);
-                    if (line.equalsIgnoreCase("End")) {
-                        endPresent = true;
-                        break;
-                    }
-                    if (spacesCount != 4) {
-                        throw new InterpretationException("Error in line " + currentLine +
-                                ": Expected 4 white spaces, but found " + countLeadingSpaces(line) + "\n" + line);
-                    }
-                    final String command = line.replaceFirst(" {4}", "");
-                    if (!command.endsWith(";")) {
-                        throw new InterpretationException("Error in line " + currentLine +
-                                ": Line should end with ';'\n" + line);
-                    }
-                    final Processor processor = getProcessor(command);
-                    if (processor == null) {
-                        throw new InterpretationException("Error in line " + currentLine +
-                                ": Invalid statement\n" + line);
-                    }
-                    algorithm.getCommands().put(command, processor);
-                }
-                break;
+    }
+
+    /**
+     * Declares a parameter of a routine, {@code name: Type} or {@code name: Array[n] of Type}.
+     */
+    private void interpretParameter(final VariableTable table,
+                                    final String routineName,
+                                    final String parameter,
+                                    final int currentLine,
+                                    final String header) throws InterpretationException {
+        final int separator = parameter.indexOf(':');
+        if (separator == -1) {
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": Invalid parameter '" + parameter.trim() + "', expected '<name>: <type>'\n" + header);
+        }
+        final String name = parameter.substring(0, separator).trim();
+        final String type = parameter.substring(separator + 1).trim();
+        if (!VALIDATION_PATTERN.matcher(name).matches() || Character.isDigit(name.charAt(0))) {
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": Invalid parameter name '" + name + "'\n" + header);
+        }
+        if (table.contains(name) || constants.containsKey(name) || routines.containsKey(name) || name.equals(routineName)) {
+            throw new InterpretationException("Error at line " + currentLine +
+                    ": Parameter name duplication '" + name + "'\n" + header);
+        }
+        final Matcher array = ARRAY_PATTERN.matcher(type);
+        final TokenType.DataType dataType = TokenType.DataType.fromName(array.matches() ? array.group(2) : type);
+        if (dataType == null) {
+            throw new InterpretationException("Error at line " + currentLine +
+                    ": Invalid data type '" + (array.matches() ? array.group(2) : type) + "'\n" + header);
+        }
+        if (!array.matches()) {
+            table.declareParameter(name, dataType, 0);
+            return;
+        }
+        final long length = parseLength(array.group(1));
+        if (length <= 0) {
+            throw new InterpretationException("Error at line " + currentLine +
+                    ": Array size should be a positive integer but found '" + array.group(1) + "'\n" + header);
+        }
+        table.declareParameter(name, dataType, (int) length);
+    }
+
+    /**
+     * Interprets {@code Return value;} in a function or {@code Return;} in a procedure, it leaves the routine.
+     */
+    private void interpretReturn(final ProgramBuilder program,
+                                 final String command,
+                                 final int currentLine) throws InterpretationException {
+        if (routine == null) {
+            throw new InterpretationException("Return is only allowed in a Function or a Procedure\n" + command);
+        }
+        if (!command.endsWith(";")) throw new InterpretationException("Line should end with ';'\n" + command);
+        final String value = command.substring("Return".length(), command.length() - 1).trim();
+        if (!routine.isFunction()) {
+            if (!value.isEmpty()) {
+                throw new InterpretationException("Procedure '" + routine.getName() + "' cannot return a value\n" + command);
             }
+            program.returning(null, currentLine, command);
+            return;
         }
-        if (!endPresent) {
-            throw new InterpretationException("Algorithm has Begin body without End close\n" +
-                    "Suggestion: Add `End` keyword to the end of your algorithm");
+        if (value.isEmpty()) {
+            throw new InterpretationException("Function '" + routine.getName() + "' should return a value\n" + command);
+        }
+        final Expression expression;
+        try {
+            expression = new ExpressionParser(variables, constants, routines).parse(value, routine.getReturnType());
+        } catch (final InterpretationException exception) {
+            throw new InterpretationException(exception.getMessage() + "\n" + command, exception);
+        }
+        program.returning(new ReturnStatement(routine.getReturnType(), expression), currentLine, command);
+    }
+
+    /**
+     * Interprets a constant declaration, {@code NAME = value;} or {@code NAME = value: Type;}.
+     * Without a data type, it is inferred from the value.
+     */
+    private void interpretConstant(final String str,
+                                   final int currentLine) throws InterpretationException {
+        final int leadingSpaces = countLeadingSpaces(str);
+        if (leadingSpaces != 4) {
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": Expected 4 white spaces, but found " + leadingSpaces + "\n" + str);
+        }
+        if (!str.contains("=") || !str.endsWith(";")) {
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": Invalid format\n" + str);
+        }
+        final String line = str.substring(leadingSpaces, str.length() - 1);
+        final int equals = line.indexOf('=');
+        final String constantName = line.substring(0, equals).trim();
+        if (!VALIDATION_PATTERN.matcher(constantName).matches() || Character.isDigit(constantName.charAt(0))) {
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": Invalid constant name '" + constantName + "'\n" + str);
+        }
+        if (variables.contains(constantName) || constants.containsKey(constantName)) {
+            throw new InterpretationException("Error at line " + currentLine +
+                    ": Constant name duplication '" + constantName + "'\n" + str);
+        }
+        String value = line.substring(equals + 1).trim();
+        TokenType.DataType dataType = null;
+        final int separator = value.lastIndexOf(':');
+        if (separator != -1) {
+            dataType = TokenType.DataType.fromName(value.substring(separator + 1).trim());
+            if (dataType != null) value = value.substring(0, separator).trim();
+        }
+        if (value.isEmpty()) {
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": Constant is not identified\n" + str);
+        }
+        if (dataType == null && !value.startsWith("\"")) {
+            // The data type is inferred while parsing the number, so it is scanned once.
+            final long integer = NumberParser.parseInteger(value);
+            if (integer != NumberParser.INVALID_INTEGER) {
+                constants.put(constantName, (int) integer);
+                return;
+            }
+            final double real = NumberParser.parseReal(value);
+            if (Double.isNaN(real)) {
+                throw new InterpretationException("Error at line " + currentLine +
+                        ": Invalid constant value '" + value + "'\n" + str);
+            }
+            constants.put(constantName, real);
+            return;
+        }
+        if (dataType == null) dataType = TokenType.DataType.STRING;
+        try {
+            constants.put(constantName, tokenizer.tokenize(dataType, value));
+        } catch (final TokenizeException exception) {
+            throw new InterpretationException("Error at line " + currentLine +
+                    ": Failed to tokenize: " + exception.getMessage() + "\n" + str);
         }
-        algorithm.setVariables(variables);
-        algorithm.setConstants(constants);
-        return algorithm;
     }
 
+    private void interpretCommand(final ProgramBuilder program,
+                                  final String line,
+                                  final int currentLine) throws InterpretationException {
+        final int spacesCount = countLeadingSpaces(line);
+        final String command = line.substring(spacesCount);
+        // Closing keywords are aligned with the line that opened their block.
+        final boolean closing = command.equals("Else") || command.equals("EndIf")
+                || command.equals("EndWhile") || command.equals("EndFor");
+        final int expectedSpaces = 4 * (program.depth() + (closing && program.depth() > 0 ? 0 : 1));
+        if (spacesCount != expectedSpaces) {
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": Expected " + expectedSpaces + " white spaces, but found " + spacesCount + "\n" + line);
+        }
+        try {
+            if (command.startsWith("If ")) {
+                if (!command.endsWith(" Then")) throw new InterpretationException("If condition should end with 'Then'");
+                program.beginIf(parseCondition(command.substring(3, command.length() - 5)), currentLine, command);
+                return;
+            }
+            if (command.equals("Else")) {
+                program.beginElse(currentLine, command);
+                return;
+            }
+            if (command.equals("EndIf")) {
+                program.endIf();
+                return;
+            }
+            if (command.startsWith("While ")) {
+                if (!command.endsWith(" Do")) throw new InterpretationException("While condition should end with 'Do'");
+                program.beginWhile(parseCondition(command.substring(6, command.length() - 3)), currentLine, command);
+                return;
+            }
+            if (command.equals("EndWhile")) {
+                program.endWhile(currentLine, command);
+                return;
+            }
+            if (command.startsWith("For ")) {
+                interpretFor(program, command, currentLine);
+                return;
+            }
+            if (command.equals("EndFor")) {
+                program.endFor(currentLine, command);
+                return;
+            }
+            if (command.equals("Return;") || command.startsWith("Return ")) {
+                interpretReturn(program, command, currentLine);
+                return;
+            }
+        } catch (final InterpretationException exception) {
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": " + exception.getMessage(), exception);
+        }
+        if (!command.endsWith(";")) {
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": Line should end with ';'\n" + line);
+        }
+        final Processor processor = getProcessor(command);
+        if (processor == null) {
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": Invalid statement\n" + line);
+        }
+        try {
+            program.execute(processor.process(command), currentLine, command);
+        } catch (final InterpretationException exception) {
+            throw new InterpretationException("Error in line " + currentLine +
+                    ": " + exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Lowers {@code For i = start To end Step step Do} into an assignment, a loop condition and an increment.
+     * The step is optional and should be a constant so the direction of the loop is known.
+     */
+    private void interpretFor(final ProgramBuilder program,
+                              final String command,
+                              final int currentLine) throws InterpretationException {
+        final Matcher matcher = FOR_PATTERN.matcher(command);
+        if (!matcher.matches()) {
+            throw new InterpretationException("Invalid For loop, expected 'For <variable> = <start> To <end> [Step <step>] Do'\n" + command);
+        }
+        final Variable variable = variables.get(matcher.group(1));
+        if (constants.containsKey(matcher.group(1))) {
+            throw new InterpretationException("Modifying constant\n" + command);
+        }
+        if (variable == null) {
+            throw new InterpretationException("Undefined variable '" + matcher.group(1) + "'\n" + command);
+        }
+        if (variable.isArray()
+                || variable.getDataType() != TokenType.DataType.INTEGER && variable.getDataType() != TokenType.DataType.DOUBLE) {
+            throw new InterpretationException("For loop variable '" + variable.getName() + "' should be a number\n" + command);
+        }
+        final ExpressionParser parser = new ExpressionParser(variables, constants, routines);
+        final Expression start = parser.parse(matcher.group(2), variable.getDataType());
+        final Expression end = parser.parseNumber(matcher.group(3));
+        final Expression step = matcher.group(4) == null ? LiteralExpression.ofInteger(1) : parser.parseNumber(matcher.group(4));
+        if (!step.isConstant()) {
+            throw new InterpretationException("For loop step should be a constant\n" + command);
+        }
+        if (variable.getDataType() == TokenType.DataType.INTEGER && step.getType() != TokenType.DataType.INTEGER) {
+            throw new InterpretationException("For loop step should be an integer for an Integer variable\n" + command);
+        }
+        final double stepValue = step.evaluateReal(null);
+        if (stepValue == 0) {
+            throw new InterpretationException("For loop step should not be zero\n" + command);
+        }
+        final VariableExpression counter = new VariableExpression(variable);
+        program.beginFor(new AssignmentStatement(variable, start),
+                new ComparisonCondition(stepValue > 0 ? ComparisonOperator.LESS_EQUAL : ComparisonOperator.GREATER_EQUAL,
+                        counter, end),
+                new AssignmentStatement(variable, new BinaryExpression(Operator.ADD, counter, step)),
+                currentLine, command);
+    }
+
+    private Condition parseCondition(final String condition) throws InterpretationException {
+        return new ExpressionParser(variables, constants, routines).parseCondition(condition.trim());
+    }
+
+    /**
+     * @return a read-only view of the declared variables with their initial values.
+     */
     public Map<String, Object> getVariables() {
+        return variables.asMap(variables.newFrame());
+    }
+
+    public VariableTable getVariableTable() {
         return variables;
     }
 
@@ -265,18 +711,30 @@ public final class AlgoInterpreter {
         return constants;
     }
 
+    /**
+     * @return the routines declared so far by name, in declaration order.
+     */
+    public Map<String, Routine> getRoutines() {
+        return routines;
+    }
+
     public Tokenizer getTokenizer() {
         return tokenizer;
     }
 
     public Processor getProcessor(final String command) {
+        final String routineName = CallProcessor.routineName(command);
+        if (routineName != null && routines.containsKey(routineName)) return callProcessor;
+
         // Let's first check if it's an operation.
 
         final String[] values = command.split("=", 2);
         if (values.length == 2) {
-            final String variableName = values[0].trim();
-            // TODO: Handle for strings too
-            if (variables.containsKey(variableName) || constants.containsKey(variableName)) {
+            String variableName = values[0].trim();
+            // An array element is assigned like its array.
+            final int bracket = variableName.indexOf('[');
+            if (bracket != -1) variableName = variableName.substring(0, bracket).trim();
+            if (variables.contains(variableName) || constants.containsKey(variableName)) {
                 return operationProcessor;
             }
         }
@@ -299,8 +757,16 @@ public final class AlgoInterpreter {
         return count;
     }
 
-    private final String removeComments(final String input) {
-        return input.replaceAll("//.*", "").replaceAll("\\s+$", "");
+    /**
+     * Strips everything after {@code //} and the trailing white spaces, without going through a regex.
+     */
+    private String removeComments(final String input) {
+        final int comment = input.indexOf("//");
+        int end = comment == -1 ? input.length() : comment;
+        while (end > 0 && Character.isWhitespace(input.charAt(end - 1))) {
+            end--;
+        }
+        return input.substring(0, end);
     }
 
 }
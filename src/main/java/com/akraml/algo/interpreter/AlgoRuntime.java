@@ -0,0 +1,249 @@
+package com.akraml.algo.interpreter;
+
+import com.akraml.algo.interpreter.runtime.BufferedOutputSink;
+import com.akraml.algo.interpreter.runtime.ExecutionContext;
+import com.akraml.algo.interpreter.runtime.ExecutionLimits;
+import com.akraml.algo.interpreter.runtime.InputReader;
+import com.akraml.algo.interpreter.runtime.MemoryOutputSink;
+import com.akraml.algo.interpreter.runtime.OutputSink;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs algorithms in the background, every execution gets its own input, output and thread.
+ * <p>
+ * Executions run on virtual threads when the JVM supports them, otherwise on a pool with one thread per processor.
+ * The returned futures complete with an {@link ExecutionResult}, exceptionally with an {@link InterpretationException}
+ * if the algorithm fails, or with a {@link java.util.concurrent.TimeoutException} once the timeout is reached.
+ * Cancelling a future, or reaching its timeout, stops the execution at its next loop iteration.
+ * Executions given {@link ExecutionLimits} fail with a {@link InterpretationException.Kind#LIMIT LIMIT}
+ * exception once they go over one of them, so a runaway algorithm does not keep its thread busy.
+ */
+public final class AlgoRuntime implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final AlgorithmCache cache;
+
+    public AlgoRuntime() {
+        this(newDefaultExecutor(), true, new AlgorithmCache());
+    }
+
+    /**
+     * Creates a runtime executing on the given executor, which is not shut down when the runtime is closed.
+     */
+    public AlgoRuntime(final ExecutorService executor) {
+        this(executor, false, new AlgorithmCache());
+    }
+
+    public AlgoRuntime(final ExecutorService executor,
+                       final AlgorithmCache cache) {
+        this(executor, false, cache);
+    }
+
+    private AlgoRuntime(final ExecutorService executor,
+                        final boolean ownsExecutor,
+                        final AlgorithmCache cache) {
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.cache = cache;
+    }
+
+    /**
+     * Interprets the given source, identical sources are interpreted once and share the same algorithm.
+     * The returned algorithm can be submitted any number of times.
+     */
+    public Algorithm parse(final String source) throws InterpretationException {
+        return cache.get(source);
+    }
+
+    public AlgorithmCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Interprets the source then executes it with the given input, the output is kept in the result.
+     *
+     * @param timeout the maximum execution time, parsing excluded, or {@code null} for no limit.
+     */
+    public CompletableFuture<ExecutionResult> submit(final String source,
+                                                     final String input,
+                                                     final Duration timeout) {
+        return submit(() -> parse(source), new MemoryOutputSink(), InputReader.fromString(input), timeout);
+    }
+
+    /**
+     * Executes the algorithm with the given input, the output is kept in the result.
+     *
+     * @param timeout the maximum execution time, or {@code null} for no limit.
+     */
+    public CompletableFuture<ExecutionResult> submit(final Algorithm algorithm,
+                                                     final String input,
+                                                     final Duration timeout) {
+        return submit(algorithm, input, timeout, ExecutionLimits.NONE);
+    }
+
+    /**
+     * Executes the algorithm with the given input and limits, the output is kept in the result.
+     *
+     * @param timeout the maximum time before the future completes, or {@code null} for no limit.
+     */
+    public CompletableFuture<ExecutionResult> submit(final Algorithm algorithm,
+                                                     final String input,
+                                                     final Duration timeout,
+                                                     final ExecutionLimits limits) {
+        return submit(() -> algorithm, new MemoryOutputSink(), InputReader.fromString(input), timeout, limits);
+    }
+
+    /**
+     * Executes the algorithm reading from and writing to the given streams, which are not closed.
+     *
+     * @param timeout the maximum execution time, or {@code null} for no limit.
+     */
+    public CompletableFuture<ExecutionResult> submit(final Algorithm algorithm,
+                                                     final InputStream input,
+                                                     final OutputStream output,
+                                                     final Duration timeout) {
+        return submit(algorithm, input, output, timeout, ExecutionLimits.NONE);
+    }
+
+    /**
+     * Executes the algorithm with the given limits, reading from and writing to the given streams, which are not
+     * closed.
+     *
+     * @param timeout the maximum time before the future completes, or {@code null} for no limit.
+     */
+    public CompletableFuture<ExecutionResult> submit(final Algorithm algorithm,
+                                                     final InputStream input,
+                                                     final OutputStream output,
+                                                     final Duration timeout,
+                                                     final ExecutionLimits limits) {
+        return submit(algorithm, input, output, timeout, limits, () -> {
+        });
+    }
+
+    /**
+     * Executes the algorithm like {@link #submit(Algorithm, InputStream, OutputStream, Duration, ExecutionLimits)},
+     * then runs the given hook once the execution is over.
+     * <p>
+     * The returned future completes as soon as the timeout is reached, while the execution only stops at its next
+     * loop iteration. The hook runs once the execution thread is done with the streams, closing them there is safe.
+     * It also runs when the execution never started.
+     */
+    public CompletableFuture<ExecutionResult> submit(final Algorithm algorithm,
+                                                     final InputStream input,
+                                                     final OutputStream output,
+                                                     final Duration timeout,
+                                                     final ExecutionLimits limits,
+                                                     final Runnable onFinished) {
+        return submit(() -> algorithm, new BufferedOutputSink(output), new InputReader(input), timeout, limits,
+                onFinished);
+    }
+
+    private CompletableFuture<ExecutionResult> submit(final Callable<Algorithm> algorithm,
+                                                      final OutputSink output,
+                                                      final InputReader input,
+                                                      final Duration timeout) {
+        return submit(algorithm, output, input, timeout, ExecutionLimits.NONE);
+    }
+
+    private CompletableFuture<ExecutionResult> submit(final Callable<Algorithm> algorithm,
+                                                      final OutputSink output,
+                                                      final InputReader input,
+                                                      final Duration timeout,
+                                                      final ExecutionLimits limits) {
+        return submit(algorithm, output, input, timeout, limits, () -> {
+        });
+    }
+
+    private CompletableFuture<ExecutionResult> submit(final Callable<Algorithm> algorithm,
+                                                      final OutputSink output,
+                                                      final InputReader input,
+                                                      final Duration timeout,
+                                                      final ExecutionLimits limits,
+                                                      final Runnable onFinished) {
+        final CompletableFuture<ExecutionResult> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    run(future, algorithm, output, input, timeout, limits);
+                } finally {
+                    onFinished.run();
+                }
+            });
+        } catch (final RejectedExecutionException exception) {
+            future.completeExceptionally(exception);
+            onFinished.run();
+        }
+        return future;
+    }
+
+    private void run(final CompletableFuture<ExecutionResult> future,
+                     final Callable<Algorithm> supplier,
+                     final OutputSink output,
+                     final InputReader input,
+                     final Duration timeout,
+                     final ExecutionLimits limits) {
+        // Cancelled before it even started.
+        if (future.isDone()) return;
+        final Algorithm algorithm;
+        try {
+            algorithm = supplier.call();
+        } catch (final Throwable throwable) {
+            future.completeExceptionally(throwable);
+            return;
+        }
+        final ExecutionContext context = algorithm.newContext(output, input, limits);
+        future.whenComplete((result, throwable) -> {
+            if (throwable != null) context.cancel();
+        });
+        if (timeout != null) future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        final long start = System.nanoTime();
+        try {
+            algorithm.execute(context);
+            future.complete(new ExecutionResult(algorithm, algorithm.getVariables(context),
+                    output instanceof MemoryOutputSink memory ? memory.getOutput() : null,
+                    System.nanoTime() - start));
+        } catch (final CancellationException exception) {
+            // The future is already completed when the cancellation came from it.
+            future.cancel(false);
+        } catch (final Throwable throwable) {
+            future.completeExceptionally(throwable.getCause() instanceof InterpretationException interpretation
+                    ? interpretation
+                    : throwable);
+        }
+    }
+
+    /**
+     * Shuts down the executor if the runtime created it, running executions are not interrupted.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) executor.shutdown();
+    }
+
+    private static ExecutorService newDefaultExecutor() {
+        try {
+            // Looked up reflectively so the runtime still works on JVMs without virtual threads.
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final ReflectiveOperationException | UnsupportedOperationException exception) {
+            final AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                final Thread thread = new Thread(runnable, "algo-runtime-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+}
@@ -1,52 +1,223 @@
 package com.akraml.algo.interpreter;
 
-import com.akraml.algo.interpreter.processor.Processor;
+import com.akraml.algo.interpreter.compiler.BytecodeCompiler;
+import com.akraml.algo.interpreter.metrics.AlgoMetrics;
+import com.akraml.algo.interpreter.runtime.BufferedOutputSink;
+import com.akraml.algo.interpreter.runtime.Dispatcher;
+import com.akraml.algo.interpreter.runtime.ExecutionContext;
+import com.akraml.algo.interpreter.runtime.ExecutionLimits;
+import com.akraml.algo.interpreter.runtime.InputReader;
+import com.akraml.algo.interpreter.runtime.InstructionException;
+import com.akraml.algo.interpreter.runtime.Instruction;
+import com.akraml.algo.interpreter.runtime.LimitExceededException;
+import com.akraml.algo.interpreter.runtime.OutputSink;
+import com.akraml.algo.interpreter.runtime.Routine;
+import com.akraml.algo.interpreter.runtime.Statement;
+import com.akraml.algo.interpreter.runtime.VariableTable;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
+/**
+ * An interpreted algorithm, immutable once built.
+ * <p>
+ * The algorithm holds no execution state: every execution runs on its own {@link ExecutionContext}, so the same
+ * instance can be executed any number of times, concurrently from several threads.
+ * <p>
+ * Its routines run on frames of the context too, a failure inside one of them is reported on the line of the
+ * routine that failed rather than on the line of the call.
+ */
 public final class Algorithm {
 
     private final String name;
-    private Map<String, Object> variables, constants;
-    private final Map<String, Processor> commands = new LinkedHashMap<>();
+    private final VariableTable variableTable;
+    private final Map<String, Object> constants;
+    private final List<Routine> routines;
+    private final Instruction[] instructions;
 
-    Algorithm(final String name) {
+    Algorithm(final String name,
+              final VariableTable variableTable,
+              final Map<String, Object> constants,
+              final Collection<Routine> routines,
+              final List<Instruction> instructions) {
         this.name = name;
+        this.variableTable = variableTable.freeze();
+        this.constants = Collections.unmodifiableMap(new LinkedHashMap<>(constants));
+        this.routines = List.copyOf(routines);
+        this.instructions = instructions.toArray(new Instruction[0]);
     }
 
     public String getName() {
         return name;
     }
 
-    public void setVariables(final Map<String, Object> variables) {
-        this.variables = variables;
+    public VariableTable getVariableTable() {
+        return variableTable;
     }
 
+    /**
+     * @return a read-only view of the variables with their initial values.
+     */
     public Map<String, Object> getVariables() {
-        return variables;
+        return variableTable.asMap(variableTable.newFrame());
     }
 
-    public Map<String, Processor> getCommands() {
-        return commands;
+    /**
+     * @return a read-only view of the variables values at the end of the given execution.
+     */
+    public Map<String, Object> getVariables(final ExecutionContext context) {
+        return variableTable.asMap(context.getFrame());
+    }
+
+    /**
+     * @return the instructions of the algorithm in execution order, duplicated statements included.
+     */
+    public List<Instruction> getInstructions() {
+        return List.of(instructions);
     }
 
     public Map<String, Object> getConstants() {
         return constants;
     }
 
-    public void startExecution() {
-        for (final Map.Entry<String, Processor> entry : commands.entrySet()) {
-            try {
-                entry.getValue().process(entry.getKey()).run();
-            } catch (final Exception exception) {
-                exception.printStackTrace();
-                throw new RuntimeException(new InterpretationException("Failed to interpret this line\n" + entry.getKey(), exception));
-            }
+    /**
+     * @return the functions and procedures of the algorithm, in the order of their index.
+     */
+    public List<Routine> getRoutines() {
+        return routines;
+    }
+
+    /**
+     * Creates the state of a new execution, with a fresh frame holding the initial values.
+     */
+    public ExecutionContext newContext(final OutputSink output,
+                                       final InputReader input) {
+        return new ExecutionContext(variableTable.newFrame(), output, input);
+    }
+
+    /**
+     * Creates the state of a new execution restricted to the given limits, its time limit starts now.
+     */
+    public ExecutionContext newContext(final OutputSink output,
+                                       final InputReader input,
+                                       final ExecutionLimits limits) {
+        return new ExecutionContext(variableTable.newFrame(), output, input, limits);
+    }
+
+    /**
+     * Executes the algorithm on the standard streams, output goes through a {@link BufferedOutputSink}.
+     */
+    public ExecutionContext startExecution() {
+        return startExecution(new BufferedOutputSink(System.out), new InputReader(System.in));
+    }
+
+    /**
+     * Executes the algorithm on a new context.
+     *
+     * @return the context of the finished execution.
+     */
+    public ExecutionContext startExecution(final OutputSink output,
+                                           final InputReader input) {
+        final ExecutionContext context = newContext(output, input);
+        execute(context);
+        return context;
+    }
+
+    /**
+     * Executes the algorithm on the given context, the output is flushed once the execution is over.
+     *
+     * @throws CancellationException if the context was cancelled while running.
+     * @throws RuntimeException wrapping a {@link InterpretationException.Kind#LIMIT LIMIT} failure if it went over
+     *                          one of the limits of the context, or a {@code RUNTIME} one if a statement failed.
+     */
+    public void execute(final ExecutionContext context) {
+        run(context);
+    }
+
+    /**
+     * Executes the algorithm like {@link #execute(ExecutionContext)}, recording every instruction in the profiler,
+     * the ones of its routines included. The profiler should be created for this algorithm.
+     */
+    public void execute(final ExecutionContext context,
+                        final Profiler profiler) {
+        context.setListener(profiler);
+        run(context);
+    }
+
+    /**
+     * Executes the compiled form of the algorithm like {@link #execute(ExecutionContext)}, failures are reported and
+     * recorded the same way.
+     *
+     * @param compiled the algorithm compiled by the {@link BytecodeCompiler}.
+     */
+    public void execute(final ExecutionContext context,
+                        final Statement compiled) {
+        run(context, compiled);
+    }
+
+    private void run(final ExecutionContext context) {
+        run(context, running -> Dispatcher.run(null, instructions, running, running.getFrame()));
+    }
+
+    private void run(final ExecutionContext context,
+                     final Statement body) {
+        final long startTime = System.nanoTime();
+        final long bytesBefore = context.getOutput().getBytesWritten();
+        try {
+            body.execute(context);
+            context.checkStatements(0);
+        } catch (final CancellationException exception) {
+            AlgoMetrics.get().recordCancellation();
+            throw exception;
+        } catch (final InstructionException exception) {
+            throw failure(exception);
+        } catch (final LimitExceededException exception) {
+            // Only the final statement check is not located by the body, the last instruction ran over it.
+            AlgoMetrics.get().recordFailure(InterpretationException.Kind.LIMIT);
+            final Instruction last = instructions[instructions.length - 1];
+            throw limitExceeded(last.getLine(), last.getSource(), exception);
+        } finally {
+            context.getOutput().flush();
+            publish(context, System.nanoTime() - startTime, bytesBefore);
+        }
+    }
+
+    private static void publish(final ExecutionContext context,
+                                final long nanos,
+                                final long bytesBefore) {
+        AlgoMetrics.get().recordExecution(nanos, context.getStatements(), context.getEvaluations(), context.getValuesRead(),
+                context.getOutput().getBytesWritten() - bytesBefore);
+    }
+
+    private static RuntimeException failure(final InstructionException exception) {
+        if (exception.getCause() instanceof LimitExceededException limit) {
+            AlgoMetrics.get().recordFailure(InterpretationException.Kind.LIMIT);
+            return limitExceeded(exception.getLine(), exception.getSource(), limit);
         }
+        AlgoMetrics.get().recordFailure(InterpretationException.Kind.RUNTIME);
+        return failure(exception.getLine(), exception.getSource(), exception.getCause());
     }
 
-    public void setConstants(Map<String, Object> constants) {
-        this.constants = constants;
+    private static RuntimeException limitExceeded(final int line,
+                                                  final String source,
+                                                  final LimitExceededException exception) {
+        return new RuntimeException(new InterpretationException(InterpretationException.Kind.LIMIT,
+                "Error in line " + line + ": " + exception.getMessage() + "\n" + source,
+                exception));
     }
+
+    private static RuntimeException failure(final int line,
+                                            final String source,
+                                            final Exception exception) {
+        // The cause tells what went wrong, a division by zero or an index out of bounds for instance.
+        final String reason = exception.getMessage() != null ? exception.getMessage() : exception.getClass().getSimpleName();
+        return new RuntimeException(new InterpretationException(InterpretationException.Kind.RUNTIME,
+                "Error in line " + line + ": Failed to interpret this line: " + reason + "\n" + source,
+                exception));
+    }
+
 }
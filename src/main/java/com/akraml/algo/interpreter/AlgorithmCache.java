@@ -0,0 +1,106 @@
+package com.akraml.algo.interpreter;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the most recently used algorithms, keyed by the SHA-256 hash of their source, so submitting the same
+ * source again skips interpretation. Algorithms are immutable, the cached instance is shared by all callers.
+ * <p>
+ * The cache is thread-safe, sources are interpreted outside the lock so a slow source never blocks the others.
+ * Sources that fail to interpret are not cached.
+ */
+public final class AlgorithmCache {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int capacity;
+    private final Map<String, Algorithm> algorithms;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public AlgorithmCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public AlgorithmCache(final int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity should be positive");
+        this.capacity = capacity;
+        // Access order makes the eldest entry the least recently used one.
+        this.algorithms = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Algorithm> eldest) {
+                if (size() <= AlgorithmCache.this.capacity) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @return the cached algorithm of this source, it is interpreted and cached first if needed.
+     */
+    public Algorithm get(final String source) throws InterpretationException {
+        final String key = hash(source);
+        synchronized (algorithms) {
+            final Algorithm algorithm = algorithms.get(key);
+            if (algorithm != null) {
+                hits.increment();
+                return algorithm;
+            }
+        }
+        misses.increment();
+        final Algorithm algorithm = new AlgoInterpreter().interpret(new StringReader(source));
+        synchronized (algorithms) {
+            // Another thread may have interpreted the same source meanwhile, keep the first one.
+            final Algorithm existing = algorithms.putIfAbsent(key, algorithm);
+            return existing == null ? algorithm : existing;
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (algorithms) {
+            algorithms.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (algorithms) {
+            return algorithms.size();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private static String hash(final String source) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (final NoSuchAlgorithmException exception) {
+            // Every JVM has to provide SHA-256.
+            throw new IllegalStateException(exception);
+        }
+    }
+
+}
@@ -0,0 +1,586 @@
+package com.akraml.algo.interpreter;
+
+import com.akraml.algo.interpreter.expression.BinaryExpression;
+import com.akraml.algo.interpreter.expression.CallExpression;
+import com.akraml.algo.interpreter.expression.ComparisonCondition;
+import com.akraml.algo.interpreter.expression.ComparisonOperator;
+import com.akraml.algo.interpreter.expression.ConcatenationExpression;
+import com.akraml.algo.interpreter.expression.Condition;
+import com.akraml.algo.interpreter.expression.ElementExpression;
+import com.akraml.algo.interpreter.expression.Expression;
+import com.akraml.algo.interpreter.expression.LiteralExpression;
+import com.akraml.algo.interpreter.expression.LogicalCondition;
+import com.akraml.algo.interpreter.expression.NotCondition;
+import com.akraml.algo.interpreter.expression.Operator;
+import com.akraml.algo.interpreter.expression.UnaryExpression;
+import com.akraml.algo.interpreter.expression.VariableExpression;
+import com.akraml.algo.interpreter.runtime.AssignmentStatement;
+import com.akraml.algo.interpreter.runtime.CallStatement;
+import com.akraml.algo.interpreter.runtime.ElementAssignmentStatement;
+import com.akraml.algo.interpreter.runtime.Instruction;
+import com.akraml.algo.interpreter.runtime.ReadStatement;
+import com.akraml.algo.interpreter.runtime.ReturnStatement;
+import com.akraml.algo.interpreter.runtime.Routine;
+import com.akraml.algo.interpreter.runtime.Statement;
+import com.akraml.algo.interpreter.runtime.Variable;
+import com.akraml.algo.interpreter.runtime.VariableTable;
+import com.akraml.algo.interpreter.runtime.WriteStatement;
+import com.akraml.algo.interpreter.token.TokenType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes interpreted algorithms in the {@code .algoc} binary format, loading one skips interpretation.
+ * <p>
+ * The file starts with a magic number and the format version, followed by the algorithm name, the variable table
+ * in declaration order so slots are assigned the same way with the length of arrays, the constants, the routine
+ * headers with their own variable table, the instruction stream of each routine and the one of the algorithm with
+ * their statements, expressions and conditions written as trees. Variables are referenced by their declaration
+ * index in the table of the body using them, routines by their index.
+ * All numbers are big-endian and strings are written as their UTF-8 length followed by their bytes.
+ */
+public final class AlgorithmSerializer {
+
+    public static final String EXTENSION = ".algoc";
+
+    private static final int MAGIC = 0x414C4743; // "ALGC"
+    private static final int VERSION = 4;
+
+    private static final int ASSIGNMENT = 0, READ = 1, WRITE = 2, ELEMENT_ASSIGNMENT = 3, CALL = 4;
+    private static final int INTEGER_LITERAL = 0, REAL_LITERAL = 1, VARIABLE = 2, NEGATION = 3, BINARY = 4,
+            ELEMENT = 5, STRING_LITERAL = 6, CONCATENATION = 7, CALL_EXPRESSION = 8;
+    private static final int COMPARISON = 0, LOGICAL = 1, NOT = 2;
+
+    public byte[] serialize(final Algorithm algorithm) throws InterpretationException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            writeString(out, algorithm.getName());
+            final Map<Variable, Integer> indexes = writeVariables(out, algorithm.getVariableTable());
+            out.writeInt(algorithm.getConstants().size());
+            for (final Map.Entry<String, Object> constant : algorithm.getConstants().entrySet()) {
+                final TokenType.DataType dataType = TokenType.DataType.getByClass(constant.getValue().getClass());
+                if (dataType == null) {
+                    throw new InterpretationException("Cannot serialize constant '" + constant.getKey() + "'");
+                }
+                writeString(out, constant.getKey());
+                out.writeByte(dataType.ordinal());
+                writeValue(out, dataType, constant.getValue());
+            }
+            final List<Routine> routines = algorithm.getRoutines();
+            final List<Map<Variable, Integer>> routineIndexes = new ArrayList<>(routines.size());
+            out.writeInt(routines.size());
+            for (final Routine routine : routines) {
+                writeString(out, routine.getName());
+                out.writeByte(routine.isFunction() ? routine.getReturnType().ordinal() : -1);
+                out.writeInt(routine.getLine());
+                writeString(out, routine.getSource());
+                routineIndexes.add(writeVariables(out, routine.getVariableTable()));
+            }
+            for (final Routine routine : routines) {
+                writeInstructions(out, routine.getInstructions(), routineIndexes.get(routine.getIndex()));
+            }
+            writeInstructions(out, algorithm.getInstructions(), indexes);
+        } catch (final IOException exception) {
+            // Writing to memory does not fail.
+            throw new IllegalStateException(exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    public void write(final Algorithm algorithm,
+                      final Path path) throws InterpretationException {
+        final byte[] bytes = serialize(algorithm);
+        try {
+            Files.write(path, bytes);
+        } catch (final IOException exception) {
+            throw new InterpretationException(InterpretationException.Kind.IO,
+                    "Failed to write file: " + exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Loads a compiled algorithm, the file is memory mapped instead of being copied into the heap first.
+     */
+    public Algorithm load(final Path path) throws InterpretationException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return deserialize(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (final IOException exception) {
+            throw new InterpretationException(InterpretationException.Kind.IO,
+                    "Failed to read file: " + exception.getMessage(), exception);
+        }
+    }
+
+    public Algorithm deserialize(final ByteBuffer buffer) throws InterpretationException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new InterpretationException(InterpretationException.Kind.IO, "Not a compiled algorithm file", null);
+            }
+            final int version = buffer.getShort();
+            if (version != VERSION) {
+                throw new InterpretationException(InterpretationException.Kind.IO,
+                        "Unsupported compiled algorithm version " + version + ", expected " + VERSION, null);
+            }
+            final String name = readString(buffer);
+            final VariableTable table = new VariableTable();
+            final Variable[] variables = readVariables(buffer, table);
+            final Map<String, Object> constants = new LinkedHashMap<>();
+            final int constantCount = buffer.getInt();
+            for (int i = 0; i < constantCount; i++) {
+                final String constantName = readString(buffer);
+                constants.put(constantName, readValue(buffer, readEnum(buffer, TokenType.DataType.values())));
+            }
+            final List<Routine> routines = new ArrayList<>();
+            final List<Variable[]> routineVariables = new ArrayList<>();
+            final int routineCount = buffer.getInt();
+            for (int i = 0; i < routineCount; i++) {
+                final String routineName = readString(buffer);
+                final int returnType = buffer.get();
+                final int line = buffer.getInt();
+                final String source = readString(buffer);
+                final VariableTable routineTable = new VariableTable();
+                routineVariables.add(readVariables(buffer, routineTable));
+                routines.add(new Routine(routineName, returnType < 0 ? null : TokenType.DataType.values()[returnType],
+                        routineTable, i, line, source));
+            }
+            // Every header is known before the bodies, a routine may call itself.
+            for (final Routine routine : routines) {
+                routine.define(readInstructions(buffer, routineVariables.get(routine.getIndex()), routines));
+            }
+            return new Algorithm(name, table, constants, routines, readInstructions(buffer, variables, routines));
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                       | IllegalStateException exception) {
+            throw new InterpretationException(InterpretationException.Kind.IO, "Corrupted compiled algorithm file", exception);
+        }
+    }
+
+    /**
+     * Writes a variable table in declaration order.
+     *
+     * @return the declaration index of each variable.
+     */
+    private Map<Variable, Integer> writeVariables(final DataOutputStream out,
+                                                 final VariableTable table) throws IOException {
+        final Map<Variable, Integer> indexes = new IdentityHashMap<>();
+        out.writeInt(table.getVariables().size());
+        for (final Variable variable : table.getVariables()) {
+            indexes.put(variable, indexes.size());
+            writeString(out, variable.getName());
+            out.writeByte(variable.getDataType().ordinal());
+            out.writeInt(variable.getLength());
+            out.writeBoolean(variable.isParameter());
+            writeValue(out, variable.getDataType(), variable.getInitialValue());
+        }
+        return indexes;
+    }
+
+    /**
+     * Declares the variables written by {@link #writeVariables} in the given table.
+     *
+     * @return the variables by declaration index.
+     */
+    private Variable[] readVariables(final ByteBuffer buffer,
+                                     final VariableTable table) {
+        final Variable[] variables = new Variable[buffer.getInt()];
+        for (int i = 0; i < variables.length; i++) {
+            final String variableName = readString(buffer);
+            final TokenType.DataType dataType = readEnum(buffer, TokenType.DataType.values());
+            final int length = buffer.getInt();
+            final boolean parameter = buffer.get() != 0;
+            final Object value = readValue(buffer, dataType);
+            if (parameter) {
+                variables[i] = table.declareParameter(variableName, dataType, length);
+            } else {
+                variables[i] = length == 0
+                        ? table.declare(variableName, dataType, value)
+                        : table.declareArray(variableName, dataType, length);
+            }
+        }
+        return variables;
+    }
+
+    private void writeInstructions(final DataOutputStream out,
+                                   final List<Instruction> instructions,
+                                   final Map<Variable, Integer> indexes) throws IOException, InterpretationException {
+        out.writeInt(instructions.size());
+        for (final Instruction instruction : instructions) {
+            out.writeByte(instruction.getOpcode());
+            out.writeInt(instruction.getLine());
+            writeString(out, instruction.getSource());
+            switch (instruction.getOpcode()) {
+                case Instruction.EXECUTE -> writeStatement(out, instruction.getStatement(), indexes);
+                case Instruction.JUMP -> out.writeInt(instruction.getTarget());
+                case Instruction.JUMP_IF_FALSE -> {
+                    writeCondition(out, instruction.getCondition(), indexes);
+                    out.writeInt(instruction.getTarget());
+                }
+                case Instruction.RETURN -> {
+                    // A procedure returns without a statement.
+                    final ReturnStatement statement = (ReturnStatement) instruction.getStatement();
+                    out.writeBoolean(statement != null);
+                    if (statement != null) {
+                        out.writeByte(statement.getType().ordinal());
+                        writeExpression(out, statement.getExpression(), indexes);
+                    }
+                }
+                default -> throw new InterpretationException("Cannot serialize opcode " + instruction.getOpcode());
+            }
+        }
+    }
+
+    private List<Instruction> readInstructions(final ByteBuffer buffer,
+                                               final Variable[] variables,
+                                               final List<Routine> routines) throws InterpretationException {
+        final int instructionCount = buffer.getInt();
+        final List<Instruction> instructions = new ArrayList<>(instructionCount);
+        for (int i = 0; i < instructionCount; i++) {
+            final int opcode = buffer.get();
+            final int line = buffer.getInt();
+            final String source = readString(buffer);
+            instructions.add(switch (opcode) {
+                case Instruction.EXECUTE -> Instruction.execute(readStatement(buffer, variables, routines), line, source);
+                case Instruction.JUMP -> Instruction.jump(readTarget(buffer, instructionCount), line, source);
+                case Instruction.JUMP_IF_FALSE -> Instruction.jumpIfFalse(readCondition(buffer, variables, routines),
+                        readTarget(buffer, instructionCount), line, source);
+                case Instruction.RETURN -> {
+                    if (buffer.get() == 0) yield Instruction.returning(null, line, source);
+                    final TokenType.DataType type = readEnum(buffer, TokenType.DataType.values());
+                    yield Instruction.returning(new ReturnStatement(type, readExpression(buffer, variables, routines)),
+                            line, source);
+                }
+                default -> throw new InterpretationException("Unknown opcode " + opcode);
+            });
+        }
+        return instructions;
+    }
+
+    private void writeStatement(final DataOutputStream out,
+                                final Statement statement,
+                                final Map<Variable, Integer> indexes) throws IOException, InterpretationException {
+        if (statement instanceof AssignmentStatement assignment) {
+            out.writeByte(ASSIGNMENT);
+            out.writeInt(indexes.get(assignment.getTarget()));
+            writeExpression(out, assignment.getExpression(), indexes);
+        } else if (statement instanceof ElementAssignmentStatement assignment) {
+            out.writeByte(ELEMENT_ASSIGNMENT);
+            out.writeInt(indexes.get(assignment.getTarget()));
+            writeExpression(out, assignment.getIndex(), indexes);
+            writeExpression(out, assignment.getExpression(), indexes);
+        } else if (statement instanceof ReadStatement read) {
+            out.writeByte(READ);
+            final Variable[] targets = read.getTargets();
+            final Expression[] elements = read.getIndexes();
+            out.writeInt(targets.length);
+            for (int i = 0; i < targets.length; i++) {
+                out.writeInt(indexes.get(targets[i]));
+                writeIndex(out, elements[i], indexes);
+            }
+        } else if (statement instanceof WriteStatement write) {
+            out.writeByte(WRITE);
+            final String[] texts = write.getTexts();
+            final Variable[] sources = write.getSources();
+            final Expression[] elements = write.getIndexes();
+            out.writeInt(texts.length);
+            for (int i = 0; i < texts.length; i++) {
+                out.writeBoolean(sources[i] != null);
+                if (sources[i] != null) {
+                    out.writeInt(indexes.get(sources[i]));
+                    writeIndex(out, elements[i], indexes);
+                } else {
+                    writeString(out, texts[i]);
+                }
+            }
+        } else if (statement instanceof CallStatement call) {
+            out.writeByte(CALL);
+            writeCall(out, call.getRoutine(), call.getArguments(), call.getArrays(), indexes);
+        } else {
+            throw new InterpretationException("Cannot serialize statement " + statement.getClass().getSimpleName());
+        }
+    }
+
+    private Statement readStatement(final ByteBuffer buffer,
+                                    final Variable[] variables,
+                                    final List<Routine> routines) throws InterpretationException {
+        final int tag = buffer.get();
+        switch (tag) {
+            case ASSIGNMENT -> {
+                final Variable target = variables[buffer.getInt()];
+                return new AssignmentStatement(target, readExpression(buffer, variables, routines));
+            }
+            case ELEMENT_ASSIGNMENT -> {
+                final Variable target = variables[buffer.getInt()];
+                final Expression index = readExpression(buffer, variables, routines);
+                return new ElementAssignmentStatement(target, index, readExpression(buffer, variables, routines));
+            }
+            case READ -> {
+                final Variable[] targets = new Variable[buffer.getInt()];
+                final Expression[] elements = new Expression[targets.length];
+                for (int i = 0; i < targets.length; i++) {
+                    targets[i] = variables[buffer.getInt()];
+                    elements[i] = readIndex(buffer, variables, routines);
+                }
+                return new ReadStatement(targets, elements);
+            }
+            case WRITE -> {
+                final int count = buffer.getInt();
+                final String[] texts = new String[count];
+                final Variable[] sources = new Variable[count];
+                final Expression[] elements = new Expression[count];
+                for (int i = 0; i < count; i++) {
+                    if (buffer.get() != 0) {
+                        sources[i] = variables[buffer.getInt()];
+                        elements[i] = readIndex(buffer, variables, routines);
+                    } else {
+                        texts[i] = readString(buffer);
+                    }
+                }
+                return new WriteStatement(texts, sources, elements);
+            }
+            case CALL -> {
+                final Routine routine = routines.get(buffer.getInt());
+                final Expression[] arguments = new Expression[routine.getParameters().size()];
+                final Variable[] arrays = new Variable[arguments.length];
+                readArguments(buffer, variables, routines, arguments, arrays);
+                return new CallStatement(routine, arguments, arrays);
+            }
+            default -> throw new InterpretationException("Unknown statement tag " + tag);
+        }
+    }
+
+    private void writeExpression(final DataOutputStream out,
+                                 final Expression expression,
+                                 final Map<Variable, Integer> indexes) throws IOException, InterpretationException {
+        if (expression instanceof LiteralExpression literal) {
+            switch (literal.getType()) {
+                case INTEGER -> {
+                    out.writeByte(INTEGER_LITERAL);
+                    out.writeInt(literal.getIntegerValue());
+                }
+                case DOUBLE -> {
+                    out.writeByte(REAL_LITERAL);
+                    out.writeDouble(literal.getRealValue());
+                }
+                case STRING -> {
+                    out.writeByte(STRING_LITERAL);
+                    writeString(out, literal.getStringValue());
+                }
+            }
+        } else if (expression instanceof VariableExpression variable) {
+            out.writeByte(VARIABLE);
+            out.writeInt(indexes.get(variable.getVariable()));
+        } else if (expression instanceof ElementExpression element) {
+            out.writeByte(ELEMENT);
+            out.writeInt(indexes.get(element.getArray()));
+            writeExpression(out, element.getIndex(), indexes);
+        } else if (expression instanceof UnaryExpression unary) {
+            out.writeByte(NEGATION);
+            writeExpression(out, unary.getOperand(), indexes);
+        } else if (expression instanceof BinaryExpression binary) {
+            out.writeByte(BINARY);
+            out.writeByte(binary.getOperator().ordinal());
+            writeExpression(out, binary.getLeft(), indexes);
+            writeExpression(out, binary.getRight(), indexes);
+        } else if (expression instanceof ConcatenationExpression concatenation) {
+            out.writeByte(CONCATENATION);
+            writeExpression(out, concatenation.getLeft(), indexes);
+            writeExpression(out, concatenation.getRight(), indexes);
+        } else if (expression instanceof CallExpression call) {
+            out.writeByte(CALL_EXPRESSION);
+            writeCall(out, call.getRoutine(), call.getArguments(), call.getArrays(), indexes);
+        } else {
+            throw new InterpretationException("Cannot serialize expression " + expression.getClass().getSimpleName());
+        }
+    }
+
+    private Expression readExpression(final ByteBuffer buffer,
+                                      final Variable[] variables,
+                                      final List<Routine> routines) throws InterpretationException {
+        final int tag = buffer.get();
+        return switch (tag) {
+            case INTEGER_LITERAL -> LiteralExpression.ofInteger(buffer.getInt());
+            case REAL_LITERAL -> LiteralExpression.ofReal(buffer.getDouble());
+            case VARIABLE -> new VariableExpression(variables[buffer.getInt()]);
+            case NEGATION -> new UnaryExpression(readExpression(buffer, variables, routines));
+            case ELEMENT -> {
+                final Variable array = variables[buffer.getInt()];
+                yield new ElementExpression(array, readExpression(buffer, variables, routines));
+            }
+            case BINARY -> {
+                final Operator operator = readEnum(buffer, Operator.values());
+                final Expression left = readExpression(buffer, variables, routines);
+                yield new BinaryExpression(operator, left, readExpression(buffer, variables, routines));
+            }
+            case STRING_LITERAL -> LiteralExpression.ofString(readString(buffer));
+            case CONCATENATION -> {
+                final Expression left = readExpression(buffer, variables, routines);
+                yield new ConcatenationExpression(left, readExpression(buffer, variables, routines));
+            }
+            case CALL_EXPRESSION -> {
+                final Routine routine = routines.get(buffer.getInt());
+                final Expression[] arguments = new Expression[routine.getParameters().size()];
+                final Variable[] arrays = new Variable[arguments.length];
+                readArguments(buffer, variables, routines, arguments, arrays);
+                yield new CallExpression(routine, arguments, arrays);
+            }
+            default -> throw new InterpretationException("Unknown expression tag " + tag);
+        };
+    }
+
+    /**
+     * Writes the routine index followed by one argument per parameter, an array by its index or an expression.
+     */
+    private void writeCall(final DataOutputStream out,
+                           final Routine routine,
+                           final Expression[] arguments,
+                           final Variable[] arrays,
+                           final Map<Variable, Integer> indexes) throws IOException, InterpretationException {
+        out.writeInt(routine.getIndex());
+        for (int i = 0; i < arguments.length; i++) {
+            out.writeBoolean(arrays[i] != null);
+            if (arrays[i] != null) {
+                out.writeInt(indexes.get(arrays[i]));
+            } else {
+                writeExpression(out, arguments[i], indexes);
+            }
+        }
+    }
+
+    private void readArguments(final ByteBuffer buffer,
+                               final Variable[] variables,
+                               final List<Routine> routines,
+                               final Expression[] arguments,
+                               final Variable[] arrays) throws InterpretationException {
+        for (int i = 0; i < arguments.length; i++) {
+            if (buffer.get() != 0) {
+                arrays[i] = variables[buffer.getInt()];
+            } else {
+                arguments[i] = readExpression(buffer, variables, routines);
+            }
+        }
+    }
+
+    /**
+     * Writes the optional index of an array element.
+     */
+    private void writeIndex(final DataOutputStream out,
+                            final Expression index,
+                            final Map<Variable, Integer> indexes) throws IOException, InterpretationException {
+        out.writeBoolean(index != null);
+        if (index != null) writeExpression(out, index, indexes);
+    }
+
+    private Expression readIndex(final ByteBuffer buffer,
+                                 final Variable[] variables,
+                                 final List<Routine> routines) throws InterpretationException {
+        return buffer.get() == 0 ? null : readExpression(buffer, variables, routines);
+    }
+
+    private void writeCondition(final DataOutputStream out,
+                                final Condition condition,
+                                final Map<Variable, Integer> indexes) throws IOException, InterpretationException {
+        if (condition instanceof ComparisonCondition comparison) {
+            out.writeByte(COMPARISON);
+            out.writeByte(comparison.getOperator().ordinal());
+            writeExpression(out, comparison.getLeft(), indexes);
+            writeExpression(out, comparison.getRight(), indexes);
+        } else if (condition instanceof LogicalCondition logical) {
+            out.writeByte(LOGICAL);
+            out.writeBoolean(logical.isAnd());
+            writeCondition(out, logical.getLeft(), indexes);
+            writeCondition(out, logical.getRight(), indexes);
+        } else if (condition instanceof NotCondition not) {
+            out.writeByte(NOT);
+            writeCondition(out, not.getOperand(), indexes);
+        } else {
+            throw new InterpretationException("Cannot serialize condition " + condition.getClass().getSimpleName());
+        }
+    }
+
+    private Condition readCondition(final ByteBuffer buffer,
+                                    final Variable[] variables,
+                                    final List<Routine> routines) throws InterpretationException {
+        final int tag = buffer.get();
+        switch (tag) {
+            case COMPARISON -> {
+                final ComparisonOperator operator = readEnum(buffer, ComparisonOperator.values());
+                final Expression left = readExpression(buffer, variables, routines);
+                return new ComparisonCondition(operator, left, readExpression(buffer, variables, routines));
+            }
+            case LOGICAL -> {
+                final boolean and = buffer.get() != 0;
+                final Condition left = readCondition(buffer, variables, routines);
+                return new LogicalCondition(and, left, readCondition(buffer, variables, routines));
+            }
+            case NOT -> {
+                return new NotCondition(readCondition(buffer, variables, routines));
+            }
+            default -> throw new InterpretationException("Unknown condition tag " + tag);
+        }
+    }
+
+    private void writeValue(final DataOutputStream out,
+                            final TokenType.DataType dataType,
+                            final Object value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value == null) return;
+        switch (dataType) {
+            case INTEGER -> out.writeInt((Integer) value);
+            case DOUBLE -> out.writeDouble((Double) value);
+            case STRING -> writeString(out, (String) value);
+        }
+    }
+
+    private Object readValue(final ByteBuffer buffer,
+                             final TokenType.DataType dataType) {
+        if (buffer.get() == 0) return null;
+        return switch (dataType) {
+            case INTEGER -> buffer.getInt();
+            case DOUBLE -> buffer.getDouble();
+            case STRING -> readString(buffer);
+        };
+    }
+
+    private int readTarget(final ByteBuffer buffer,
+                           final int instructionCount) throws InterpretationException {
+        final int target = buffer.getInt();
+        // Jumping to the instruction count ends the algorithm.
+        if (target < 0 || target > instructionCount) throw new InterpretationException("Invalid jump target " + target);
+        return target;
+    }
+
+    private static <E extends Enum<E>> E readEnum(final ByteBuffer buffer,
+                                                  final E[] values) {
+        return values[buffer.get()];
+    }
+
+    private static void writeString(final DataOutputStream out,
+                                    final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) throw new BufferUnderflowException();
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.akraml.algo.interpreter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Outcome of a {@link BatchRunner} run, one entry per case in name order.
+ */
+public final class BatchReport {
+
+    private final String algorithm;
+    private final List<Case> cases;
+    private final long elapsedNanos;
+
+    BatchReport(final String algorithm,
+                final List<Case> cases,
+                final long elapsedNanos) {
+        this.algorithm = algorithm;
+        this.cases = Collections.unmodifiableList(cases);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public List<Case> getCases() {
+        return cases;
+    }
+
+    /**
+     * @return the wall-clock time of the whole batch.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public int count(final Status status) {
+        int count = 0;
+        for (final Case result : cases) {
+            if (result.status == status) count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return whether no case failed, errored or timed out, cases without an expected output count as passed.
+     */
+    public boolean isSuccessful() {
+        return count(Status.PASSED) + count(Status.COMPLETED) == cases.size();
+    }
+
+    /**
+     * @return a human-readable summary, one line per case followed by the totals.
+     */
+    public String format() {
+        final StringBuilder summary = new StringBuilder();
+        summary.append(String.format(Locale.ROOT, "Batch of %s, %d cases%n", algorithm, cases.size()));
+        summary.append(String.format(Locale.ROOT, "%-24s %-9s %12s  %s%n", "Case", "Result", "Time (ms)", "Detail"));
+        long total = 0;
+        for (final Case result : cases) {
+            total += result.elapsedNanos;
+            summary.append(String.format(Locale.ROOT, "%-24s %-9s %12.3f  %s%n", result.name, result.status,
+                    result.elapsedNanos / 1e6, result.detail == null ? "" : result.detail));
+        }
+        summary.append(String.format(Locale.ROOT,
+                "%d passed, %d failed, %d errors, %d timeouts, %d without expected output%n",
+                count(Status.PASSED), count(Status.FAILED), count(Status.ERROR), count(Status.TIMEOUT),
+                count(Status.COMPLETED)));
+        summary.append(String.format(Locale.ROOT, "Executions took %.3f ms, the batch took %.3f ms%n",
+                total / 1e6, elapsedNanos / 1e6));
+        return summary.toString();
+    }
+
+    public enum Status {
+
+        /**
+         * The output matches the expected output.
+         */
+        PASSED,
+        /**
+         * The output differs from the expected output.
+         */
+        FAILED,
+        /**
+         * The execution failed, or its files could not be read or written.
+         */
+        ERROR,
+        /**
+         * The execution did not end before the timeout.
+         */
+        TIMEOUT,
+        /**
+         * The execution ended but there is no expected output to compare with.
+         */
+        COMPLETED
+
+    }
+
+    /**
+     * Outcome of a single input file.
+     */
+    public static final class Case {
+
+        private final String name;
+        private final Status status;
+        private final long elapsedNanos;
+        private final String detail;
+
+        Case(final String name,
+             final Status status,
+             final long elapsedNanos,
+             final String detail) {
+            this.name = name;
+            this.status = status;
+            this.elapsedNanos = elapsedNanos;
+            this.detail = detail;
+        }
+
+        /**
+         * @return the input file name without its extension.
+         */
+        public String getName() {
+            return name;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return where the output differs or why the execution failed, {@code null} otherwise.
+         */
+        public String getDetail() {
+            return detail;
+        }
+
+    }
+
+}
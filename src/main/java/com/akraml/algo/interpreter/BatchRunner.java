@@ -0,0 +1,222 @@
+package com.akraml.algo.interpreter;
+
+import com.akraml.algo.interpreter.runtime.ExecutionLimits;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Executes one algorithm against every input file of a directory, on an {@link AlgoRuntime}.
+ * <p>
+ * Each {@code name.in} file is a case: its output is written to {@code name.out}, and compared to
+ * {@code name.ans} when that file exists. Trailing white spaces of lines and trailing empty lines are ignored
+ * by the comparison. At most {@code parallelism} cases run at once, which also bounds the number of open files: a
+ * case only ends, closing its files and letting the next one start, once its execution returned, even after a timeout.
+ * Cases going over their {@link ExecutionLimits} are reported as errors.
+ */
+public final class BatchRunner {
+
+    public static final String INPUT_EXTENSION = ".in", OUTPUT_EXTENSION = ".out", EXPECTED_EXTENSION = ".ans";
+
+    private final AlgoRuntime runtime;
+    private final Duration timeout;
+    private final int parallelism;
+    private final ExecutionLimits limits;
+
+    /**
+     * @param timeout the maximum execution time of a case, or {@code null} for no limit.
+     */
+    public BatchRunner(final AlgoRuntime runtime,
+                       final Duration timeout) {
+        this(runtime, timeout, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchRunner(final AlgoRuntime runtime,
+                       final Duration timeout,
+                       final int parallelism) {
+        this(runtime, timeout, parallelism, ExecutionLimits.NONE);
+    }
+
+    public BatchRunner(final AlgoRuntime runtime,
+                       final Duration timeout,
+                       final int parallelism,
+                       final ExecutionLimits limits) {
+        if (parallelism <= 0) throw new IllegalArgumentException("Parallelism should be positive");
+        this.runtime = runtime;
+        this.timeout = timeout;
+        this.parallelism = parallelism;
+        this.limits = limits;
+    }
+
+    /**
+     * Runs every case of the directory and waits for all of them, outputs are written next to the inputs.
+     */
+    public BatchReport run(final Algorithm algorithm,
+                           final Path directory) throws InterpretationException {
+        return run(algorithm, directory, directory);
+    }
+
+    /**
+     * Runs every case of the input directory and waits for all of them, cases are reported in name order.
+     */
+    public BatchReport run(final Algorithm algorithm,
+                           final Path inputDirectory,
+                           final Path outputDirectory) throws InterpretationException {
+        final List<Path> inputs = new ArrayList<>();
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(inputDirectory, "*" + INPUT_EXTENSION)) {
+            for (final Path input : stream) {
+                if (Files.isRegularFile(input)) inputs.add(input);
+            }
+            Files.createDirectories(outputDirectory);
+        } catch (final IOException exception) {
+            throw new InterpretationException(InterpretationException.Kind.IO,
+                    "Failed to list cases: " + exception.getMessage(), exception);
+        }
+        inputs.sort(null);
+        final long start = System.nanoTime();
+        final Semaphore permits = new Semaphore(parallelism);
+        final List<CompletableFuture<BatchReport.Case>> cases = new ArrayList<>(inputs.size());
+        try {
+            for (final Path input : inputs) {
+                permits.acquire();
+                final CompletableFuture<BatchReport.Case> result = runCase(algorithm, input, outputDirectory);
+                result.whenComplete((ignored, throwable) -> permits.release());
+                cases.add(result);
+            }
+        } catch (final InterruptedException exception) {
+            cases.forEach(result -> result.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Batch interrupted");
+        }
+        final List<BatchReport.Case> results = new ArrayList<>(cases.size());
+        for (final CompletableFuture<BatchReport.Case> result : cases) {
+            results.add(result.join());
+        }
+        return new BatchReport(algorithm.getName(), results, System.nanoTime() - start);
+    }
+
+    private CompletableFuture<BatchReport.Case> runCase(final Algorithm algorithm,
+                                                        final Path input,
+                                                        final Path outputDirectory) {
+        final String fileName = input.getFileName().toString();
+        final String name = fileName.substring(0, fileName.length() - INPUT_EXTENSION.length());
+        final Path output = outputDirectory.resolve(name + OUTPUT_EXTENSION);
+        final Path expected = input.resolveSibling(name + EXPECTED_EXTENSION);
+        final InputStream in;
+        final OutputStream out;
+        try {
+            in = Files.newInputStream(input);
+        } catch (final IOException exception) {
+            return CompletableFuture.completedFuture(new BatchReport.Case(name, BatchReport.Status.ERROR, 0,
+                    "Failed to read input: " + exception.getMessage()));
+        }
+        try {
+            out = Files.newOutputStream(output);
+        } catch (final IOException exception) {
+            close(in);
+            return CompletableFuture.completedFuture(new BatchReport.Case(name, BatchReport.Status.ERROR, 0,
+                    "Failed to write output: " + exception.getMessage()));
+        }
+        final long start = System.nanoTime();
+        // A timed out execution only stops at its next loop iteration, the streams are closed once it returned.
+        final CompletableFuture<Void> finished = new CompletableFuture<>();
+        final CompletableFuture<ExecutionResult> run = runtime.submit(algorithm, in, out, timeout, limits, () -> {
+            close(in);
+            close(out);
+            finished.complete(null);
+        });
+        return run.handle((result, throwable) -> throwable == null
+                        ? null
+                        : failed(name, System.nanoTime() - start, throwable))
+                .thenCombine(finished, (failure, ignored) -> failure != null
+                        ? failure
+                        : completed(name, expected, output, run.join().getElapsedNanos()));
+    }
+
+    /**
+     * Reports a case whose execution completed, comparing its output once it was closed.
+     */
+    private static BatchReport.Case completed(final String name,
+                                              final Path expected,
+                                              final Path output,
+                                              final long elapsed) {
+        if (!Files.exists(expected)) {
+            return new BatchReport.Case(name, BatchReport.Status.COMPLETED, elapsed, null);
+        }
+        try {
+            final String difference = compare(Files.readString(expected, StandardCharsets.UTF_8),
+                    Files.readString(output, StandardCharsets.UTF_8));
+            return new BatchReport.Case(name, difference == null ? BatchReport.Status.PASSED : BatchReport.Status.FAILED,
+                    elapsed, difference);
+        } catch (final IOException exception) {
+            return new BatchReport.Case(name, BatchReport.Status.ERROR, elapsed,
+                    "Failed to compare outputs: " + exception.getMessage());
+        }
+    }
+
+    private static BatchReport.Case failed(final String name,
+                                           final long elapsed,
+                                           final Throwable throwable) {
+        final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+        if (cause instanceof TimeoutException || cause instanceof CancellationException) {
+            return new BatchReport.Case(name, BatchReport.Status.TIMEOUT, elapsed, null);
+        }
+        // Only the first line of the message, the next one repeats the failing source line.
+        String message = String.valueOf(cause.getMessage()).lines().findFirst().orElse("");
+        // Failures of the algorithm already tell what went wrong, only other exceptions need their cause.
+        if (cause.getCause() != null && !(cause instanceof InterpretationException)) {
+            message += ": " + cause.getCause().getMessage();
+        }
+        return new BatchReport.Case(name, BatchReport.Status.ERROR, elapsed, message);
+    }
+
+    /**
+     * @return {@code null} if both outputs match, otherwise where they first differ.
+     */
+    static String compare(final String expected,
+                          final String actual) {
+        final List<String> expectedLines = normalize(expected), actualLines = normalize(actual);
+        final int common = Math.min(expectedLines.size(), actualLines.size());
+        for (int i = 0; i < common; i++) {
+            if (!expectedLines.get(i).equals(actualLines.get(i))) {
+                return "Line " + (i + 1) + ": expected '" + expectedLines.get(i) + "' but found '" + actualLines.get(i) + "'";
+            }
+        }
+        if (expectedLines.size() == actualLines.size()) return null;
+        return expectedLines.size() > actualLines.size()
+                ? "Output ends at line " + (common + 1) + ", expected '" + expectedLines.get(common) + "'"
+                : "Unexpected output at line " + (common + 1) + ": '" + actualLines.get(common) + "'";
+    }
+
+    private static List<String> normalize(final String output) {
+        final List<String> lines = new ArrayList<>();
+        output.lines().forEach(line -> lines.add(line.stripTrailing()));
+        while (!lines.isEmpty() && lines.get(lines.size() - 1).isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+        return lines;
+    }
+
+    private static void close(final AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (final Exception ignored) {
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.akraml.algo.interpreter;
+
+import java.util.Map;
+
+/**
+ * Outcome of an execution that ran to its end.
+ */
+public final class ExecutionResult {
+
+    private final Algorithm algorithm;
+    private final Map<String, Object> variables;
+    private final String output;
+    private final long elapsedNanos;
+
+    ExecutionResult(final Algorithm algorithm,
+                    final Map<String, Object> variables,
+                    final String output,
+                    final long elapsedNanos) {
+        this.algorithm = algorithm;
+        this.variables = variables;
+        this.output = output;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return a read-only view of the variables values at the end of the execution.
+     */
+    public Map<String, Object> getVariables() {
+        return variables;
+    }
+
+    /**
+     * @return the whole output of the execution, or {@code null} if it was written to a stream.
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    /**
+     * @return the execution time, parsing excluded.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+}
@@ -6,13 +6,50 @@ package com.akraml.algo.interpreter;
  */
 public final class InterpretationException extends Exception {
 
+    private final Kind kind;
+
     public InterpretationException(String message) {
-        super(message);
+        this(Kind.SYNTAX, message, null);
     }
 
     public InterpretationException(String message,
                                    Throwable cause) {
+        this(Kind.SYNTAX, message, cause);
+    }
+
+    public InterpretationException(Kind kind,
+                                   String message,
+                                   Throwable cause) {
         super(message, cause);
+        this.kind = kind;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * What went wrong, errors in the source are syntax errors unless stated otherwise.
+     */
+    public enum Kind {
+
+        /**
+         * The source is not a valid algorithm.
+         */
+        SYNTAX,
+        /**
+         * A statement failed while executing the algorithm.
+         */
+        RUNTIME,
+        /**
+         * A file could not be read or written, or a compiled algorithm file is corrupted.
+         */
+        IO,
+        /**
+         * The execution went over one of its {@link com.akraml.algo.interpreter.runtime.ExecutionLimits limits}.
+         */
+        LIMIT
+
     }
 
 }
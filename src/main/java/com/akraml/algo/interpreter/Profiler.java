@@ -0,0 +1,285 @@
+package com.akraml.algo.interpreter;
+
+import com.akraml.algo.interpreter.runtime.Instruction;
+import com.akraml.algo.interpreter.runtime.InstructionListener;
+import com.akraml.algo.interpreter.runtime.Routine;
+import com.akraml.algo.interpreter.runtime.Statement;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Records how many times each instruction runs, how long it takes and how much memory it allocates, for a single
+ * execution given to {@link Algorithm#execute(com.akraml.algo.interpreter.runtime.ExecutionContext, Profiler)}.
+ * <p>
+ * The instructions of the routines are recorded too. An instruction calling a routine only records its own time and
+ * memory, the ones of the call go to the lines of the routine.
+ * Allocations are measured with the allocated bytes counter of the current thread when the JVM provides one,
+ * otherwise they are reported as {@code -1}.
+ */
+public final class Profiler implements InstructionListener {
+
+    private final Algorithm algorithm;
+    // The body of the algorithm first, then the one of each routine by index.
+    private final Instruction[][] instructions;
+    private final long[][] hits, nanos, allocatedBytes;
+    private final com.sun.management.ThreadMXBean threads;
+    // Instructions being run, an outer one calls the routine running the inner ones.
+    private long[] startNanos = new long[16], startBytes = new long[16], calledNanos = new long[16],
+            calledBytes = new long[16];
+    private int depth;
+
+    public Profiler(final Algorithm algorithm) {
+        this.algorithm = algorithm;
+        final List<Routine> routines = algorithm.getRoutines();
+        this.instructions = new Instruction[routines.size() + 1][];
+        instructions[0] = algorithm.getInstructions().toArray(new Instruction[0]);
+        for (final Routine routine : routines) {
+            instructions[routine.getIndex() + 1] = routine.getInstructions().toArray(new Instruction[0]);
+        }
+        this.hits = new long[instructions.length][];
+        this.nanos = new long[instructions.length][];
+        this.allocatedBytes = new long[instructions.length][];
+        for (int i = 0; i < instructions.length; i++) {
+            hits[i] = new long[instructions[i].length];
+            nanos[i] = new long[instructions[i].length];
+            allocatedBytes[i] = new long[instructions[i].length];
+        }
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threads = bean instanceof com.sun.management.ThreadMXBean sun && sun.isThreadAllocatedMemorySupported()
+                ? sun
+                : null;
+        if (threads != null && !threads.isThreadAllocatedMemoryEnabled()) threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * @return the bytes allocated so far by the current thread, or {@code 0} if it cannot be measured.
+     */
+    private long allocatedBytes() {
+        return threads == null ? 0 : threads.getCurrentThreadAllocatedBytes();
+    }
+
+    @Override
+    public void before(final Routine routine,
+                       final int index) {
+        if (depth == startNanos.length) {
+            startNanos = Arrays.copyOf(startNanos, depth * 2);
+            startBytes = Arrays.copyOf(startBytes, depth * 2);
+            calledNanos = Arrays.copyOf(calledNanos, depth * 2);
+            calledBytes = Arrays.copyOf(calledBytes, depth * 2);
+        }
+        calledNanos[depth] = 0;
+        calledBytes[depth] = 0;
+        startBytes[depth] = allocatedBytes();
+        startNanos[depth] = System.nanoTime();
+        depth++;
+    }
+
+    @Override
+    public void after(final Routine routine,
+                      final int index) {
+        final long elapsed = System.nanoTime() - startNanos[--depth];
+        final long allocated = allocatedBytes() - startBytes[depth];
+        final int body = routine == null ? 0 : routine.getIndex() + 1;
+        hits[body][index]++;
+        nanos[body][index] += elapsed - calledNanos[depth];
+        allocatedBytes[body][index] += allocated - calledBytes[depth];
+        if (depth > 0) {
+            calledNanos[depth - 1] += elapsed;
+            calledBytes[depth - 1] += allocated;
+        }
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (final long[] body : nanos) {
+            for (final long value : body) total += value;
+        }
+        return total;
+    }
+
+    public long getTotalHits() {
+        long total = 0;
+        for (final long[] body : hits) {
+            for (final long value : body) total += value;
+        }
+        return total;
+    }
+
+    /**
+     * @return the profile of every executed source line, the most expensive first.
+     */
+    public List<LineProfile> getLines() {
+        final Map<Integer, LineProfile> lines = new LinkedHashMap<>();
+        for (int body = 0; body < instructions.length; body++) {
+            for (int i = 0; i < instructions[body].length; i++) {
+                if (hits[body][i] == 0) continue;
+                final Instruction instruction = instructions[body][i];
+                final LineProfile line = lines.computeIfAbsent(instruction.getLine(),
+                        key -> new LineProfile(instruction.getLine(), instruction.getSource()));
+                // Every instruction of a line runs at least as often as the first one, For loops run their
+                // condition more often than their initialization.
+                line.hits = Math.max(line.hits, hits[body][i]);
+                line.nanos += nanos[body][i];
+                line.allocatedBytes += allocatedBytes[body][i];
+            }
+        }
+        final List<LineProfile> sorted = new ArrayList<>(lines.values());
+        sorted.sort(Comparator.comparingLong(LineProfile::getNanos).reversed());
+        return sorted;
+    }
+
+    /**
+     * @return the bytes allocated by each kind of instruction: statements by type, conditions and jumps.
+     */
+    public Map<String, Long> getAllocationsByType() {
+        final Map<String, Long> allocations = new LinkedHashMap<>();
+        for (int body = 0; body < instructions.length; body++) {
+            for (int i = 0; i < instructions[body].length; i++) {
+                if (hits[body][i] == 0) continue;
+                allocations.merge(typeOf(instructions[body][i]), threads == null ? -1 : allocatedBytes[body][i],
+                        (a, b) -> a < 0 ? a : a + b);
+            }
+        }
+        return allocations;
+    }
+
+    /**
+     * @return a human-readable report, lines sorted by their cumulated time.
+     */
+    public String report() {
+        final long total = getTotalNanos();
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "Profile of %s, %d instructions executed in %.3f ms%n",
+                algorithm.getName(), getTotalHits(), total / 1e6));
+        report.append(String.format(Locale.ROOT, "%6s %12s %12s %10s %7s %12s  %s%n",
+                "Line", "Hits", "Total (us)", "Avg (ns)", "%", "Alloc (B)", "Source"));
+        for (final LineProfile line : getLines()) {
+            report.append(String.format(Locale.ROOT, "%6d %12d %12.1f %10d %6.1f%% %12d  %s%n",
+                    line.line, line.hits, line.nanos / 1e3, line.nanos / line.hits,
+                    total == 0 ? 0 : line.nanos * 100.0 / total,
+                    threads == null ? -1 : line.allocatedBytes, line.source));
+        }
+        report.append(String.format("Allocations by type%n"));
+        final Map<String, Long> allocations = getAllocationsByType();
+        // The type column fits the longest name, ElementAssignment is longer than the other columns.
+        int width = 12;
+        for (final String type : allocations.keySet()) {
+            width = Math.max(width, type.length());
+        }
+        for (final Map.Entry<String, Long> entry : allocations.entrySet()) {
+            report.append(String.format(Locale.ROOT, "%" + width + "s %12d B%n", entry.getKey(), entry.getValue()));
+        }
+        return report.toString();
+    }
+
+    /**
+     * @return the profile as a JSON document, with the same content as the report.
+     */
+    public String toJson() {
+        final StringBuilder json = new StringBuilder();
+        json.append("{\"algorithm\":").append(quote(algorithm.getName()))
+                .append(",\"totalNanos\":").append(getTotalNanos())
+                .append(",\"totalHits\":").append(getTotalHits())
+                .append(",\"lines\":[");
+        final List<LineProfile> lines = getLines();
+        for (int i = 0; i < lines.size(); i++) {
+            final LineProfile line = lines.get(i);
+            if (i > 0) json.append(',');
+            json.append("{\"line\":").append(line.line)
+                    .append(",\"source\":").append(quote(line.source))
+                    .append(",\"hits\":").append(line.hits)
+                    .append(",\"nanos\":").append(line.nanos)
+                    .append(",\"allocatedBytes\":").append(threads == null ? -1 : line.allocatedBytes)
+                    .append('}');
+        }
+        json.append("],\"allocationsByType\":{");
+        boolean first = true;
+        for (final Map.Entry<String, Long> entry : getAllocationsByType().entrySet()) {
+            if (!first) json.append(',');
+            first = false;
+            json.append(quote(entry.getKey())).append(':').append(entry.getValue());
+        }
+        return json.append("}}").toString();
+    }
+
+    private static String typeOf(final Instruction instruction) {
+        return switch (instruction.getOpcode()) {
+            case Instruction.EXECUTE -> {
+                final Statement statement = instruction.getStatement();
+                final String name = statement.getClass().getSimpleName();
+                yield name.endsWith("Statement") ? name.substring(0, name.length() - "Statement".length()) : name;
+            }
+            case Instruction.JUMP_IF_FALSE -> "Condition";
+            case Instruction.RETURN -> "Return";
+            default -> "Jump";
+        };
+    }
+
+    private static String quote(final String value) {
+        final StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Cumulated profile of the instructions of one source line.
+     */
+    public static final class LineProfile {
+
+        private final int line;
+        private final String source;
+        private long hits, nanos, allocatedBytes;
+
+        private LineProfile(final int line,
+                            final String source) {
+            this.line = line;
+            this.source = source;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.akraml.algo.interpreter;
+
+import com.akraml.algo.interpreter.expression.Condition;
+import com.akraml.algo.interpreter.runtime.Instruction;
+import com.akraml.algo.interpreter.runtime.Statement;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Builds the flat instruction stream of a Begin body, the algorithm one or a routine one. Control flow blocks are
+ * lowered into jumps whose targets are patched once the end of the block is known.
+ */
+final class ProgramBuilder {
+
+    private final List<Instruction> instructions = new ArrayList<>();
+    private final Deque<Block> blocks = new ArrayDeque<>();
+
+    /**
+     * @return how many blocks are currently open.
+     */
+    int depth() {
+        return blocks.size();
+    }
+
+    void execute(final Statement statement,
+                 final int line,
+                 final String source) {
+        instructions.add(Instruction.execute(statement, line, source));
+    }
+
+    void returning(final Statement statement,
+                   final int line,
+                   final String source) {
+        instructions.add(Instruction.returning(statement, line, source));
+    }
+
+    void beginIf(final Condition condition,
+                 final int line,
+                 final String source) {
+        blocks.push(new Block(BlockType.IF, line, instructions.size(), instructions.size()));
+        instructions.add(Instruction.jumpIfFalse(condition, -1, line, source));
+    }
+
+    void beginElse(final int line,
+                   final String source) throws InterpretationException {
+        final Block block = blocks.peek();
+        if (block == null || block.type != BlockType.IF) {
+            throw new InterpretationException("Else without a matching If");
+        }
+        final int jump = instructions.size();
+        instructions.add(Instruction.jump(-1, line, source));
+        patch(block.pendingJump, instructions.size());
+        blocks.pop();
+        blocks.push(new Block(BlockType.ELSE, block.line, block.start, jump));
+    }
+
+    void endIf() throws InterpretationException {
+        final Block block = close(BlockType.IF, BlockType.ELSE);
+        patch(block.pendingJump, instructions.size());
+    }
+
+    void beginWhile(final Condition condition,
+                    final int line,
+                    final String source) {
+        blocks.push(new Block(BlockType.WHILE, line, instructions.size(), instructions.size()));
+        instructions.add(Instruction.jumpIfFalse(condition, -1, line, source));
+    }
+
+    void endWhile(final int line,
+                  final String source) throws InterpretationException {
+        final Block block = close(BlockType.WHILE, BlockType.WHILE);
+        instructions.add(Instruction.jump(block.start, line, source));
+        patch(block.pendingJump, instructions.size());
+    }
+
+    void beginFor(final Statement initialization,
+                  final Condition condition,
+                  final Statement increment,
+                  final int line,
+                  final String source) {
+        instructions.add(Instruction.execute(initialization, line, source));
+        final Block block = new Block(BlockType.FOR, line, instructions.size(), instructions.size());
+        block.increment = increment;
+        block.source = source;
+        blocks.push(block);
+        instructions.add(Instruction.jumpIfFalse(condition, -1, line, source));
+    }
+
+    void endFor(final int line,
+                final String source) throws InterpretationException {
+        final Block block = close(BlockType.FOR, BlockType.FOR);
+        instructions.add(Instruction.execute(block.increment, block.line, block.source));
+        instructions.add(Instruction.jump(block.start, line, source));
+        patch(block.pendingJump, instructions.size());
+    }
+
+    List<Instruction> finish() throws InterpretationException {
+        final Block block = blocks.peek();
+        if (block != null) {
+            throw new InterpretationException("Error in line " + block.line + ": " + block.type.name +
+                    " block is not closed, expected '" + block.type.closingKeyword + "'");
+        }
+        return instructions;
+    }
+
+    private Block close(final BlockType type,
+                        final BlockType alternative) throws InterpretationException {
+        final Block block = blocks.peek();
+        if (block == null || (block.type != type && block.type != alternative)) {
+            throw new InterpretationException("'" + type.closingKeyword + "' without a matching " + type.name);
+        }
+        return blocks.pop();
+    }
+
+    private void patch(final int index,
+                       final int target) {
+        instructions.set(index, instructions.get(index).withTarget(target));
+    }
+
+    private enum BlockType {
+
+        IF("If", "EndIf"),
+        ELSE("Else", "EndIf"),
+        WHILE("While", "EndWhile"),
+        FOR("For", "EndFor");
+
+        private final String name, closingKeyword;
+
+        BlockType(final String name,
+                  final String closingKeyword) {
+            this.name = name;
+            this.closingKeyword = closingKeyword;
+        }
+
+    }
+
+    private static final class Block {
+
+        private final BlockType type;
+        private final int line;
+        // Index of the first instruction of the block, loops jump back to it.
+        private final int start;
+        // Index of the jump instruction that still has to be patched with the end of the block.
+        private final int pendingJump;
+        private Statement increment;
+        private String source;
+
+        private Block(final BlockType type,
+                      final int line,
+                      final int start,
+                      final int pendingJump) {
+            this.type = type;
+            this.line = line;
+            this.start = start;
+            this.pendingJump = pendingJump;
+        }
+
+    }
+
+}
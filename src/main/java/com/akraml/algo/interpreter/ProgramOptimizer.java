@@ -0,0 +1,216 @@
+package com.akraml.algo.interpreter;
+
+import com.akraml.algo.interpreter.expression.BinaryExpression;
+import com.akraml.algo.interpreter.expression.CallExpression;
+import com.akraml.algo.interpreter.expression.ComparisonCondition;
+import com.akraml.algo.interpreter.expression.ConcatenationExpression;
+import com.akraml.algo.interpreter.expression.Condition;
+import com.akraml.algo.interpreter.expression.ElementExpression;
+import com.akraml.algo.interpreter.expression.Expression;
+import com.akraml.algo.interpreter.expression.LiteralExpression;
+import com.akraml.algo.interpreter.expression.LogicalCondition;
+import com.akraml.algo.interpreter.expression.NotCondition;
+import com.akraml.algo.interpreter.expression.UnaryExpression;
+import com.akraml.algo.interpreter.expression.VariableExpression;
+import com.akraml.algo.interpreter.runtime.AssignmentStatement;
+import com.akraml.algo.interpreter.runtime.CallStatement;
+import com.akraml.algo.interpreter.runtime.ElementAssignmentStatement;
+import com.akraml.algo.interpreter.runtime.Frame;
+import com.akraml.algo.interpreter.runtime.Instruction;
+import com.akraml.algo.interpreter.runtime.ReadStatement;
+import com.akraml.algo.interpreter.runtime.ReturnStatement;
+import com.akraml.algo.interpreter.runtime.Statement;
+import com.akraml.algo.interpreter.runtime.Variable;
+import com.akraml.algo.interpreter.runtime.VariableTable;
+import com.akraml.algo.interpreter.runtime.WriteStatement;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rewrites the instruction stream once the whole Begin body is known, constants are already inlined by the parser:
+ * <ul>
+ *     <li>variables that are never assigned nor read keep the value of their declaration, it replaces them,
+ *     arrays and parameters are left untouched;</li>
+ *     <li>constant sub-expressions are evaluated once, except the ones that fail like a modulo by zero,
+ *     so the error still happens at runtime on the right line;</li>
+ *     <li>adjacent texts of a {@code Write} are joined into a single one.</li>
+ * </ul>
+ * Instructions are replaced one for one, so jump targets and line numbers are kept. A routine body is optimized
+ * on its own table, calls only change the arrays they are given.
+ */
+final class ProgramOptimizer {
+
+    private final Frame initialValues;
+    private final Set<Variable> assigned = new HashSet<>();
+    private boolean propagate = true;
+
+    ProgramOptimizer(final VariableTable variables) {
+        this.initialValues = variables.newFrame();
+    }
+
+    List<Instruction> optimize(final List<Instruction> instructions) {
+        for (final Instruction instruction : instructions) {
+            if (instruction.getOpcode() == Instruction.EXECUTE) collectAssigned(instruction.getStatement());
+        }
+        final List<Instruction> optimized = new ArrayList<>(instructions.size());
+        for (final Instruction instruction : instructions) {
+            optimized.add(switch (instruction.getOpcode()) {
+                case Instruction.EXECUTE -> Instruction.execute(optimize(instruction.getStatement()),
+                        instruction.getLine(), instruction.getSource());
+                case Instruction.JUMP_IF_FALSE -> Instruction.jumpIfFalse(fold(instruction.getCondition()),
+                        instruction.getTarget(), instruction.getLine(), instruction.getSource());
+                case Instruction.RETURN -> instruction.getStatement() instanceof ReturnStatement statement
+                        ? Instruction.returning(new ReturnStatement(statement.getType(), fold(statement.getExpression())),
+                                instruction.getLine(), instruction.getSource())
+                        : instruction;
+                default -> instruction;
+            });
+        }
+        return optimized;
+    }
+
+    private void collectAssigned(final Statement statement) {
+        if (statement instanceof AssignmentStatement assignment) {
+            assigned.add(assignment.getTarget());
+        } else if (statement instanceof ElementAssignmentStatement assignment) {
+            assigned.add(assignment.getTarget());
+        } else if (statement instanceof ReadStatement read) {
+            assigned.addAll(List.of(read.getTargets()));
+        } else if (!(statement instanceof WriteStatement || statement instanceof CallStatement)) {
+            // A statement this pass does not know may change any variable.
+            propagate = false;
+        }
+    }
+
+    private boolean isUnchanged(final Variable variable) {
+        return propagate && !variable.isArray() && !variable.isParameter() && !assigned.contains(variable);
+    }
+
+    private Statement optimize(final Statement statement) {
+        if (statement instanceof AssignmentStatement assignment) {
+            return new AssignmentStatement(assignment.getTarget(), fold(assignment.getExpression()));
+        }
+        if (statement instanceof ElementAssignmentStatement assignment) {
+            return new ElementAssignmentStatement(assignment.getTarget(), fold(assignment.getIndex()),
+                    fold(assignment.getExpression()));
+        }
+        if (statement instanceof ReadStatement read) return new ReadStatement(read.getTargets(), fold(read.getIndexes()));
+        if (statement instanceof WriteStatement write) return optimize(write);
+        if (statement instanceof CallStatement call) {
+            return new CallStatement(call.getRoutine(), fold(call.getArguments()), call.getArrays());
+        }
+        return statement;
+    }
+
+    private Expression[] fold(final Expression[] indexes) {
+        for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i] != null) indexes[i] = fold(indexes[i]);
+        }
+        return indexes;
+    }
+
+    private WriteStatement optimize(final WriteStatement write) {
+        final String[] texts = write.getTexts();
+        final Variable[] sources = write.getSources();
+        final Expression[] indexes = fold(write.getIndexes());
+        final List<String> mergedTexts = new ArrayList<>(texts.length);
+        final List<Variable> mergedSources = new ArrayList<>(texts.length);
+        final List<Expression> mergedIndexes = new ArrayList<>(texts.length);
+        final StringBuilder pending = new StringBuilder();
+        boolean hasPending = false;
+        for (int i = 0; i < texts.length; i++) {
+            final Variable source = sources[i];
+            if (source != null && !isUnchanged(source)) {
+                if (hasPending) {
+                    mergedTexts.add(pending.toString());
+                    mergedSources.add(null);
+                    mergedIndexes.add(null);
+                    pending.setLength(0);
+                    hasPending = false;
+                }
+                mergedTexts.add(null);
+                mergedSources.add(source);
+                mergedIndexes.add(indexes[i]);
+                continue;
+            }
+            // Appended the same way the output sinks print them.
+            if (source == null) {
+                pending.append(texts[i]);
+            } else {
+                switch (source.getDataType()) {
+                    case INTEGER -> pending.append(initialValues.getInteger(source.getSlot()));
+                    case DOUBLE -> pending.append(initialValues.getReal(source.getSlot()));
+                    case STRING -> pending.append(initialValues.getReference(source.getSlot()));
+                }
+            }
+            hasPending = true;
+        }
+        if (hasPending) {
+            mergedTexts.add(pending.toString());
+            mergedSources.add(null);
+            mergedIndexes.add(null);
+        }
+        return new WriteStatement(mergedTexts.toArray(new String[0]), mergedSources.toArray(new Variable[0]),
+                mergedIndexes.toArray(new Expression[0]));
+    }
+
+    private Expression fold(final Expression expression) {
+        Expression folded = expression;
+        if (expression instanceof VariableExpression variable && isUnchanged(variable.getVariable())) {
+            final Variable target = variable.getVariable();
+            folded = switch (target.getDataType()) {
+                case INTEGER -> LiteralExpression.ofInteger(initialValues.getInteger(target.getSlot()));
+                case DOUBLE -> LiteralExpression.ofReal(initialValues.getReal(target.getSlot()));
+                // A string without an initial value is left to the runtime.
+                case STRING -> initialValues.getReference(target.getSlot()) instanceof String string
+                        ? LiteralExpression.ofString(string)
+                        : expression;
+            };
+        } else if (expression instanceof UnaryExpression unary) {
+            final Expression operand = fold(unary.getOperand());
+            folded = operand == unary.getOperand() ? unary : new UnaryExpression(operand);
+        } else if (expression instanceof ElementExpression element) {
+            final Expression index = fold(element.getIndex());
+            folded = index == element.getIndex() ? element : new ElementExpression(element.getArray(), index);
+        } else if (expression instanceof BinaryExpression binary) {
+            final Expression left = fold(binary.getLeft()), right = fold(binary.getRight());
+            folded = left == binary.getLeft() && right == binary.getRight()
+                    ? binary
+                    : new BinaryExpression(binary.getOperator(), left, right);
+        } else if (expression instanceof ConcatenationExpression concatenation) {
+            final Expression left = fold(concatenation.getLeft()), right = fold(concatenation.getRight());
+            folded = left == concatenation.getLeft() && right == concatenation.getRight()
+                    ? concatenation
+                    : new ConcatenationExpression(left, right);
+        } else if (expression instanceof CallExpression call) {
+            folded = new CallExpression(call.getRoutine(), fold(call.getArguments()), call.getArrays());
+        }
+        if (folded instanceof LiteralExpression || !folded.isConstant()) return folded;
+        // Evaluating through the node itself keeps the exact runtime semantics.
+        try {
+            return switch (folded.getType()) {
+                case INTEGER -> LiteralExpression.ofInteger(folded.evaluateInteger(null));
+                case DOUBLE -> LiteralExpression.ofReal(folded.evaluateReal(null));
+                case STRING -> LiteralExpression.ofString(folded.evaluateString(null).toString());
+            };
+        } catch (final ArithmeticException exception) {
+            return folded;
+        }
+    }
+
+    private Condition fold(final Condition condition) {
+        if (condition instanceof ComparisonCondition comparison) {
+            return new ComparisonCondition(comparison.getOperator(),
+                    fold(comparison.getLeft()), fold(comparison.getRight()));
+        }
+        if (condition instanceof LogicalCondition logical) {
+            return new LogicalCondition(logical.isAnd(), fold(logical.getLeft()), fold(logical.getRight()));
+        }
+        if (condition instanceof NotCondition not) return new NotCondition(fold(not.getOperand()));
+        return condition;
+    }
+
+}
@@ -0,0 +1,894 @@
+package com.akraml.algo.interpreter.compiler;
+
+import com.akraml.algo.interpreter.Algorithm;
+import com.akraml.algo.interpreter.InterpretationException;
+import com.akraml.algo.interpreter.expression.Arithmetic;
+import com.akraml.algo.interpreter.expression.BinaryExpression;
+import com.akraml.algo.interpreter.expression.CallExpression;
+import com.akraml.algo.interpreter.expression.ComparisonCondition;
+import com.akraml.algo.interpreter.expression.ComparisonOperator;
+import com.akraml.algo.interpreter.expression.ConcatenationExpression;
+import com.akraml.algo.interpreter.expression.Condition;
+import com.akraml.algo.interpreter.expression.ElementExpression;
+import com.akraml.algo.interpreter.expression.Expression;
+import com.akraml.algo.interpreter.expression.LiteralExpression;
+import com.akraml.algo.interpreter.expression.LogicalCondition;
+import com.akraml.algo.interpreter.expression.NotCondition;
+import com.akraml.algo.interpreter.expression.UnaryExpression;
+import com.akraml.algo.interpreter.expression.VariableExpression;
+import com.akraml.algo.interpreter.runtime.AssignmentStatement;
+import com.akraml.algo.interpreter.runtime.CallStatement;
+import com.akraml.algo.interpreter.runtime.ElementAssignmentStatement;
+import com.akraml.algo.interpreter.runtime.ExecutionContext;
+import com.akraml.algo.interpreter.runtime.InputReader;
+import com.akraml.algo.interpreter.runtime.Instruction;
+import com.akraml.algo.interpreter.runtime.InstructionException;
+import com.akraml.algo.interpreter.runtime.OutputSink;
+import com.akraml.algo.interpreter.runtime.ReadStatement;
+import com.akraml.algo.interpreter.runtime.ReturnStatement;
+import com.akraml.algo.interpreter.runtime.Routine;
+import com.akraml.algo.interpreter.runtime.Statement;
+import com.akraml.algo.interpreter.runtime.Text;
+import com.akraml.algo.interpreter.runtime.Variable;
+import com.akraml.algo.interpreter.runtime.WriteStatement;
+import com.akraml.algo.interpreter.token.TokenType;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodTooLargeException;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Translates an interpreted {@link Algorithm} into a JVM class implementing {@link Statement}.
+ * <p>
+ * Every variable becomes a local of the generated {@code execute()} method, arrays are locals holding a primitive
+ * array allocated when the execution starts, strings are {@link CharSequence} locals built through {@link Text}.
+ * Statements are emitted as
+ * bytecode with direct calls to the {@link OutputSink} and {@link InputReader} of the context,
+ * and jumps of the instruction stream become plain gotos, so the JIT can optimize the program like ordinary Java code.
+ * <p>
+ * Each routine becomes a private method of the class taking the context and its parameters, arrays are passed as the
+ * primitive array itself. Its locals live in the JVM frame of the call, so a call allocates nothing.
+ * <p>
+ * A failing instruction throws an {@link InstructionException} carrying its line: each method keeps the index of the
+ * running instruction in a local, and one handler per method looks it up in the instructions given to the constructor.
+ * The generated class is meant to be run through {@link Algorithm#execute(ExecutionContext, Statement)} which reports
+ * failures like the interpreter does.
+ */
+public final class BytecodeCompiler {
+
+    private static final String PACKAGE = BytecodeCompiler.class.getPackageName().replace('.', '/');
+    private static final String STATEMENT = Type.getInternalName(Statement.class);
+    private static final String CONTEXT = Type.getInternalName(ExecutionContext.class);
+    private static final String OUTPUT = Type.getInternalName(OutputSink.class);
+    private static final String INPUT = Type.getInternalName(InputReader.class);
+    private static final String ARITHMETIC = Type.getInternalName(Arithmetic.class);
+    private static final String WRITE = Type.getInternalName(WriteStatement.class);
+    private static final String TEXT = Type.getInternalName(Text.class);
+    private static final String LOCATED = Type.getInternalName(InstructionException.class);
+    private static final String BODIES = "[" + Type.getDescriptor(Instruction[].class);
+    private static final String CHARS = "Ljava/lang/CharSequence;";
+    // Routine methods are named after the routine, the prefix keeps them apart from the execute method.
+    private static final String ROUTINE_PREFIX = "algo$";
+
+    /**
+     * Generates the class file of the given algorithm.
+     *
+     * @throws InterpretationException if the algorithm cannot be compiled, a body too large for a JVM method for
+     *                                 instance. The interpreter can still run it.
+     */
+    public byte[] generate(final Algorithm algorithm) throws InterpretationException {
+        final String className = PACKAGE + "/" + algorithm.getName();
+        final ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(V17, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null,
+                "java/lang/Object", new String[]{STATEMENT});
+
+        writer.visitField(ACC_PRIVATE | ACC_FINAL, "instructions", BODIES, null, null).visitEnd();
+        final MethodVisitor constructor = writer.visitMethod(ACC_PUBLIC, "<init>", "(" + BODIES + ")V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitVarInsn(ALOAD, 1);
+        constructor.visitFieldInsn(PUTFIELD, className, "instructions", BODIES);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        final MethodVisitor method = writer.visitMethod(ACC_PUBLIC, "execute", "(L" + CONTEXT + ";)V", null, null);
+        method.visitCode();
+        final Locals locals = new Locals(className, List.of());
+        emitPrologue(method, algorithm.getVariableTable().getVariables(), locals);
+        emitBody(method, 0, algorithm.getInstructions(), locals);
+        emitAddCounts(method, locals);
+        method.visitInsn(RETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+        for (final Routine routine : algorithm.getRoutines()) {
+            emitRoutine(writer, routine, className);
+        }
+        writer.visitEnd();
+        try {
+            return writer.toByteArray();
+        } catch (final MethodTooLargeException exception) {
+            final String tooLarge = exception.getMethodName();
+            throw new InterpretationException((tooLarge.startsWith(ROUTINE_PREFIX)
+                    ? "Routine '" + tooLarge.substring(ROUTINE_PREFIX.length()) + "'"
+                    : "Algorithm '" + algorithm.getName() + "'") + " is too large to compile", exception);
+        } catch (final RuntimeException exception) {
+            throw new InterpretationException("Failed to generate compiled algorithm: " + exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Emits the method of a routine, it enters the call on the context before running the body and leaves it when
+     * returning.
+     */
+    private void emitRoutine(final ClassWriter writer,
+                             final Routine routine,
+                             final String className) throws InterpretationException {
+        final MethodVisitor method = writer.visitMethod(ACC_PRIVATE, methodName(routine), descriptor(routine), null, null);
+        method.visitCode();
+        final Locals locals = new Locals(className, routine.getParameters());
+        method.visitVarInsn(ALOAD, 1);
+        method.visitMethodInsn(INVOKEVIRTUAL, CONTEXT, "enterCall", "()V", false);
+        emitPrologue(method, routine.getVariableTable().getVariables(), locals);
+        emitBody(method, routine.getIndex() + 1, routine.getInstructions(), locals);
+        if (routine.isFunction()) {
+            method.visitTypeInsn(NEW, "java/lang/IllegalStateException");
+            method.visitInsn(DUP);
+            method.visitLdcInsn("Function '" + routine.getName() + "' ended without returning a value");
+            method.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalStateException", "<init>",
+                    "(Ljava/lang/String;)V", false);
+            emitAddCounts(method, locals);
+            method.visitLdcInsn(routine.getLine());
+            method.visitLdcInsn(routine.getSource());
+            method.visitMethodInsn(INVOKESTATIC, LOCATED, "locate",
+                    "(Ljava/lang/Throwable;ILjava/lang/String;)Ljava/lang/Throwable;", false);
+            method.visitInsn(ATHROW);
+        } else {
+            emitExitCall(method, locals);
+            method.visitInsn(RETURN);
+        }
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+    }
+
+    /**
+     * Loads the output sink and input reader of the context, and sets every variable but the parameters to its
+     * initial value.
+     */
+    private void emitPrologue(final MethodVisitor method,
+                              final Collection<Variable> variables,
+                              final Locals locals) {
+        method.visitVarInsn(ALOAD, 1);
+        method.visitMethodInsn(INVOKEVIRTUAL, CONTEXT, "getOutput", "()L" + OUTPUT + ";", false);
+        method.visitVarInsn(ASTORE, locals.output);
+        method.visitVarInsn(ALOAD, 1);
+        method.visitMethodInsn(INVOKEVIRTUAL, CONTEXT, "getInput", "()L" + INPUT + ";", false);
+        method.visitVarInsn(ASTORE, locals.input);
+        method.visitInsn(LCONST_0);
+        method.visitVarInsn(LSTORE, locals.statements);
+        method.visitInsn(LCONST_0);
+        method.visitVarInsn(LSTORE, locals.evaluations);
+        method.visitInsn(ICONST_0);
+        method.visitVarInsn(ISTORE, locals.pc);
+        for (final Variable variable : variables) {
+            if (!variable.isParameter()) emitInitialValue(method, variable, locals.allocate(variable));
+        }
+    }
+
+    /**
+     * Emits the instruction stream, falling off its end continues after the last label.
+     *
+     * @param body the index of the instruction stream in the table given to the constructor, {@code 0} for the
+     *             algorithm and the routine index plus one for a routine.
+     */
+    private void emitBody(final MethodVisitor method,
+                          final int body,
+                          final List<Instruction> instructions,
+                          final Locals locals) throws InterpretationException {
+        // One label per instruction index, plus one for the end of the program, so jumps map to gotos.
+        final Label[] labels = new Label[instructions.size() + 1];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = new Label();
+        }
+        // A single handler covers the whole stream, the running instruction index tells it which line failed.
+        final Label covered = new Label(), handler = new Label();
+        method.visitTryCatchBlock(labels[0], covered, handler, "java/lang/Throwable");
+        for (int i = 0; i < instructions.size(); i++) {
+            final Instruction instruction = instructions.get(i);
+            method.visitLabel(labels[i]);
+            method.visitLdcInsn(i);
+            method.visitVarInsn(ISTORE, locals.pc);
+            switch (instruction.getOpcode()) {
+                case Instruction.EXECUTE -> {
+                    emitStatement(method, instruction.getStatement(), locals);
+                    emitCount(method, locals.statements);
+                }
+                case Instruction.JUMP -> {
+                    // Loops check for cancellation and limits when jumping back, like the interpreter does.
+                    if (instruction.getTarget() <= i) {
+                        method.visitVarInsn(ALOAD, 1);
+                        method.visitVarInsn(LLOAD, locals.statements);
+                        method.visitMethodInsn(INVOKEVIRTUAL, CONTEXT, "checkLimits", "(J)V", false);
+                    }
+                    method.visitJumpInsn(GOTO, labels[instruction.getTarget()]);
+                }
+                case Instruction.JUMP_IF_FALSE -> {
+                    emitCount(method, locals.evaluations);
+                    emitBranch(method, instruction.getCondition(), false, labels[instruction.getTarget()], locals);
+                }
+                case Instruction.RETURN -> {
+                    emitReturn(method, (ReturnStatement) instruction.getStatement(), locals);
+                }
+                default -> throw new InterpretationException("Cannot compile opcode " + instruction.getOpcode());
+            }
+        }
+        method.visitLabel(covered);
+        method.visitJumpInsn(GOTO, labels[instructions.size()]);
+        // The counts are added first so the metrics of a failed execution include them.
+        method.visitLabel(handler);
+        emitAddCounts(method, locals);
+        method.visitVarInsn(ALOAD, 0);
+        method.visitFieldInsn(GETFIELD, locals.owner, "instructions", BODIES);
+        method.visitLdcInsn(body);
+        method.visitInsn(AALOAD);
+        method.visitVarInsn(ILOAD, locals.pc);
+        method.visitInsn(AALOAD);
+        method.visitMethodInsn(INVOKESTATIC, LOCATED, "locate",
+                "(Ljava/lang/Throwable;L" + Type.getInternalName(Instruction.class) + ";)Ljava/lang/Throwable;", false);
+        method.visitInsn(ATHROW);
+        method.visitLabel(labels[instructions.size()]);
+    }
+
+    /**
+     * Increments one of the long counters of the method, the statements or the evaluations.
+     */
+    private void emitCount(final MethodVisitor method,
+                           final int counter) {
+        method.visitVarInsn(LLOAD, counter);
+        method.visitInsn(LCONST_1);
+        method.visitInsn(LADD);
+        method.visitVarInsn(LSTORE, counter);
+    }
+
+    /**
+     * Leaves the routine, the statement is {@code null} for a procedure.
+     */
+    private void emitReturn(final MethodVisitor method,
+                            final ReturnStatement statement,
+                            final Locals locals) throws InterpretationException {
+        if (statement == null) {
+            emitCount(method, locals.statements);
+            emitExitCall(method, locals);
+            method.visitInsn(RETURN);
+            return;
+        }
+        emitCount(method, locals.evaluations);
+        // The value stays on the stack while the call is left.
+        switch (statement.getType()) {
+            case INTEGER -> emitInteger(method, statement.getExpression(), locals);
+            case DOUBLE -> emitReal(method, statement.getExpression(), locals);
+            case STRING -> emitString(method, statement.getExpression(), locals);
+        }
+        // Counted once the value is computed, a failing return is not, like in the interpreter.
+        emitCount(method, locals.statements);
+        emitExitCall(method, locals);
+        method.visitInsn(switch (statement.getType()) {
+            case INTEGER -> IRETURN;
+            case DOUBLE -> DRETURN;
+            case STRING -> ARETURN;
+        });
+    }
+
+    /**
+     * Adds the statements and evaluations counted by the method to the context and restarts its counts, so the limit
+     * checks of a routine it calls see them.
+     */
+    private void emitAddCounts(final MethodVisitor method,
+                               final Locals locals) {
+        emitAddEvaluations(method, locals);
+        method.visitVarInsn(ALOAD, 1);
+        method.visitVarInsn(LLOAD, locals.statements);
+        method.visitMethodInsn(INVOKEVIRTUAL, CONTEXT, "addStatements", "(J)V", false);
+        method.visitInsn(LCONST_0);
+        method.visitVarInsn(LSTORE, locals.statements);
+    }
+
+    private void emitAddEvaluations(final MethodVisitor method,
+                                    final Locals locals) {
+        method.visitVarInsn(ALOAD, 1);
+        method.visitVarInsn(LLOAD, locals.evaluations);
+        method.visitMethodInsn(INVOKEVIRTUAL, CONTEXT, "addEvaluations", "(J)V", false);
+        method.visitInsn(LCONST_0);
+        method.visitVarInsn(LSTORE, locals.evaluations);
+    }
+
+    private void emitExitCall(final MethodVisitor method,
+                              final Locals locals) {
+        emitAddEvaluations(method, locals);
+        method.visitVarInsn(ALOAD, 1);
+        method.visitVarInsn(LLOAD, locals.statements);
+        method.visitMethodInsn(INVOKEVIRTUAL, CONTEXT, "exitCall", "(J)V", false);
+    }
+
+    /**
+     * Emits a call to the method of the routine, leaving its result on the stack for a function. Arguments are
+     * passed the way {@link Routine#call} binds them.
+     */
+    private void emitCall(final MethodVisitor method,
+                          final Routine routine,
+                          final Expression[] arguments,
+                          final Variable[] arrays,
+                          final Locals locals) throws InterpretationException {
+        emitAddCounts(method, locals);
+        method.visitVarInsn(ALOAD, 0);
+        method.visitVarInsn(ALOAD, 1);
+        final List<Variable> parameters = routine.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            final Variable parameter = parameters.get(i);
+            if (parameter.isArray()) {
+                method.visitVarInsn(ALOAD, locals.get(arrays[i]));
+                continue;
+            }
+            switch (parameter.getDataType()) {
+                case INTEGER -> emitInteger(method, arguments[i], locals);
+                case DOUBLE -> emitReal(method, arguments[i], locals);
+                case STRING -> emitCheckedString(method, arguments[i], locals);
+            }
+        }
+        method.visitMethodInsn(INVOKESPECIAL, locals.owner, methodName(routine), descriptor(routine), false);
+    }
+
+    private static String methodName(final Routine routine) {
+        return ROUTINE_PREFIX + routine.getName();
+    }
+
+    private static String descriptor(final Routine routine) {
+        final StringBuilder descriptor = new StringBuilder("(L").append(CONTEXT).append(';');
+        for (final Variable parameter : routine.getParameters()) {
+            descriptor.append(parameter.isArray() ? arrayDescriptor(parameter) : typeDescriptor(parameter.getDataType()));
+        }
+        return descriptor.append(')')
+                .append(routine.isFunction() ? typeDescriptor(routine.getReturnType()) : "V")
+                .toString();
+    }
+
+    private static String typeDescriptor(final TokenType.DataType dataType) {
+        return switch (dataType) {
+            case INTEGER -> "I";
+            case DOUBLE -> "D";
+            case STRING -> CHARS;
+        };
+    }
+
+    /**
+     * Generates the algorithm class and defines it as a hidden class in this package.
+     *
+     * @return a new instance of the generated class, executing it runs the whole algorithm.
+     */
+    public Statement compile(final Algorithm algorithm) throws InterpretationException {
+        final byte[] bytes = generate(algorithm);
+        try {
+            final Class<?> type = MethodHandles.lookup().defineHiddenClass(bytes, true).lookupClass();
+            final Instruction[][] instructions = new Instruction[algorithm.getRoutines().size() + 1][];
+            instructions[0] = algorithm.getInstructions().toArray(new Instruction[0]);
+            for (final Routine routine : algorithm.getRoutines()) {
+                instructions[routine.getIndex() + 1] = routine.getInstructions().toArray(new Instruction[0]);
+            }
+            return (Statement) type.getConstructor(Instruction[][].class).newInstance((Object) instructions);
+        } catch (final ReflectiveOperationException | LinkageError exception) {
+            throw new InterpretationException("Failed to load compiled algorithm: " + exception.getMessage(), exception);
+        }
+    }
+
+    private void emitStatement(final MethodVisitor method,
+                               final Statement statement,
+                               final Locals locals) throws InterpretationException {
+        if (statement instanceof WriteStatement write) {
+            emitWrite(method, write, locals);
+        } else if (statement instanceof ReadStatement read) {
+            emitRead(method, read, locals);
+        } else if (statement instanceof AssignmentStatement assignment) {
+            emitAssignment(method, assignment, locals);
+        } else if (statement instanceof ElementAssignmentStatement assignment) {
+            emitElementAssignment(method, assignment, locals);
+        } else if (statement instanceof CallStatement call) {
+            emitCall(method, call.getRoutine(), call.getArguments(), call.getArrays(), locals);
+        } else {
+            throw new InterpretationException("Cannot compile statement of type " + statement.getClass().getSimpleName());
+        }
+    }
+
+    private void emitInitialValue(final MethodVisitor method,
+                                  final Variable variable,
+                                  final int local) {
+        if (variable.isArray()) {
+            method.visitLdcInsn(variable.getLength());
+            switch (variable.getDataType()) {
+                case INTEGER -> method.visitIntInsn(NEWARRAY, T_INT);
+                case DOUBLE -> method.visitIntInsn(NEWARRAY, T_DOUBLE);
+                case STRING -> method.visitTypeInsn(ANEWARRAY, "java/lang/Object");
+            }
+            method.visitVarInsn(ASTORE, local);
+            return;
+        }
+        final Object value = variable.getInitialValue();
+        switch (variable.getDataType()) {
+            case INTEGER -> {
+                method.visitLdcInsn(value == null ? 0 : value);
+                method.visitVarInsn(ISTORE, local);
+            }
+            case DOUBLE -> {
+                method.visitLdcInsn(value == null ? 0.0 : value);
+                method.visitVarInsn(DSTORE, local);
+            }
+            case STRING -> {
+                if (value == null) {
+                    method.visitInsn(ACONST_NULL);
+                } else {
+                    method.visitLdcInsn(value);
+                }
+                method.visitVarInsn(ASTORE, local);
+            }
+        }
+    }
+
+    private void emitWrite(final MethodVisitor method,
+                           final WriteStatement write,
+                           final Locals locals) throws InterpretationException {
+        final String[] texts = write.getTexts();
+        final Variable[] sources = write.getSources();
+        final Expression[] indexes = write.getIndexes();
+        for (int i = 0; i < texts.length; i++) {
+            final Variable source = sources[i];
+            method.visitVarInsn(ALOAD, locals.output);
+            final String descriptor;
+            if (source == null) {
+                method.visitLdcInsn(texts[i]);
+                descriptor = "(Ljava/lang/String;)V";
+            } else if (source.isArray() && indexes[i] == null) {
+                method.visitVarInsn(ALOAD, locals.get(source));
+                method.visitMethodInsn(INVOKESTATIC, WRITE, "printElements", "(L" + OUTPUT + ";"
+                        + arrayDescriptor(source) + ")V", false);
+                continue;
+            } else if (source.isArray()) {
+                method.visitVarInsn(ALOAD, locals.get(source));
+                emitInteger(method, indexes[i], locals);
+                descriptor = switch (source.getDataType()) {
+                    case INTEGER -> {
+                        method.visitInsn(IALOAD);
+                        yield "(I)V";
+                    }
+                    case DOUBLE -> {
+                        method.visitInsn(DALOAD);
+                        yield "(D)V";
+                    }
+                    case STRING -> {
+                        method.visitInsn(AALOAD);
+                        method.visitMethodInsn(INVOKESTATIC, "java/lang/String", "valueOf",
+                                "(Ljava/lang/Object;)Ljava/lang/String;", false);
+                        yield "(Ljava/lang/String;)V";
+                    }
+                };
+            } else {
+                final int local = locals.get(source);
+                descriptor = switch (source.getDataType()) {
+                    case INTEGER -> {
+                        method.visitVarInsn(ILOAD, local);
+                        yield "(I)V";
+                    }
+                    case DOUBLE -> {
+                        method.visitVarInsn(DLOAD, local);
+                        yield "(D)V";
+                    }
+                    case STRING -> {
+                        method.visitVarInsn(ALOAD, local);
+                        method.visitMethodInsn(INVOKESTATIC, "java/lang/String", "valueOf",
+                                "(Ljava/lang/Object;)Ljava/lang/String;", false);
+                        yield "(Ljava/lang/String;)V";
+                    }
+                };
+            }
+            method.visitMethodInsn(INVOKEINTERFACE, OUTPUT, "print", descriptor, true);
+        }
+    }
+
+    private void emitRead(final MethodVisitor method,
+                          final ReadStatement read,
+                          final Locals locals) throws InterpretationException {
+        method.visitVarInsn(ALOAD, locals.output);
+        method.visitMethodInsn(INVOKEINTERFACE, OUTPUT, "flush", "()V", true);
+        final Variable[] targets = read.getTargets();
+        final Expression[] indexes = read.getIndexes();
+        for (int i = 0; i < targets.length; i++) {
+            final Variable target = targets[i];
+            if (target.isArray()) {
+                emitReadElements(method, target, indexes[i], locals);
+                continue;
+            }
+            method.visitVarInsn(ALOAD, locals.input);
+            switch (target.getDataType()) {
+                case STRING -> {
+                    method.visitMethodInsn(INVOKEVIRTUAL, INPUT, "readLine", "()Ljava/lang/String;", false);
+                    method.visitVarInsn(ASTORE, locals.get(target));
+                }
+                case INTEGER -> {
+                    method.visitMethodInsn(INVOKEVIRTUAL, INPUT, "readInteger", "()I", false);
+                    method.visitVarInsn(ISTORE, locals.get(target));
+                }
+                case DOUBLE -> {
+                    method.visitMethodInsn(INVOKEVIRTUAL, INPUT, "readReal", "()D", false);
+                    method.visitVarInsn(DSTORE, locals.get(target));
+                }
+            }
+        }
+        method.visitVarInsn(ALOAD, 1);
+        method.visitLdcInsn(read.getValueCount());
+        method.visitMethodInsn(INVOKEVIRTUAL, CONTEXT, "countValuesRead", "(I)V", false);
+    }
+
+    /**
+     * Reads one element of the array, or all of them through the matching {@link InputReader} method.
+     */
+    private void emitReadElements(final MethodVisitor method,
+                                  final Variable array,
+                                  final Expression index,
+                                  final Locals locals) throws InterpretationException {
+        if (index == null) {
+            method.visitVarInsn(ALOAD, locals.input);
+            method.visitVarInsn(ALOAD, locals.get(array));
+            method.visitMethodInsn(INVOKEVIRTUAL, INPUT, switch (array.getDataType()) {
+                case INTEGER -> "readIntegers";
+                case DOUBLE -> "readReals";
+                case STRING -> "readLines";
+            }, "(" + arrayDescriptor(array) + ")V", false);
+            return;
+        }
+        method.visitVarInsn(ALOAD, locals.get(array));
+        emitInteger(method, index, locals);
+        method.visitVarInsn(ALOAD, locals.input);
+        switch (array.getDataType()) {
+            case STRING -> {
+                method.visitMethodInsn(INVOKEVIRTUAL, INPUT, "readLine", "()Ljava/lang/String;", false);
+                method.visitInsn(AASTORE);
+            }
+            case INTEGER -> {
+                method.visitMethodInsn(INVOKEVIRTUAL, INPUT, "readInteger", "()I", false);
+                method.visitInsn(IASTORE);
+            }
+            case DOUBLE -> {
+                method.visitMethodInsn(INVOKEVIRTUAL, INPUT, "readReal", "()D", false);
+                method.visitInsn(DASTORE);
+            }
+        }
+    }
+
+    private void emitElementAssignment(final MethodVisitor method,
+                                       final ElementAssignmentStatement assignment,
+                                       final Locals locals) throws InterpretationException {
+        final Variable target = assignment.getTarget();
+        emitCount(method, locals.evaluations);
+        method.visitVarInsn(ALOAD, locals.get(target));
+        emitInteger(method, assignment.getIndex(), locals);
+        switch (target.getDataType()) {
+            case INTEGER -> {
+                emitInteger(method, assignment.getExpression(), locals);
+                method.visitInsn(IASTORE);
+            }
+            case DOUBLE -> {
+                emitReal(method, assignment.getExpression(), locals);
+                method.visitInsn(DASTORE);
+            }
+            case STRING -> {
+                emitCheckedString(method, assignment.getExpression(), locals);
+                method.visitInsn(AASTORE);
+            }
+        }
+    }
+
+    private static String arrayDescriptor(final Variable array) {
+        return switch (array.getDataType()) {
+            case INTEGER -> "[I";
+            case DOUBLE -> "[D";
+            case STRING -> "[Ljava/lang/Object;";
+        };
+    }
+
+    private void emitAssignment(final MethodVisitor method,
+                                final AssignmentStatement assignment,
+                                final Locals locals) throws InterpretationException {
+        final Variable target = assignment.getTarget();
+        emitCount(method, locals.evaluations);
+        switch (target.getDataType()) {
+            case INTEGER -> {
+                emitInteger(method, assignment.getExpression(), locals);
+                method.visitVarInsn(ISTORE, locals.get(target));
+            }
+            case DOUBLE -> {
+                emitReal(method, assignment.getExpression(), locals);
+                method.visitVarInsn(DSTORE, locals.get(target));
+            }
+            case STRING -> {
+                emitCheckedString(method, assignment.getExpression(), locals);
+                method.visitVarInsn(ASTORE, locals.get(target));
+            }
+        }
+    }
+
+    /**
+     * Emits the string expression followed by the length check of the context, like the assignment statements.
+     */
+    private void emitCheckedString(final MethodVisitor method,
+                                   final Expression expression,
+                                   final Locals locals) throws InterpretationException {
+        method.visitVarInsn(ALOAD, 1);
+        emitString(method, expression, locals);
+        method.visitMethodInsn(INVOKEVIRTUAL, CONTEXT, "checkLength", "(" + CHARS + ")" + CHARS, false);
+    }
+
+    /**
+     * Emits a jump to the target label taken when the condition evaluates to {@code when}, falls through otherwise.
+     * Logical operators short-circuit exactly like {@link LogicalCondition#evaluate}.
+     */
+    private void emitBranch(final MethodVisitor method,
+                            final Condition condition,
+                            final boolean when,
+                            final Label target,
+                            final Locals locals) throws InterpretationException {
+        if (condition instanceof NotCondition not) {
+            emitBranch(method, not.getOperand(), !when, target, locals);
+        } else if (condition instanceof LogicalCondition logical) {
+            if (logical.isAnd() != when) {
+                // And jumping on false, or Or jumping on true: either operand decides alone.
+                emitBranch(method, logical.getLeft(), when, target, locals);
+                emitBranch(method, logical.getRight(), when, target, locals);
+            } else {
+                final Label skip = new Label();
+                emitBranch(method, logical.getLeft(), !when, skip, locals);
+                emitBranch(method, logical.getRight(), when, target, locals);
+                method.visitLabel(skip);
+            }
+        } else if (condition instanceof ComparisonCondition comparison) {
+            final ComparisonOperator operator = when ? comparison.getOperator() : negate(comparison.getOperator());
+            if (comparison.isString()) {
+                emitString(method, comparison.getLeft(), locals);
+                emitString(method, comparison.getRight(), locals);
+                method.visitMethodInsn(INVOKESTATIC, TEXT, "compare", "(" + CHARS + CHARS + ")I", false);
+                method.visitJumpInsn(switch (operator) {
+                    case EQUAL -> IFEQ;
+                    case NOT_EQUAL -> IFNE;
+                    case LESS -> IFLT;
+                    case LESS_EQUAL -> IFLE;
+                    case GREATER -> IFGT;
+                    case GREATER_EQUAL -> IFGE;
+                }, target);
+            } else if (comparison.isInteger()) {
+                emitInteger(method, comparison.getLeft(), locals);
+                emitInteger(method, comparison.getRight(), locals);
+                method.visitJumpInsn(switch (operator) {
+                    case EQUAL -> IF_ICMPEQ;
+                    case NOT_EQUAL -> IF_ICMPNE;
+                    case LESS -> IF_ICMPLT;
+                    case LESS_EQUAL -> IF_ICMPLE;
+                    case GREATER -> IF_ICMPGT;
+                    case GREATER_EQUAL -> IF_ICMPGE;
+                }, target);
+            } else {
+                emitReal(method, comparison.getLeft(), locals);
+                emitReal(method, comparison.getRight(), locals);
+                // Any comparison with NaN is false, except for <>. Pick the compare instruction so that NaN
+                // makes the jump go the same way as the interpreter.
+                final boolean nanJumps = when == (comparison.getOperator() == ComparisonOperator.NOT_EQUAL);
+                final boolean lessLike = operator == ComparisonOperator.LESS || operator == ComparisonOperator.LESS_EQUAL;
+                // DCMPG pushes 1 on NaN, DCMPL pushes -1.
+                method.visitInsn(lessLike == nanJumps ? DCMPL : DCMPG);
+                method.visitJumpInsn(switch (operator) {
+                    case EQUAL -> IFEQ;
+                    case NOT_EQUAL -> IFNE;
+                    case LESS -> IFLT;
+                    case LESS_EQUAL -> IFLE;
+                    case GREATER -> IFGT;
+                    case GREATER_EQUAL -> IFGE;
+                }, target);
+            }
+        } else {
+            throw new InterpretationException("Cannot compile condition of type " + condition.getClass().getSimpleName());
+        }
+    }
+
+    private ComparisonOperator negate(final ComparisonOperator operator) {
+        return switch (operator) {
+            case EQUAL -> ComparisonOperator.NOT_EQUAL;
+            case NOT_EQUAL -> ComparisonOperator.EQUAL;
+            case LESS -> ComparisonOperator.GREATER_EQUAL;
+            case LESS_EQUAL -> ComparisonOperator.GREATER;
+            case GREATER -> ComparisonOperator.LESS_EQUAL;
+            case GREATER_EQUAL -> ComparisonOperator.LESS;
+        };
+    }
+
+    /**
+     * Emits the expression leaving a {@link CharSequence} on the stack, mirrors {@link Expression#evaluateString}.
+     */
+    private void emitString(final MethodVisitor method,
+                            final Expression expression,
+                            final Locals locals) throws InterpretationException {
+        switch (expression.getType()) {
+            case INTEGER -> {
+                emitInteger(method, expression, locals);
+                method.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "toString", "(I)Ljava/lang/String;", false);
+                return;
+            }
+            case DOUBLE -> {
+                emitReal(method, expression, locals);
+                method.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "toString", "(D)Ljava/lang/String;", false);
+                return;
+            }
+        }
+        if (expression instanceof LiteralExpression literal) {
+            method.visitLdcInsn(literal.getStringValue());
+        } else if (expression instanceof VariableExpression variable) {
+            method.visitVarInsn(ALOAD, locals.get(variable.getVariable()));
+            method.visitMethodInsn(INVOKESTATIC, TEXT, "valueOf", "(Ljava/lang/Object;)" + CHARS, false);
+        } else if (expression instanceof ElementExpression element) {
+            method.visitVarInsn(ALOAD, locals.get(element.getArray()));
+            emitInteger(method, element.getIndex(), locals);
+            method.visitInsn(AALOAD);
+            method.visitMethodInsn(INVOKESTATIC, TEXT, "valueOf", "(Ljava/lang/Object;)" + CHARS, false);
+        } else if (expression instanceof ConcatenationExpression concatenation) {
+            emitString(method, concatenation.getLeft(), locals);
+            final Expression right = concatenation.getRight();
+            final String tail = switch (right.getType()) {
+                case INTEGER -> {
+                    emitInteger(method, right, locals);
+                    yield "I";
+                }
+                case DOUBLE -> {
+                    emitReal(method, right, locals);
+                    yield "D";
+                }
+                case STRING -> {
+                    emitString(method, right, locals);
+                    yield CHARS;
+                }
+            };
+            method.visitMethodInsn(INVOKESTATIC, TEXT, "concat", "(" + CHARS + tail + ")" + CHARS, false);
+        } else if (expression instanceof CallExpression call) {
+            emitCall(method, call.getRoutine(), call.getArguments(), call.getArrays(), locals);
+        } else {
+            throw new InterpretationException("Cannot compile expression of type " + expression.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Emits the expression leaving an int on the stack, mirrors {@link Expression#evaluateInteger}.
+     */
+    private void emitInteger(final MethodVisitor method,
+                             final Expression expression,
+                             final Locals locals) throws InterpretationException {
+        if (expression.getType() != TokenType.DataType.INTEGER) {
+            emitReal(method, expression, locals);
+            method.visitInsn(D2I);
+            return;
+        }
+        if (expression instanceof LiteralExpression literal) {
+            method.visitLdcInsn(literal.getIntegerValue());
+        } else if (expression instanceof VariableExpression variable) {
+            method.visitVarInsn(ILOAD, locals.get(variable.getVariable()));
+        } else if (expression instanceof ElementExpression element) {
+            method.visitVarInsn(ALOAD, locals.get(element.getArray()));
+            emitInteger(method, element.getIndex(), locals);
+            method.visitInsn(IALOAD);
+        } else if (expression instanceof UnaryExpression unary) {
+            emitInteger(method, unary.getOperand(), locals);
+            method.visitMethodInsn(INVOKESTATIC, ARITHMETIC, "negate", "(I)I", false);
+        } else if (expression instanceof BinaryExpression binary) {
+            emitInteger(method, binary.getLeft(), locals);
+            emitInteger(method, binary.getRight(), locals);
+            method.visitMethodInsn(INVOKESTATIC, ARITHMETIC, switch (binary.getOperator()) {
+                case ADD -> "add";
+                case SUBTRACT -> "subtract";
+                case MULTIPLY -> "multiply";
+                case DIVIDE, INTEGER_DIVIDE -> "divide";
+                case MODULO -> "modulo";
+            }, "(II)I", false);
+        } else if (expression instanceof CallExpression call) {
+            emitCall(method, call.getRoutine(), call.getArguments(), call.getArrays(), locals);
+        } else {
+            throw new InterpretationException("Cannot compile expression of type " + expression.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Emits the expression leaving a double on the stack, mirrors {@link Expression#evaluateReal}.
+     */
+    private void emitReal(final MethodVisitor method,
+                          final Expression expression,
+                          final Locals locals) throws InterpretationException {
+        if (expression.getType() == TokenType.DataType.INTEGER) {
+            emitInteger(method, expression, locals);
+            method.visitInsn(I2D);
+            return;
+        }
+        if (expression instanceof LiteralExpression literal) {
+            method.visitLdcInsn(literal.getRealValue());
+        } else if (expression instanceof VariableExpression variable) {
+            method.visitVarInsn(DLOAD, locals.get(variable.getVariable()));
+        } else if (expression instanceof ElementExpression element) {
+            method.visitVarInsn(ALOAD, locals.get(element.getArray()));
+            emitInteger(method, element.getIndex(), locals);
+            method.visitInsn(DALOAD);
+        } else if (expression instanceof UnaryExpression unary) {
+            emitReal(method, unary.getOperand(), locals);
+            method.visitInsn(DNEG);
+        } else if (expression instanceof BinaryExpression binary) {
+            emitReal(method, binary.getLeft(), locals);
+            emitReal(method, binary.getRight(), locals);
+            switch (binary.getOperator()) {
+                case ADD -> method.visitInsn(DADD);
+                case SUBTRACT -> method.visitInsn(DSUB);
+                case MULTIPLY -> method.visitInsn(DMUL);
+                case DIVIDE -> method.visitMethodInsn(INVOKESTATIC, ARITHMETIC, "divide", "(DD)D", false);
+                case MODULO -> method.visitMethodInsn(INVOKESTATIC, ARITHMETIC, "modulo", "(DD)D", false);
+                // Always an integer operation, emitted by emitInteger.
+                case INTEGER_DIVIDE -> throw new IllegalStateException();
+            }
+        } else if (expression instanceof CallExpression call) {
+            emitCall(method, call.getRoutine(), call.getArguments(), call.getArrays(), locals);
+        } else {
+            throw new InterpretationException("Cannot compile expression of type " + expression.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Local variable slots of a generated method, slot 0 is {@code this}, slot 1 is the context, followed by the
+     * parameters of a routine, the output sink and input reader of the context.
+     */
+    private static final class Locals {
+
+        private final String owner;
+        private final Map<Variable, Integer> slots = new HashMap<>();
+        // The statement and evaluation counters are longs, they take two slots each.
+        private final int output, input, statements, evaluations, pc;
+        private int next;
+
+        Locals(final String owner,
+               final List<Variable> parameters) {
+            this.owner = owner;
+            int slot = 2;
+            for (final Variable parameter : parameters) {
+                slots.put(parameter, slot);
+                slot += parameter.getDataType() == TokenType.DataType.DOUBLE && !parameter.isArray() ? 2 : 1;
+            }
+            output = slot;
+            input = slot + 1;
+            statements = slot + 2;
+            evaluations = slot + 4;
+            pc = slot + 6;
+            next = slot + 7;
+        }
+
+        int allocate(final Variable variable) {
+            final int slot = next;
+            next += variable.getDataType() == TokenType.DataType.DOUBLE && !variable.isArray() ? 2 : 1;
+            slots.put(variable, slot);
+            return slot;
+        }
+
+        int get(final Variable variable) {
+            return slots.get(variable);
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.akraml.algo.interpreter.expression;
+
+/**
+ * Arithmetic of the language, shared by the expression tree and the bytecode compiler so both fail the same way.
+ * <p>
+ * Integer operations are exact, an overflow throws instead of wrapping around. Dividing by zero throws for
+ * integers and reals alike, a real division never results in an infinity or {@code NaN}.
+ */
+public final class Arithmetic {
+
+    private Arithmetic() {
+    }
+
+    public static int add(final int a,
+                          final int b) {
+        return Math.addExact(a, b);
+    }
+
+    public static int subtract(final int a,
+                               final int b) {
+        return Math.subtractExact(a, b);
+    }
+
+    public static int multiply(final int a,
+                               final int b) {
+        return Math.multiplyExact(a, b);
+    }
+
+    public static int negate(final int a) {
+        return Math.negateExact(a);
+    }
+
+    public static int divide(final int a,
+                             final int b) {
+        if (b == 0) throw divisionByZero();
+        // The only quotient that does not fit in an int.
+        if (a == Integer.MIN_VALUE && b == -1) throw new ArithmeticException("integer overflow");
+        return a / b;
+    }
+
+    public static int modulo(final int a,
+                             final int b) {
+        if (b == 0) throw divisionByZero();
+        return a % b;
+    }
+
+    public static double divide(final double a,
+                                final double b) {
+        if (b == 0) throw divisionByZero();
+        return a / b;
+    }
+
+    public static double modulo(final double a,
+                                final double b) {
+        if (b == 0) throw divisionByZero();
+        return a % b;
+    }
+
+    private static ArithmeticException divisionByZero() {
+        return new ArithmeticException("Division by zero");
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.akraml.algo.interpreter.expression;
+
+import com.akraml.algo.interpreter.runtime.Frame;
+import com.akraml.algo.interpreter.token.TokenType;
+
+/**
+ * A binary arithmetic operation. The result is an integer only if both operands are integers,
+ * division always results in a real number and {@code Div} always in an integer.
+ * The operations themselves are the ones of {@link Arithmetic}.
+ */
+public final class BinaryExpression implements Expression {
+
+    private final Operator operator;
+    private final Expression left, right;
+    private final TokenType.DataType type;
+
+    public BinaryExpression(final Operator operator,
+                            final Expression left,
+                            final Expression right) {
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+        this.type = operator == Operator.INTEGER_DIVIDE
+                || operator != Operator.DIVIDE
+                && left.getType() == TokenType.DataType.INTEGER
+                && right.getType() == TokenType.DataType.INTEGER
+                ? TokenType.DataType.INTEGER
+                : TokenType.DataType.DOUBLE;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public Expression getLeft() {
+        return left;
+    }
+
+    public Expression getRight() {
+        return right;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return left.isConstant() && right.isConstant();
+    }
+
+    @Override
+    public TokenType.DataType getType() {
+        return type;
+    }
+
+    @Override
+    public int evaluateInteger(final Frame frame) {
+        if (type != TokenType.DataType.INTEGER) return (int) evaluateReal(frame);
+        final int a = left.evaluateInteger(frame), b = right.evaluateInteger(frame);
+        return switch (operator) {
+            case ADD -> Arithmetic.add(a, b);
+            case SUBTRACT -> Arithmetic.subtract(a, b);
+            case MULTIPLY -> Arithmetic.multiply(a, b);
+            case MODULO -> Arithmetic.modulo(a, b);
+            case DIVIDE, INTEGER_DIVIDE -> Arithmetic.divide(a, b);
+        };
+    }
+
+    @Override
+    public double evaluateReal(final Frame frame) {
+        if (type == TokenType.DataType.INTEGER) return evaluateInteger(frame);
+        final double a = left.evaluateReal(frame), b = right.evaluateReal(frame);
+        return switch (operator) {
+            case ADD -> a + b;
+            case SUBTRACT -> a - b;
+            case MULTIPLY -> a * b;
+            case DIVIDE -> Arithmetic.divide(a, b);
+            case MODULO -> Arithmetic.modulo(a, b);
+            // Always an integer operation, evaluated above.
+            case INTEGER_DIVIDE -> throw new IllegalStateException();
+        };
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.akraml.algo.interpreter.expression;
+
+import com.akraml.algo.interpreter.runtime.ExecutionContext;
+import com.akraml.algo.interpreter.runtime.Frame;
+import com.akraml.algo.interpreter.runtime.Routine;
+import com.akraml.algo.interpreter.runtime.Variable;
+import com.akraml.algo.interpreter.token.TokenType;
+
+/**
+ * A call to a function, {@code f(x, y)}, its value is the one the function returns. Arguments are laid out like
+ * the ones of {@link com.akraml.algo.interpreter.runtime.CallStatement}.
+ */
+public final class CallExpression implements Expression {
+
+    private final Routine routine;
+    private final Expression[] arguments;
+    private final Variable[] arrays;
+
+    public CallExpression(final Routine routine,
+                          final Expression[] arguments,
+                          final Variable[] arrays) {
+        if (!routine.isFunction()) {
+            throw new IllegalArgumentException("Procedure '" + routine.getName() + "' does not return a value");
+        }
+        this.routine = routine;
+        this.arguments = arguments;
+        this.arrays = arrays;
+    }
+
+    public Routine getRoutine() {
+        return routine;
+    }
+
+    public Expression[] getArguments() {
+        return arguments.clone();
+    }
+
+    public Variable[] getArrays() {
+        return arrays.clone();
+    }
+
+    @Override
+    public TokenType.DataType getType() {
+        return routine.getReturnType();
+    }
+
+    @Override
+    public int evaluateInteger(final Frame frame) {
+        final ExecutionContext context = call(frame);
+        return routine.getReturnType() == TokenType.DataType.INTEGER
+                ? context.getIntegerResult()
+                : (int) context.getRealResult();
+    }
+
+    @Override
+    public double evaluateReal(final Frame frame) {
+        final ExecutionContext context = call(frame);
+        return routine.getReturnType() == TokenType.DataType.INTEGER
+                ? context.getIntegerResult()
+                : context.getRealResult();
+    }
+
+    @Override
+    public CharSequence evaluateString(final Frame frame) {
+        if (routine.getReturnType() != TokenType.DataType.STRING) return Expression.super.evaluateString(frame);
+        return call(frame).getStringResult();
+    }
+
+    private ExecutionContext call(final Frame frame) {
+        routine.call(frame, arguments, arrays);
+        return frame.getContext();
+    }
+
+}
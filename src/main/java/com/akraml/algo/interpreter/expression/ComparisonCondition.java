@@ -0,0 +1,85 @@
+package com.akraml.algo.interpreter.expression;
+
+import com.akraml.algo.interpreter.runtime.Frame;
+import com.akraml.algo.interpreter.runtime.Text;
+import com.akraml.algo.interpreter.token.TokenType;
+
+/**
+ * Compares two numeric expressions, as integers when both of them are integers and as reals otherwise.
+ * Two strings are compared lexicographically, a string is never compared with a number.
+ */
+public final class ComparisonCondition implements Condition {
+
+    private final ComparisonOperator operator;
+    private final Expression left, right;
+    private final boolean integer, string;
+
+    public ComparisonCondition(final ComparisonOperator operator,
+                               final Expression left,
+                               final Expression right) {
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+        this.integer = left.getType() == TokenType.DataType.INTEGER && right.getType() == TokenType.DataType.INTEGER;
+        this.string = left.getType() == TokenType.DataType.STRING;
+        if (string != (right.getType() == TokenType.DataType.STRING)) {
+            throw new IllegalArgumentException("A String can only be compared with a String");
+        }
+    }
+
+    public ComparisonOperator getOperator() {
+        return operator;
+    }
+
+    public Expression getLeft() {
+        return left;
+    }
+
+    public Expression getRight() {
+        return right;
+    }
+
+    public boolean isInteger() {
+        return integer;
+    }
+
+    public boolean isString() {
+        return string;
+    }
+
+    @Override
+    public boolean evaluate(final Frame frame) {
+        if (string) {
+            final int order = Text.compare(left.evaluateString(frame), right.evaluateString(frame));
+            return switch (operator) {
+                case EQUAL -> order == 0;
+                case NOT_EQUAL -> order != 0;
+                case LESS -> order < 0;
+                case LESS_EQUAL -> order <= 0;
+                case GREATER -> order > 0;
+                case GREATER_EQUAL -> order >= 0;
+            };
+        }
+        if (integer) {
+            final int a = left.evaluateInteger(frame), b = right.evaluateInteger(frame);
+            return switch (operator) {
+                case EQUAL -> a == b;
+                case NOT_EQUAL -> a != b;
+                case LESS -> a < b;
+                case LESS_EQUAL -> a <= b;
+                case GREATER -> a > b;
+                case GREATER_EQUAL -> a >= b;
+            };
+        }
+        final double a = left.evaluateReal(frame), b = right.evaluateReal(frame);
+        return switch (operator) {
+            case EQUAL -> a == b;
+            case NOT_EQUAL -> a != b;
+            case LESS -> a < b;
+            case LESS_EQUAL -> a <= b;
+            case GREATER -> a > b;
+            case GREATER_EQUAL -> a >= b;
+        };
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.akraml.algo.interpreter.expression;
+
+public enum ComparisonOperator {
+
+    // Two characters symbols come first so they are matched before their one character prefix.
+    LESS_EQUAL("<="),
+    GREATER_EQUAL(">="),
+    NOT_EQUAL("<>"),
+    EQUAL("="),
+    LESS("<"),
+    GREATER(">");
+
+    private final String symbol;
+
+    ComparisonOperator(final String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.akraml.algo.interpreter.expression;
+
+import com.akraml.algo.interpreter.runtime.Frame;
+import com.akraml.algo.interpreter.runtime.Text;
+import com.akraml.algo.interpreter.token.TokenType;
+
+/**
+ * Joins two values into a string with {@code +}, at least one of them is a string and numbers are formatted the same
+ * way {@code Write} prints them. The result is a {@link Text}, so appending to a string in a loop does not copy it.
+ */
+public final class ConcatenationExpression implements Expression {
+
+    private final Expression left, right;
+
+    public ConcatenationExpression(final Expression left,
+                                   final Expression right) {
+        if (left.getType() != TokenType.DataType.STRING && right.getType() != TokenType.DataType.STRING) {
+            throw new IllegalArgumentException("A concatenation needs a String operand");
+        }
+        this.left = left;
+        this.right = right;
+    }
+
+    public Expression getLeft() {
+        return left;
+    }
+
+    public Expression getRight() {
+        return right;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return left.isConstant() && right.isConstant();
+    }
+
+    @Override
+    public TokenType.DataType getType() {
+        return TokenType.DataType.STRING;
+    }
+
+    @Override
+    public int evaluateInteger(final Frame frame) {
+        throw new IllegalStateException("A String is not a number");
+    }
+
+    @Override
+    public double evaluateReal(final Frame frame) {
+        throw new IllegalStateException("A String is not a number");
+    }
+
+    @Override
+    public CharSequence evaluateString(final Frame frame) {
+        final CharSequence head = left.evaluateString(frame);
+        return switch (right.getType()) {
+            case INTEGER -> Text.concat(head, right.evaluateInteger(frame));
+            case DOUBLE -> Text.concat(head, right.evaluateReal(frame));
+            case STRING -> Text.concat(head, right.evaluateString(frame));
+        };
+    }
+
+}
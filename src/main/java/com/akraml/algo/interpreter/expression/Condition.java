@@ -0,0 +1,12 @@
+package com.akraml.algo.interpreter.expression;
+
+import com.akraml.algo.interpreter.runtime.Frame;
+
+/**
+ * A compiled boolean condition, used by {@code If}, {@code While} and {@code For} constructs.
+ */
+public interface Condition {
+
+    boolean evaluate(final Frame frame);
+
+}
@@ -0,0 +1,63 @@
+package com.akraml.algo.interpreter.expression;
+
+import com.akraml.algo.interpreter.runtime.Frame;
+import com.akraml.algo.interpreter.runtime.Text;
+import com.akraml.algo.interpreter.runtime.Variable;
+import com.akraml.algo.interpreter.token.TokenType;
+
+/**
+ * An element of an array, {@code t[i]}. Indexes start at {@code 0}, an index out of the bounds of the array
+ * throws an {@link IndexOutOfBoundsException}.
+ */
+public final class ElementExpression implements Expression {
+
+    private final Variable array;
+    private final Expression index;
+    private final int slot;
+
+    public ElementExpression(final Variable array,
+                             final Expression index) {
+        if (!array.isArray()) throw new IllegalArgumentException("'" + array.getName() + "' is not an array");
+        if (index.getType() != TokenType.DataType.INTEGER) {
+            throw new IllegalArgumentException("Array '" + array.getName() + "' should have an integer index");
+        }
+        this.array = array;
+        this.index = index;
+        this.slot = array.getSlot();
+    }
+
+    public Variable getArray() {
+        return array;
+    }
+
+    public Expression getIndex() {
+        return index;
+    }
+
+    @Override
+    public TokenType.DataType getType() {
+        return array.getDataType();
+    }
+
+    @Override
+    public int evaluateInteger(final Frame frame) {
+        return array.getDataType() == TokenType.DataType.INTEGER
+                ? frame.getIntegerArray(slot)[index.evaluateInteger(frame)]
+                : (int) frame.getRealArray(slot)[index.evaluateInteger(frame)];
+    }
+
+    @Override
+    public double evaluateReal(final Frame frame) {
+        return array.getDataType() == TokenType.DataType.INTEGER
+                ? frame.getIntegerArray(slot)[index.evaluateInteger(frame)]
+                : frame.getRealArray(slot)[index.evaluateInteger(frame)];
+    }
+
+    @Override
+    public CharSequence evaluateString(final Frame frame) {
+        return array.getDataType() == TokenType.DataType.STRING
+                ? Text.valueOf(frame.getReferenceArray(slot)[index.evaluateInteger(frame)])
+                : Expression.super.evaluateString(frame);
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.akraml.algo.interpreter.expression;
+
+import com.akraml.algo.interpreter.runtime.Frame;
+import com.akraml.algo.interpreter.token.TokenType;
+
+/**
+ * A compiled expression, its result type is known at interpretation time.
+ * Numeric expressions are evaluated with {@link #evaluateInteger} or {@link #evaluateReal}, string expressions with
+ * {@link #evaluateString} only.
+ */
+public interface Expression {
+
+    TokenType.DataType getType();
+
+    int evaluateInteger(final Frame frame);
+
+    double evaluateReal(final Frame frame);
+
+    /**
+     * @return the value as a string, numbers are formatted the same way {@code Write} prints them.
+     */
+    default CharSequence evaluateString(final Frame frame) {
+        return getType() == TokenType.DataType.INTEGER
+                ? Integer.toString(evaluateInteger(frame))
+                : Double.toString(evaluateReal(frame));
+    }
+
+    /**
+     * @return whether the expression does not depend on any variable, so it can be evaluated without a frame.
+     */
+    default boolean isConstant() {
+        return false;
+    }
+
+}
@@ -0,0 +1,470 @@
+package com.akraml.algo.interpreter.expression;
+
+import com.akraml.algo.interpreter.InterpretationException;
+import com.akraml.algo.interpreter.runtime.Routine;
+import com.akraml.algo.interpreter.runtime.Variable;
+import com.akraml.algo.interpreter.runtime.VariableTable;
+import com.akraml.algo.interpreter.token.NumberParser;
+import com.akraml.algo.interpreter.token.TokenType;
+import com.akraml.algo.interpreter.token.TokenizeException;
+import com.akraml.algo.interpreter.token.Tokenizer;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recursive descent parser that compiles the right-hand side of an assignment into an {@link Expression} tree,
+ * and the condition of a control flow construct into a {@link Condition} tree.
+ * <p>
+ * Grammar, from lowest to highest precedence:
+ * <pre>
+ * condition  := conjunct ('Or' conjunct)*
+ * conjunct   := negation ('And' negation)*
+ * negation   := 'Not' negation | '(' condition ')' | comparison
+ * comparison := expression ('=' | '&lt;&gt;' | '&lt;' | '&lt;=' | '&gt;' | '&gt;=') expression
+ * expression := term (('+' | '-') term)*
+ * term       := unary (('*' | '/' | '%' | 'Div') unary)*
+ * unary      := '-' unary | '+' unary | primary
+ * primary    := number | string | identifier | identifier '[' expression ']' | call | '(' expression ')'
+ * call       := identifier '(' (argument (',' argument)*)? ')'
+ * </pre>
+ * Expressions are typed while they are parsed, {@code Div} only accepts integers and array indexes are integers.
+ * A {@code +} with a string operand is a concatenation, no other operator accepts strings, and strings are only
+ * compared with strings. A call is to a function, an argument has the type of its parameter like an assignment and
+ * an array parameter takes an array of the same type and length, by its name.
+ */
+public final class ExpressionParser {
+
+    private static final Tokenizer TOKENIZER = new Tokenizer();
+
+    private final VariableTable variables;
+    private final Map<String, Object> constants;
+    private final Map<String, Routine> routines;
+    private String input;
+    private int position;
+
+    public ExpressionParser(final VariableTable variables,
+                            final Map<String, Object> constants) {
+        this(variables, constants, Map.of());
+    }
+
+    public ExpressionParser(final VariableTable variables,
+                            final Map<String, Object> constants,
+                            final Map<String, Routine> routines) {
+        this.variables = variables;
+        this.constants = constants;
+        this.routines = routines;
+    }
+
+    public Expression parse(final String input) throws InterpretationException {
+        this.input = input;
+        this.position = 0;
+        final Expression expression = parseExpression();
+        skipWhitespaces();
+        if (position < input.length()) {
+            throw new InterpretationException("Unexpected character '" + input.charAt(position) + "' at position " + position);
+        }
+        return expression;
+    }
+
+    /**
+     * Parses an expression whose value is stored into a variable of the given type. A real cannot be stored into an
+     * integer, it has to be converted explicitly with {@code Div}, and strings and numbers do not mix.
+     */
+    public Expression parse(final String input,
+                            final TokenType.DataType type) throws InterpretationException {
+        final Expression expression = parse(input);
+        if (!isAssignable(expression, type)) {
+            throw new InterpretationException("Type mismatch, cannot store " + describe(expression.getType())
+                    + " into " + describe(type));
+        }
+        return expression;
+    }
+
+    /**
+     * Parses the comma separated arguments of a call to the routine, without their parentheses.
+     *
+     * @param arrays receives the array given to each array parameter, whose argument is {@code null}.
+     */
+    public Expression[] parseArguments(final Routine routine,
+                                       final String input,
+                                       final Variable[] arrays) throws InterpretationException {
+        this.input = input;
+        this.position = 0;
+        final Expression[] arguments = parseArgumentList(routine, arrays, true);
+        skipWhitespaces();
+        if (position < input.length()) {
+            throw new InterpretationException("Unexpected character '" + input.charAt(position) + "' at position " + position);
+        }
+        return arguments;
+    }
+
+    /**
+     * Parses an expression that should be a number, either an integer or a real.
+     */
+    public Expression parseNumber(final String input) throws InterpretationException {
+        final Expression expression = parse(input);
+        if (expression.getType() == TokenType.DataType.STRING) {
+            throw new InterpretationException("Type mismatch, expected a number but found a String");
+        }
+        return expression;
+    }
+
+    /**
+     * Parses the index of an array element, it should be an integer.
+     */
+    public Expression parseIndex(final String input) throws InterpretationException {
+        return checkIndex(parse(input));
+    }
+
+    public Condition parseCondition(final String input) throws InterpretationException {
+        this.input = input;
+        this.position = 0;
+        final Condition condition = parseDisjunction();
+        skipWhitespaces();
+        if (position < input.length()) {
+            throw new InterpretationException("Unexpected character '" + input.charAt(position) + "' at position " + position);
+        }
+        return condition;
+    }
+
+    private Condition parseDisjunction() throws InterpretationException {
+        Condition condition = parseConjunction();
+        while (matchKeyword("Or")) {
+            condition = new LogicalCondition(false, condition, parseConjunction());
+        }
+        return condition;
+    }
+
+    private Condition parseConjunction() throws InterpretationException {
+        Condition condition = parseNegation();
+        while (matchKeyword("And")) {
+            condition = new LogicalCondition(true, condition, parseNegation());
+        }
+        return condition;
+    }
+
+    private Condition parseNegation() throws InterpretationException {
+        if (matchKeyword("Not")) return new NotCondition(parseNegation());
+        skipWhitespaces();
+        if (position < input.length() && input.charAt(position) == '(') {
+            // Parentheses may group a condition or be the start of an arithmetic expression like (x + 1) > y,
+            // try the condition first and fall back to a comparison.
+            final int start = position;
+            try {
+                position++;
+                final Condition condition = parseDisjunction();
+                skipWhitespaces();
+                if (position < input.length() && input.charAt(position) == ')') {
+                    position++;
+                    return condition;
+                }
+            } catch (final InterpretationException ignored) {
+            }
+            position = start;
+        }
+        return parseComparison();
+    }
+
+    private Condition parseComparison() throws InterpretationException {
+        final Expression left = parseExpression();
+        skipWhitespaces();
+        for (final ComparisonOperator operator : ComparisonOperator.values()) {
+            if (input.startsWith(operator.getSymbol(), position)) {
+                position += operator.getSymbol().length();
+                final Expression right = parseExpression();
+                if ((left.getType() == TokenType.DataType.STRING) != (right.getType() == TokenType.DataType.STRING)) {
+                    throw new InterpretationException("Type mismatch, cannot compare a String with a number");
+                }
+                return new ComparisonCondition(operator, left, right);
+            }
+        }
+        throw new InterpretationException(position < input.length()
+                ? "Expected a comparison but found '" + input.charAt(position) + "' at position " + position
+                : "Expected a comparison");
+    }
+
+    /**
+     * Consumes the given keyword if it is the next word of the input.
+     */
+    private boolean matchKeyword(final String keyword) {
+        skipWhitespaces();
+        final int end = position + keyword.length();
+        if (!input.startsWith(keyword, position)) return false;
+        if (end < input.length() && (Character.isLetterOrDigit(input.charAt(end)) || input.charAt(end) == '_')) {
+            return false;
+        }
+        position = end;
+        return true;
+    }
+
+    private Expression parseExpression() throws InterpretationException {
+        Expression expression = parseTerm();
+        while (true) {
+            skipWhitespaces();
+            if (position >= input.length()) return expression;
+            final Operator operator = Operator.fromSymbol(input.charAt(position));
+            if (operator == null || operator.getPrecedence() != 1) return expression;
+            position++;
+            final Expression right = parseTerm();
+            if (operator == Operator.ADD
+                    && (expression.getType() == TokenType.DataType.STRING || right.getType() == TokenType.DataType.STRING)) {
+                expression = new ConcatenationExpression(expression, right);
+                continue;
+            }
+            expression = new BinaryExpression(operator, checkNumber(expression, operator), checkNumber(right, operator));
+        }
+    }
+
+    private Expression parseTerm() throws InterpretationException {
+        Expression expression = parseUnary();
+        while (true) {
+            skipWhitespaces();
+            if (position >= input.length()) return expression;
+            if (matchKeyword(Operator.INTEGER_DIVIDE.getSymbol())) {
+                final Expression right = parseUnary();
+                if (expression.getType() != TokenType.DataType.INTEGER || right.getType() != TokenType.DataType.INTEGER) {
+                    throw new InterpretationException("Type mismatch, Div expects Integer operands");
+                }
+                expression = new BinaryExpression(Operator.INTEGER_DIVIDE, expression, right);
+                continue;
+            }
+            final Operator operator = Operator.fromSymbol(input.charAt(position));
+            if (operator == null || operator.getPrecedence() != 2) return expression;
+            position++;
+            final Expression right = parseUnary();
+            expression = new BinaryExpression(operator, checkNumber(expression, operator), checkNumber(right, operator));
+        }
+    }
+
+    private Expression parseUnary() throws InterpretationException {
+        skipWhitespaces();
+        if (position < input.length()) {
+            final char c = input.charAt(position);
+            if (c == '-') {
+                position++;
+                return new UnaryExpression(checkNumber(parseUnary(), Operator.SUBTRACT));
+            }
+            if (c == '+') {
+                position++;
+                return checkNumber(parseUnary(), Operator.ADD);
+            }
+        }
+        return parsePrimary();
+    }
+
+    private Expression parsePrimary() throws InterpretationException {
+        skipWhitespaces();
+        if (position >= input.length()) {
+            throw new InterpretationException("Unexpected end of expression");
+        }
+        final char c = input.charAt(position);
+        if (c == '(') {
+            position++;
+            final Expression expression = parseExpression();
+            skipWhitespaces();
+            if (position >= input.length() || input.charAt(position) != ')') {
+                throw new InterpretationException("Missing closing parenthesis ')'");
+            }
+            position++;
+            return expression;
+        }
+        if (c == '"') return parseString();
+        if (Character.isDigit(c) || c == '.') return parseNumber();
+        if (Character.isLetter(c) || c == '_') return parseIdentifier();
+        throw new InterpretationException("Unexpected character '" + c + "' at position " + position);
+    }
+
+    private Expression parseNumber() throws InterpretationException {
+        final int start = position;
+        boolean real = false;
+        while (position < input.length()) {
+            final char c = input.charAt(position);
+            if (c == '.' && !real) {
+                real = true;
+            } else if (!Character.isDigit(c)) {
+                break;
+            }
+            position++;
+        }
+        if (real) {
+            final double value = NumberParser.parseReal(input, start, position);
+            if (Double.isNaN(value)) {
+                throw new InterpretationException("Illegal real number '" + input.substring(start, position) + "'");
+            }
+            return LiteralExpression.ofReal(value);
+        }
+        final long value = NumberParser.parseInteger(input, start, position);
+        if (value == NumberParser.INVALID_INTEGER) {
+            throw new InterpretationException("Illegal integer '" + input.substring(start, position) + "'");
+        }
+        return LiteralExpression.ofInteger((int) value);
+    }
+
+    /**
+     * Parses a string literal, escapes are the ones of {@code Write} texts.
+     */
+    private Expression parseString() throws InterpretationException {
+        final int start = position;
+        int end = start + 1;
+        while (end < input.length() && input.charAt(end) != '"') {
+            end += input.charAt(end) == '\\' ? 2 : 1;
+        }
+        if (end >= input.length()) throw new InterpretationException("Missing closing quote '\"'");
+        position = end + 1;
+        try {
+            return LiteralExpression.ofString((String) TOKENIZER.tokenize(TokenType.DataType.STRING,
+                    input.substring(start, position)));
+        } catch (final TokenizeException exception) {
+            throw new InterpretationException(exception.getMessage(), exception);
+        }
+    }
+
+    private Expression parseIdentifier() throws InterpretationException {
+        final int start = position;
+        while (position < input.length()
+                && (Character.isLetterOrDigit(input.charAt(position)) || input.charAt(position) == '_')) {
+            position++;
+        }
+        final String name = input.substring(start, position);
+        final Routine routine = routines.get(name);
+        if (routine != null) return parseCall(routine);
+        if (constants.containsKey(name)) {
+            final Object value = constants.get(name);
+            if (value instanceof Integer integer) return LiteralExpression.ofInteger(integer);
+            if (value instanceof Double real) return LiteralExpression.ofReal(real);
+            if (value instanceof String string) return LiteralExpression.ofString(string);
+            throw new InterpretationException("Constant '" + name + "' has no value");
+        }
+        final Variable variable = variables.get(name);
+        if (variable == null) {
+            throw new InterpretationException("Undefined variable '" + name + "'");
+        }
+        if (!variable.isArray()) return new VariableExpression(variable);
+        skipWhitespaces();
+        if (position >= input.length() || input.charAt(position) != '[') {
+            throw new InterpretationException("Array '" + name + "' should be indexed");
+        }
+        position++;
+        final Expression index = checkIndex(parseExpression());
+        skipWhitespaces();
+        if (position >= input.length() || input.charAt(position) != ']') {
+            throw new InterpretationException("Missing closing bracket ']'");
+        }
+        position++;
+        return new ElementExpression(variable, index);
+    }
+
+    private Expression parseCall(final Routine routine) throws InterpretationException {
+        if (!routine.isFunction()) {
+            throw new InterpretationException("Procedure '" + routine.getName() + "' does not return a value");
+        }
+        skipWhitespaces();
+        if (position >= input.length() || input.charAt(position) != '(') {
+            throw new InterpretationException("Function '" + routine.getName() + "' should be called with parentheses");
+        }
+        position++;
+        final Variable[] arrays = new Variable[routine.getParameters().size()];
+        final Expression[] arguments = parseArgumentList(routine, arrays, false);
+        skipWhitespaces();
+        if (position >= input.length() || input.charAt(position) != ')') {
+            throw new InterpretationException("Missing closing parenthesis ')'");
+        }
+        position++;
+        return new CallExpression(routine, arguments, arrays);
+    }
+
+    /**
+     * Parses the arguments of a call up to the closing parenthesis, or the end of the input if there is none.
+     */
+    private Expression[] parseArgumentList(final Routine routine,
+                                           final Variable[] arrays,
+                                           final boolean toEnd) throws InterpretationException {
+        final List<Variable> parameters = routine.getParameters();
+        final Expression[] arguments = new Expression[parameters.size()];
+        skipWhitespaces();
+        final boolean empty = toEnd ? position >= input.length() : position < input.length() && input.charAt(position) == ')';
+        int count = 0;
+        while (!empty) {
+            if (count < parameters.size()) {
+                final Variable parameter = parameters.get(count);
+                if (parameter.isArray()) {
+                    arrays[count] = parseArrayArgument(routine, parameter, count);
+                } else {
+                    final Expression argument = parseExpression();
+                    if (!isAssignable(argument, parameter.getDataType())) {
+                        throw new InterpretationException("Type mismatch, argument " + (count + 1) + " of '"
+                                + routine.getName() + "' should be " + describe(parameter.getDataType())
+                                + " but found " + describe(argument.getType()));
+                    }
+                    arguments[count] = argument;
+                }
+            } else {
+                parseExpression();
+            }
+            count++;
+            skipWhitespaces();
+            if (position >= input.length() || input.charAt(position) != ',') break;
+            position++;
+        }
+        if (count != parameters.size()) {
+            throw new InterpretationException("'" + routine.getName() + "' expects " + parameters.size()
+                    + " argument" + (parameters.size() == 1 ? "" : "s") + " but found " + count);
+        }
+        return arguments;
+    }
+
+    private Variable parseArrayArgument(final Routine routine,
+                                        final Variable parameter,
+                                        final int index) throws InterpretationException {
+        skipWhitespaces();
+        final int start = position;
+        while (position < input.length()
+                && (Character.isLetterOrDigit(input.charAt(position)) || input.charAt(position) == '_')) {
+            position++;
+        }
+        final Variable array = variables.get(input.substring(start, position));
+        if (array == null || !array.isArray() || array.getDataType() != parameter.getDataType()
+                || array.getLength() != parameter.getLength()) {
+            throw new InterpretationException("Type mismatch, argument " + (index + 1) + " of '" + routine.getName()
+                    + "' should be an Array[" + parameter.getLength() + "] of " + parameter.getDataType().getName());
+        }
+        return array;
+    }
+
+    private static boolean isAssignable(final Expression expression,
+                                        final TokenType.DataType type) {
+        final TokenType.DataType actual = expression.getType();
+        return switch (type) {
+            case INTEGER -> actual == TokenType.DataType.INTEGER;
+            case DOUBLE -> actual != TokenType.DataType.STRING;
+            case STRING -> actual == TokenType.DataType.STRING;
+        };
+    }
+
+    private static Expression checkNumber(final Expression operand,
+                                         final Operator operator) throws InterpretationException {
+        if (operand.getType() == TokenType.DataType.STRING) {
+            throw new InterpretationException("Type mismatch, '" + operator.getSymbol() + "' expects numeric operands");
+        }
+        return operand;
+    }
+
+    private static String describe(final TokenType.DataType type) {
+        return (type == TokenType.DataType.INTEGER ? "an " : "a ") + type.getName();
+    }
+
+    private Expression checkIndex(final Expression index) throws InterpretationException {
+        if (index.getType() != TokenType.DataType.INTEGER) {
+            throw new InterpretationException("Type mismatch, an array index should be an Integer");
+        }
+        return index;
+    }
+
+    private void skipWhitespaces() {
+        while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+    }
+
+}
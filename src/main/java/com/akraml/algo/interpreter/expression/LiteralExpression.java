@@ -0,0 +1,75 @@
+package com.akraml.algo.interpreter.expression;
+
+import com.akraml.algo.interpreter.runtime.Frame;
+import com.akraml.algo.interpreter.token.TokenType;
+
+public final class LiteralExpression implements Expression {
+
+    private final TokenType.DataType type;
+    private final int integerValue;
+    private final double realValue;
+    private final String stringValue;
+
+    private LiteralExpression(final TokenType.DataType type,
+                              final int integerValue,
+                              final double realValue,
+                              final String stringValue) {
+        this.type = type;
+        this.integerValue = integerValue;
+        this.realValue = realValue;
+        this.stringValue = stringValue;
+    }
+
+    public static LiteralExpression ofInteger(final int value) {
+        return new LiteralExpression(TokenType.DataType.INTEGER, value, value, null);
+    }
+
+    public static LiteralExpression ofReal(final double value) {
+        return new LiteralExpression(TokenType.DataType.DOUBLE, (int) value, value, null);
+    }
+
+    public static LiteralExpression ofString(final String value) {
+        return new LiteralExpression(TokenType.DataType.STRING, 0, 0, value);
+    }
+
+    public int getIntegerValue() {
+        return integerValue;
+    }
+
+    public double getRealValue() {
+        return realValue;
+    }
+
+    /**
+     * @return the value of a string literal, {@code null} for numbers.
+     */
+    public String getStringValue() {
+        return stringValue;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return true;
+    }
+
+    @Override
+    public TokenType.DataType getType() {
+        return type;
+    }
+
+    @Override
+    public int evaluateInteger(final Frame frame) {
+        return integerValue;
+    }
+
+    @Override
+    public double evaluateReal(final Frame frame) {
+        return realValue;
+    }
+
+    @Override
+    public CharSequence evaluateString(final Frame frame) {
+        return type == TokenType.DataType.STRING ? stringValue : Expression.super.evaluateString(frame);
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.akraml.algo.interpreter.expression;
+
+import com.akraml.algo.interpreter.runtime.Frame;
+
+/**
+ * {@code And} / {@code Or} of two conditions, the right one is only evaluated when needed.
+ */
+public final class LogicalCondition implements Condition {
+
+    private final boolean and;
+    private final Condition left, right;
+
+    public LogicalCondition(final boolean and,
+                            final Condition left,
+                            final Condition right) {
+        this.and = and;
+        this.left = left;
+        this.right = right;
+    }
+
+    public boolean isAnd() {
+        return and;
+    }
+
+    public Condition getLeft() {
+        return left;
+    }
+
+    public Condition getRight() {
+        return right;
+    }
+
+    @Override
+    public boolean evaluate(final Frame frame) {
+        return and
+                ? left.evaluate(frame) && right.evaluate(frame)
+                : left.evaluate(frame) || right.evaluate(frame);
+    }
+
+}
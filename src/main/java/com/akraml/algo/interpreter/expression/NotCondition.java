@@ -0,0 +1,22 @@
+package com.akraml.algo.interpreter.expression;
+
+import com.akraml.algo.interpreter.runtime.Frame;
+
+public final class NotCondition implements Condition {
+
+    private final Condition operand;
+
+    public NotCondition(final Condition operand) {
+        this.operand = operand;
+    }
+
+    public Condition getOperand() {
+        return operand;
+    }
+
+    @Override
+    public boolean evaluate(final Frame frame) {
+        return !operand.evaluate(frame);
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.akraml.algo.interpreter.expression;
+
+public enum Operator {
+
+    ADD("+", 1),
+    SUBTRACT("-", 1),
+    MULTIPLY("*", 2),
+    DIVIDE("/", 2),
+    MODULO("%", 2),
+    /**
+     * Integer division truncated toward zero, written as a keyword since {@code /} always results in a real number.
+     */
+    INTEGER_DIVIDE("Div", 2);
+
+    private final String symbol;
+    private final int precedence;
+
+    Operator(final String symbol,
+             final int precedence) {
+        this.symbol = symbol;
+        this.precedence = precedence;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public int getPrecedence() {
+        return precedence;
+    }
+
+    public static Operator fromSymbol(final char symbol) {
+        for (final Operator operator : values()) {
+            if (operator.symbol.length() == 1 && operator.symbol.charAt(0) == symbol) return operator;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.akraml.algo.interpreter.expression;
+
+import com.akraml.algo.interpreter.runtime.Frame;
+import com.akraml.algo.interpreter.token.TokenType;
+
+/**
+ * Unary minus, the only unary operator supported for now.
+ */
+public final class UnaryExpression implements Expression {
+
+    private final Expression operand;
+
+    public UnaryExpression(final Expression operand) {
+        this.operand = operand;
+    }
+
+    public Expression getOperand() {
+        return operand;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return operand.isConstant();
+    }
+
+    @Override
+    public TokenType.DataType getType() {
+        return operand.getType();
+    }
+
+    @Override
+    public int evaluateInteger(final Frame frame) {
+        if (getType() != TokenType.DataType.INTEGER) return (int) evaluateReal(frame);
+        return Arithmetic.negate(operand.evaluateInteger(frame));
+    }
+
+    @Override
+    public double evaluateReal(final Frame frame) {
+        return -operand.evaluateReal(frame);
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.akraml.algo.interpreter.expression;
+
+import com.akraml.algo.interpreter.runtime.Frame;
+import com.akraml.algo.interpreter.runtime.Text;
+import com.akraml.algo.interpreter.runtime.Variable;
+import com.akraml.algo.interpreter.token.TokenType;
+
+public final class VariableExpression implements Expression {
+
+    private final Variable variable;
+    private final int slot;
+
+    public VariableExpression(final Variable variable) {
+        if (variable.isArray()) throw new IllegalArgumentException("Array '" + variable.getName() + "' should be indexed");
+        this.variable = variable;
+        this.slot = variable.getSlot();
+    }
+
+    public Variable getVariable() {
+        return variable;
+    }
+
+    @Override
+    public TokenType.DataType getType() {
+        return variable.getDataType();
+    }
+
+    @Override
+    public int evaluateInteger(final Frame frame) {
+        return variable.getDataType() == TokenType.DataType.INTEGER
+                ? frame.getInteger(slot)
+                : (int) frame.getReal(slot);
+    }
+
+    @Override
+    public double evaluateReal(final Frame frame) {
+        return variable.getDataType() == TokenType.DataType.INTEGER
+                ? frame.getInteger(slot)
+                : frame.getReal(slot);
+    }
+
+    @Override
+    public CharSequence evaluateString(final Frame frame) {
+        return variable.getDataType() == TokenType.DataType.STRING
+                ? Text.valueOf(frame.getReference(slot))
+                : Expression.super.evaluateString(frame);
+    }
+
+}
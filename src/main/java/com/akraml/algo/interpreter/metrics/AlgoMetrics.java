@@ -0,0 +1,135 @@
+package com.akraml.algo.interpreter.metrics;
+
+import com.akraml.algo.interpreter.InterpretationException;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process wide counters of the interpreter, exposed through JMX so they can be read from any JMX client.
+ * <p>
+ * Every counter is a {@link LongAdder} so concurrent executions do not contend on them. Executions count their
+ * statements locally and publish them once they are over, the dispatch loop never touches a shared counter.
+ */
+public final class AlgoMetrics implements AlgoMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.akraml.algo:type=Metrics";
+
+    private static final AlgoMetrics INSTANCE = new AlgoMetrics();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (final JMException | SecurityException ignored) {
+            // Not being visible through JMX should never prevent running algorithms.
+        }
+    }
+
+    private final LongAdder programsParsed = new LongAdder();
+    private final Histogram parseTime = new Histogram();
+    private final LongAdder executions = new LongAdder();
+    private final Histogram executionTime = new Histogram();
+    private final LongAdder statementsExecuted = new LongAdder();
+    private final LongAdder expressionEvaluations = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder valuesRead = new LongAdder();
+    private final Map<InterpretationException.Kind, LongAdder> failures =
+            new EnumMap<>(InterpretationException.Kind.class);
+    private final LongAdder cancellations = new LongAdder();
+
+    private AlgoMetrics() {
+        for (final InterpretationException.Kind kind : InterpretationException.Kind.values()) {
+            failures.put(kind, new LongAdder());
+        }
+    }
+
+    public static AlgoMetrics get() {
+        return INSTANCE;
+    }
+
+    public void recordParse(final long nanos) {
+        programsParsed.increment();
+        parseTime.record(nanos);
+    }
+
+    public void recordExecution(final long nanos,
+                                final long statements,
+                                final long evaluations,
+                                final long values,
+                                final long bytes) {
+        executions.increment();
+        executionTime.record(nanos);
+        statementsExecuted.add(statements);
+        expressionEvaluations.add(evaluations);
+        valuesRead.add(values);
+        bytesWritten.add(bytes);
+    }
+
+    public void recordFailure(final InterpretationException.Kind kind) {
+        failures.get(kind).increment();
+    }
+
+    public void recordCancellation() {
+        cancellations.increment();
+    }
+
+    @Override
+    public long getProgramsParsed() {
+        return programsParsed.sum();
+    }
+
+    @Override
+    public Histogram.Snapshot getParseTime() {
+        return parseTime.snapshot();
+    }
+
+    @Override
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    @Override
+    public Histogram.Snapshot getExecutionTime() {
+        return executionTime.snapshot();
+    }
+
+    @Override
+    public long getStatementsExecuted() {
+        return statementsExecuted.sum();
+    }
+
+    @Override
+    public long getExpressionEvaluations() {
+        return expressionEvaluations.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getValuesRead() {
+        return valuesRead.sum();
+    }
+
+    @Override
+    public Map<String, Long> getFailures() {
+        final Map<String, Long> counts = new LinkedHashMap<>();
+        for (final Map.Entry<InterpretationException.Kind, LongAdder> entry : failures.entrySet()) {
+            counts.put(entry.getKey().name(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public long getCancellations() {
+        return cancellations.sum();
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.akraml.algo.interpreter.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link AlgoMetrics}, registered as {@value AlgoMetrics#OBJECT_NAME}.
+ */
+public interface AlgoMetricsMXBean {
+
+    long getProgramsParsed();
+
+    Histogram.Snapshot getParseTime();
+
+    long getExecutions();
+
+    Histogram.Snapshot getExecutionTime();
+
+    long getStatementsExecuted();
+
+    long getExpressionEvaluations();
+
+    long getBytesWritten();
+
+    long getValuesRead();
+
+    /**
+     * @return the number of failures of each {@link com.akraml.algo.interpreter.InterpretationException.Kind kind}.
+     */
+    Map<String, Long> getFailures();
+
+    long getCancellations();
+
+}
@@ -0,0 +1,107 @@
+package com.akraml.algo.interpreter.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds, with one bucket per power of two.
+ * Recording only increments striped counters, so concurrent executions never wait on each other.
+ */
+public final class Histogram {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public Histogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(final long nanos) {
+        final long value = Math.max(nanos, 0);
+        // Bucket i holds the values in [2^i, 2^(i+1)), zero goes with one.
+        buckets[BUCKETS - 1 - Long.numberOfLeadingZeros(value | 1)].increment();
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    public Snapshot snapshot() {
+        final long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return new Snapshot(counts, count.sum(), total.sum(), max.get());
+    }
+
+    /**
+     * Values of the histogram at some point in time, percentiles are the upper bound of their bucket.
+     */
+    public static final class Snapshot {
+
+        private final long[] buckets;
+        private final long count, totalNanos, maxNanos;
+
+        private Snapshot(final long[] buckets,
+                         final long count,
+                         final long totalNanos,
+                         final long maxNanos) {
+            this.buckets = buckets;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        public long getMedianNanos() {
+            return percentile(0.5);
+        }
+
+        public long getP99Nanos() {
+            return percentile(0.99);
+        }
+
+        /**
+         * @return the number of values in each bucket, bucket {@code i} holds the values in {@code [2^i, 2^(i+1))}.
+         */
+        public long[] getBuckets() {
+            return buckets.clone();
+        }
+
+        private long percentile(final double percentile) {
+            // The bucket sums are read one by one, they may add up to slightly less than the count.
+            long total = 0;
+            for (final long bucket : buckets) total += bucket;
+            if (total == 0) return 0;
+            final long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) return Math.min(i == 62 ? Long.MAX_VALUE : (2L << i) - 1, maxNanos);
+            }
+            return maxNanos;
+        }
+
+    }
+
+}
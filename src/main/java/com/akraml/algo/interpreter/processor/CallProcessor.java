@@ -0,0 +1,57 @@
+package com.akraml.algo.interpreter.processor;
+
+import com.akraml.algo.interpreter.AlgoInterpreter;
+import com.akraml.algo.interpreter.InterpretationException;
+import com.akraml.algo.interpreter.expression.Expression;
+import com.akraml.algo.interpreter.expression.ExpressionParser;
+import com.akraml.algo.interpreter.runtime.CallStatement;
+import com.akraml.algo.interpreter.runtime.Routine;
+import com.akraml.algo.interpreter.runtime.Statement;
+import com.akraml.algo.interpreter.runtime.Variable;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Call processor resolves a procedure call, {@code name(arguments);}, its arguments are compiled once.
+ */
+public final class CallProcessor implements Processor {
+
+    private static final Pattern PATTERN = Pattern.compile("^(\\w+)\\s*\\((.*)\\)\\s*;$");
+
+    private final AlgoInterpreter interpreter;
+
+    public CallProcessor(final AlgoInterpreter interpreter) {
+        this.interpreter = interpreter;
+    }
+
+    /**
+     * @return the name of the routine the command starts with, or {@code null} if it does not look like a call.
+     */
+    public static String routineName(final String command) {
+        final Matcher matcher = PATTERN.matcher(command.trim());
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    @Override
+    public Statement process(String s) throws InterpretationException {
+        final Matcher matcher = PATTERN.matcher(s.trim());
+        if (!matcher.matches()) throw new InterpretationException("Invalid call\n" + s);
+        final Routine routine = interpreter.getRoutines().get(matcher.group(1));
+        if (routine == null) throw new InterpretationException("Undefined routine '" + matcher.group(1) + "'\n" + s);
+        if (routine.isFunction()) {
+            throw new InterpretationException("Function '" + routine.getName()
+                    + "' returns a value, it should be called in an expression\n" + s);
+        }
+        final Variable[] arrays = new Variable[routine.getParameters().size()];
+        final Expression[] arguments;
+        try {
+            arguments = new ExpressionParser(interpreter.getVariableTable(), interpreter.getConstants(),
+                    interpreter.getRoutines()).parseArguments(routine, matcher.group(2), arrays);
+        } catch (final InterpretationException exception) {
+            throw new InterpretationException(exception.getMessage() + "\n" + s, exception);
+        }
+        return new CallStatement(routine, arguments, arrays);
+    }
+
+}
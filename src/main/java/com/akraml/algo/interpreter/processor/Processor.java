@@ -1,9 +1,10 @@
 package com.akraml.algo.interpreter.processor;
 
 import com.akraml.algo.interpreter.InterpretationException;
+import com.akraml.algo.interpreter.runtime.Statement;
 
 public interface Processor {
 
-    Runnable process(final String s) throws InterpretationException;
+    Statement process(final String s) throws InterpretationException;
 
 }
@@ -2,10 +2,11 @@ package com.akraml.algo.interpreter.processor;
 
 import com.akraml.algo.interpreter.AlgoInterpreter;
 import com.akraml.algo.interpreter.InterpretationException;
-import com.akraml.algo.interpreter.token.TokenType;
-import com.akraml.algo.interpreter.token.Undefined;
+import com.akraml.algo.interpreter.expression.Expression;
+import com.akraml.algo.interpreter.runtime.ReadStatement;
+import com.akraml.algo.interpreter.runtime.Statement;
+import com.akraml.algo.interpreter.runtime.Variable;
 
-import java.util.Scanner;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -20,49 +21,26 @@ public final class ReadProcessor implements Processor {
     }
 
     @Override
-    public Runnable process(String s) throws InterpretationException {
-        return () -> {
-            final Matcher matcher = PATTERN.matcher(s);
-            final Scanner scanner = new Scanner(System.in);
-            if (!matcher.find()) throw new RuntimeException(new InterpretationException("Failed to interpret write segment"));
-            final String variablesInside = matcher.group(1);
-            final String[] names = variablesInside.split(",\\s*");
-            for (final String name : names) {
-                final String variableName = name.trim();
-                if (interpreter.getConstants().containsKey(variableName)) {
-                    throw new RuntimeException(new InterpretationException("Cannot read a constant value '" + variableName + "'"));
-                }
-                if (!interpreter.getVariables().containsKey(variableName)) {
-                    throw new RuntimeException(new InterpretationException("Invalid variable '" + variableName + "'"));
-                }
-                final Object obj = interpreter.getVariables().get(variableName);
-                if (obj instanceof Undefined undefined) {
-                    if (undefined.getDataType() == TokenType.DataType.STRING) {
-                        final String scanned = scanner.nextLine();
-                        interpreter.getVariables().replace(variableName, scanned);
-                    } else if (undefined.getDataType() == TokenType.DataType.INTEGER) {
-                        final int scanned = scanner.nextInt();
-                        interpreter.getVariables().replace(variableName, scanned);
-                    } else if (undefined.getDataType() == TokenType.DataType.DOUBLE) {
-                        final double scanned = scanner.nextDouble();
-                        interpreter.getVariables().replace(variableName, scanned);
-                    }
-                } else {
-                    final TokenType.DataType dataType = TokenType.DataType.getByClass(obj.getClass());
-                    if (dataType != null) {
-                        if (dataType == TokenType.DataType.STRING) {
-                            final String scanned = scanner.nextLine();
-                            interpreter.getVariables().replace(variableName, scanned);
-                        } else if (dataType == TokenType.DataType.INTEGER) {
-                            final int scanned = scanner.nextInt();
-                            interpreter.getVariables().replace(variableName, scanned);
-                        } else if (dataType == TokenType.DataType.DOUBLE) {
-                            final double scanned = scanner.nextDouble();
-                            interpreter.getVariables().replace(variableName, scanned);
-                        }
-                    }
-                }
+    public Statement process(String s) throws InterpretationException {
+        final Matcher matcher = PATTERN.matcher(s);
+        if (!matcher.find()) throw new InterpretationException("Failed to interpret read segment");
+        final String variablesInside = matcher.group(1);
+        final String[] names = variablesInside.split(",\\s*");
+        final Variable[] targets = new Variable[names.length];
+        final Expression[] indexes = new Expression[names.length];
+        for (int i = 0; i < names.length; i++) {
+            final String variableName = names[i].trim();
+            if (interpreter.getConstants().containsKey(variableName)) {
+                throw new InterpretationException("Cannot read a constant value '" + variableName + "'");
             }
-        };
+            final Target target = Target.parse(interpreter, variableName);
+            if (target == null) {
+                throw new InterpretationException("Invalid variable '" + variableName + "'");
+            }
+            targets[i] = target.getVariable();
+            indexes[i] = target.getIndex();
+        }
+        return new ReadStatement(targets, indexes);
     }
+
 }
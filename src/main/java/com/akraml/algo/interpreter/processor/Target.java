@@ -0,0 +1,57 @@
+package com.akraml.algo.interpreter.processor;
+
+import com.akraml.algo.interpreter.AlgoInterpreter;
+import com.akraml.algo.interpreter.InterpretationException;
+import com.akraml.algo.interpreter.expression.Expression;
+import com.akraml.algo.interpreter.expression.ExpressionParser;
+import com.akraml.algo.interpreter.runtime.Variable;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A variable written by a statement or given to {@code Write}, either {@code name} or {@code name[index]}.
+ */
+final class Target {
+
+    private static final Pattern PATTERN = Pattern.compile("^(\\w+)\\s*(?:\\[(.*)])?$");
+
+    private final Variable variable;
+    private final Expression index;
+
+    private Target(final Variable variable,
+                   final Expression index) {
+        this.variable = variable;
+        this.index = index;
+    }
+
+    /**
+     * @return the target, or {@code null} if the text does not name a declared variable.
+     */
+    static Target parse(final AlgoInterpreter interpreter,
+                        final String text) throws InterpretationException {
+        final Matcher matcher = PATTERN.matcher(text.trim());
+        if (!matcher.matches()) return null;
+        final Variable variable = interpreter.getVariableTable().get(matcher.group(1));
+        if (variable == null) return null;
+        if (matcher.group(2) == null) return new Target(variable, null);
+        if (!variable.isArray()) {
+            throw new InterpretationException("Variable '" + variable.getName() + "' is not an array");
+        }
+        final ExpressionParser parser = new ExpressionParser(interpreter.getVariableTable(), interpreter.getConstants(),
+                interpreter.getRoutines());
+        return new Target(variable, parser.parseIndex(matcher.group(2)));
+    }
+
+    Variable getVariable() {
+        return variable;
+    }
+
+    /**
+     * @return the index of the element, or {@code null} for a variable or a whole array.
+     */
+    Expression getIndex() {
+        return index;
+    }
+
+}
@@ -2,10 +2,13 @@ package com.akraml.algo.interpreter.processor;
 
 import com.akraml.algo.interpreter.AlgoInterpreter;
 import com.akraml.algo.interpreter.InterpretationException;
+import com.akraml.algo.interpreter.expression.Expression;
+import com.akraml.algo.interpreter.runtime.Statement;
+import com.akraml.algo.interpreter.runtime.Variable;
+import com.akraml.algo.interpreter.runtime.WriteStatement;
 import com.akraml.algo.interpreter.token.TokenType;
 import com.akraml.algo.interpreter.token.TokenizeException;
 
-import java.util.Arrays;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -20,38 +23,42 @@ public final class WriteProcessor implements Processor {
     }
 
     @Override
-    public Runnable process(String s) throws InterpretationException {
-        return () -> {
-            final Matcher matcher = PATTERN.matcher(s);
-            if (!matcher.find()) throw new RuntimeException(new InterpretationException("Failed to interpret write segment"));
-            final String contentInside = matcher.group(1);
-            final String[] components = splitOutsideQuotes(contentInside);
-            final StringBuilder builder = new StringBuilder();
-            for (String component : components) {
-                if (component.startsWith(" ")) component = component.replaceFirst("\\s", "");
-                if (component.trim().startsWith("\"") || component.trim().endsWith("\"")) {
-                    if (!TokenType.DataType.STRING.isValid(component)) {
-                        throw new RuntimeException(new InterpretationException("Invalid string: " + component));
-                    }
-                    try {
-                        final String tokenizedComponent = (String) interpreter.getTokenizer().tokenize(TokenType.DataType.STRING, component);
-                        builder.append(tokenizedComponent);
-                    } catch (TokenizeException e) {
-                        throw new RuntimeException(e);
-                    }
+    public Statement process(String s) throws InterpretationException {
+        final Matcher matcher = PATTERN.matcher(s);
+        if (!matcher.find()) throw new InterpretationException("Failed to interpret write segment");
+        final String contentInside = matcher.group(1);
+        final String[] components = splitOutsideQuotes(contentInside);
+        // Resolve every component once, execution only has to append them.
+        // A component is either a text (literal or constant), a variable slot or an array with an optional index.
+        final String[] texts = new String[components.length];
+        final Variable[] sources = new Variable[components.length];
+        final Expression[] indexes = new Expression[components.length];
+        for (int i = 0; i < components.length; i++) {
+            String component = components[i];
+            if (component.startsWith(" ")) component = component.replaceFirst("\\s", "");
+            if (component.trim().startsWith("\"") || component.trim().endsWith("\"")) {
+                if (!TokenType.DataType.STRING.isValid(component)) {
+                    throw new InterpretationException("Invalid string: " + component);
+                }
+                try {
+                    texts[i] = (String) interpreter.getTokenizer().tokenize(TokenType.DataType.STRING, component);
+                } catch (final TokenizeException exception) {
+                    throw new InterpretationException(exception.getMessage(), exception);
+                }
+            } else {
+                final String variable = component.trim();
+                final Target target = Target.parse(interpreter, variable);
+                if (target != null) {
+                    sources[i] = target.getVariable();
+                    indexes[i] = target.getIndex();
+                } else if (interpreter.getConstants().containsKey(variable)) {
+                    texts[i] = String.valueOf(interpreter.getConstants().get(variable));
                 } else {
-                    final String variable = component.trim();
-                    if (interpreter.getVariables().containsKey(variable)) {
-                        builder.append(interpreter.getVariables().get(variable));
-                    } else if (interpreter.getConstants().containsKey(variable)) {
-                        builder.append(interpreter.getConstants().get(variable));
-                    } else {
-                        throw new RuntimeException(new InterpretationException("Invalid variable: " + component));
-                    }
+                    throw new InterpretationException("Invalid variable: " + component);
                 }
             }
-            System.out.print(builder);
-        };
+        }
+        return new WriteStatement(texts, sources, indexes);
     }
 
     private String[] splitOutsideQuotes(final String input) {
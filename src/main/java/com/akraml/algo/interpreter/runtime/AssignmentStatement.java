@@ -0,0 +1,45 @@
+package com.akraml.algo.interpreter.runtime;
+
+import com.akraml.algo.interpreter.expression.Expression;
+import com.akraml.algo.interpreter.token.TokenType;
+
+/**
+ * Stores the result of a compiled expression into a variable slot, strings are checked against the length limit of
+ * the execution.
+ */
+public final class AssignmentStatement implements Statement {
+
+    private final Variable target;
+    private final Expression expression;
+    private final TokenType.DataType type;
+    private final int slot;
+
+    public AssignmentStatement(final Variable target,
+                               final Expression expression) {
+        if (target.isArray()) throw new IllegalArgumentException("Array '" + target.getName() + "' should be indexed");
+        this.target = target;
+        this.expression = expression;
+        this.type = target.getDataType();
+        this.slot = target.getSlot();
+    }
+
+    public Variable getTarget() {
+        return target;
+    }
+
+    public Expression getExpression() {
+        return expression;
+    }
+
+    @Override
+    public void execute(final ExecutionContext context) {
+        final Frame frame = context.getFrame();
+        context.countEvaluation();
+        switch (type) {
+            case INTEGER -> frame.setInteger(slot, expression.evaluateInteger(frame));
+            case DOUBLE -> frame.setReal(slot, expression.evaluateReal(frame));
+            case STRING -> frame.setReference(slot, context.checkLength(expression.evaluateString(frame)));
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.akraml.algo.interpreter.runtime;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * Collects output in memory and writes it to the underlying stream in batches.
+ * The buffer is flushed once it reaches its capacity, before reading input and at the end of the execution.
+ */
+public final class BufferedOutputSink implements OutputSink {
+
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private final CountingOutputStream out;
+    private final Writer writer;
+    private final int capacity;
+    private final StringBuilder buffer;
+
+    public BufferedOutputSink(final OutputStream out) {
+        this(out, DEFAULT_CAPACITY);
+    }
+
+    public BufferedOutputSink(final OutputStream out,
+                              final int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity should be positive");
+        this.out = new CountingOutputStream(out);
+        this.writer = new OutputStreamWriter(this.out, Charset.defaultCharset());
+        this.capacity = capacity;
+        this.buffer = new StringBuilder(capacity);
+    }
+
+    @Override
+    public void print(final String text) {
+        buffer.append(text);
+        if (buffer.length() >= capacity) flush();
+    }
+
+    @Override
+    public void print(final int value) {
+        buffer.append(value);
+        if (buffer.length() >= capacity) flush();
+    }
+
+    @Override
+    public void print(final double value) {
+        buffer.append(value);
+        if (buffer.length() >= capacity) flush();
+    }
+
+    @Override
+    public void flush() {
+        try {
+            if (buffer.length() > 0) {
+                writer.append(buffer);
+                buffer.setLength(0);
+            }
+            writer.flush();
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return out.count;
+    }
+
+    /**
+     * Counts the encoded bytes on their way to the stream.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] b,
+                          final int off,
+                          final int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+    }
+
+}
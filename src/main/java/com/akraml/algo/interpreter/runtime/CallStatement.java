@@ -0,0 +1,43 @@
+package com.akraml.algo.interpreter.runtime;
+
+import com.akraml.algo.interpreter.expression.Expression;
+
+/**
+ * Calls a procedure. For index {@code i}, {@code arrays[i]} is the array given to an array parameter and
+ * {@code arguments[i]} is {@code null}, other parameters take the value of {@code arguments[i]}.
+ */
+public final class CallStatement implements Statement {
+
+    private final Routine routine;
+    private final Expression[] arguments;
+    private final Variable[] arrays;
+
+    public CallStatement(final Routine routine,
+                         final Expression[] arguments,
+                         final Variable[] arrays) {
+        if (routine.isFunction()) {
+            throw new IllegalArgumentException("Function '" + routine.getName() + "' should be called in an expression");
+        }
+        this.routine = routine;
+        this.arguments = arguments;
+        this.arrays = arrays;
+    }
+
+    public Routine getRoutine() {
+        return routine;
+    }
+
+    public Expression[] getArguments() {
+        return arguments.clone();
+    }
+
+    public Variable[] getArrays() {
+        return arrays.clone();
+    }
+
+    @Override
+    public void execute(final ExecutionContext context) {
+        routine.call(context.getFrame(), arguments, arrays);
+    }
+
+}
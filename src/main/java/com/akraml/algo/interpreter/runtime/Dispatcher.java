@@ -0,0 +1,66 @@
+package com.akraml.algo.interpreter.runtime;
+
+/**
+ * The dispatch loop running an instruction stream, for the body of an algorithm and for the body of its routines.
+ * <p>
+ * Executions without a {@link InstructionListener} only pay for a null check per instruction.
+ */
+public final class Dispatcher {
+
+    private Dispatcher() {
+    }
+
+    /**
+     * Runs the instructions on the frame, until the end of the stream or a return.
+     *
+     * @param routine the routine owning the instructions, or {@code null} for the body of the algorithm.
+     * @throws InstructionException if an instruction failed, or a function ended without returning a value.
+     */
+    public static void run(final Routine routine,
+                           final Instruction[] program,
+                           final ExecutionContext context,
+                           final Frame frame) {
+        final InstructionListener listener = context.getListener();
+        int pc = 0;
+        boolean returned = false;
+        try {
+            while (pc < program.length) {
+                final Instruction instruction = program[pc];
+                final int index = pc;
+                if (listener != null) listener.before(routine, index);
+                switch (instruction.getOpcode()) {
+                    case Instruction.EXECUTE -> {
+                        instruction.getStatement().execute(context);
+                        context.countStatement();
+                        pc++;
+                    }
+                    case Instruction.JUMP -> {
+                        // Only loops jump back, checking there is enough to stop a running execution.
+                        if (instruction.getTarget() <= pc) context.checkLimits(0);
+                        pc = instruction.getTarget();
+                    }
+                    case Instruction.JUMP_IF_FALSE -> {
+                        context.countEvaluation();
+                        pc = instruction.getCondition().evaluate(frame) ? pc + 1 : instruction.getTarget();
+                    }
+                    case Instruction.RETURN -> {
+                        if (instruction.getStatement() != null) instruction.getStatement().execute(context);
+                        context.countStatement();
+                        returned = true;
+                        pc = program.length;
+                    }
+                    default -> throw new IllegalStateException("Unknown opcode " + instruction.getOpcode());
+                }
+                if (listener != null) listener.after(routine, index);
+            }
+        } catch (final RuntimeException | StackOverflowError failure) {
+            // Located the way compiled code does it, always a runtime exception for these failures.
+            throw (RuntimeException) InstructionException.locate(failure, program[pc]);
+        }
+        if (!returned && routine != null && routine.isFunction()) {
+            throw new InstructionException(routine.getLine(), routine.getSource(),
+                    new IllegalStateException("Function '" + routine.getName() + "' ended without returning a value"));
+        }
+    }
+
+}
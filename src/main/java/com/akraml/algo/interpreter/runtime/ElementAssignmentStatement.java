@@ -0,0 +1,52 @@
+package com.akraml.algo.interpreter.runtime;
+
+import com.akraml.algo.interpreter.expression.Expression;
+import com.akraml.algo.interpreter.token.TokenType;
+
+/**
+ * Stores the result of a compiled expression into an element of an array, {@code t[i] = expression}.
+ * The index is evaluated before the value.
+ */
+public final class ElementAssignmentStatement implements Statement {
+
+    private final Variable target;
+    private final Expression index, expression;
+    private final TokenType.DataType type;
+    private final int slot;
+
+    public ElementAssignmentStatement(final Variable target,
+                                      final Expression index,
+                                      final Expression expression) {
+        if (!target.isArray()) throw new IllegalArgumentException("'" + target.getName() + "' is not an array");
+        this.target = target;
+        this.index = index;
+        this.expression = expression;
+        this.type = target.getDataType();
+        this.slot = target.getSlot();
+    }
+
+    public Variable getTarget() {
+        return target;
+    }
+
+    public Expression getIndex() {
+        return index;
+    }
+
+    public Expression getExpression() {
+        return expression;
+    }
+
+    @Override
+    public void execute(final ExecutionContext context) {
+        final Frame frame = context.getFrame();
+        context.countEvaluation();
+        final int i = index.evaluateInteger(frame);
+        switch (type) {
+            case INTEGER -> frame.getIntegerArray(slot)[i] = expression.evaluateInteger(frame);
+            case DOUBLE -> frame.getRealArray(slot)[i] = expression.evaluateReal(frame);
+            case STRING -> frame.getReferenceArray(slot)[i] = context.checkLength(expression.evaluateString(frame));
+        }
+    }
+
+}
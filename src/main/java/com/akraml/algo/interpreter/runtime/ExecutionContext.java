@@ -0,0 +1,307 @@
+package com.akraml.algo.interpreter.runtime;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * State of a single execution: the variable values, where the output goes and where the input comes from.
+ * <p>
+ * An execution can be cancelled from another thread, loops check for it every time they jump back and routines
+ * every time they are called. They check the {@link ExecutionLimits} of the execution at the same time.
+ * <p>
+ * Routine calls run on frames kept by the context, one per routine and per recursion level. A frame is allocated by
+ * the first call reaching its level and reset by the next ones, so calls do not allocate once the deepest level was
+ * reached. The result of a function is left in the context for the caller to read.
+ */
+public final class ExecutionContext {
+
+    // Reading the clock costs more than a loop iteration, the deadline is only checked every so many jumps.
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private Frame frame;
+    private final OutputSink output;
+    private final InputReader input;
+    private final ExecutionLimits limits;
+    private final long maxStatements, deadline;
+    private final int maxStringLength, maxCallDepth;
+    private final boolean hasDeadline;
+    private int deadlineCountdown = DEADLINE_CHECK_INTERVAL;
+    private volatile boolean cancelled;
+    // Counters of this execution only, they are published to the metrics once it is over.
+    private long evaluations, valuesRead;
+    // Statements run so far, compiled code adds its own count before calls and when returning.
+    private long statements;
+    private int callDepth;
+    // Frames of the routine calls by routine index then by recursion level, and the level each routine is at.
+    private Frame[][] callFrames = new Frame[0][];
+    private int[] callLevels = new int[0];
+    private int integerResult;
+    private double realResult;
+    private CharSequence stringResult;
+    private InstructionListener listener;
+
+    public ExecutionContext(final Frame frame,
+                            final OutputSink output,
+                            final InputReader input) {
+        this(frame, output, input, ExecutionLimits.NONE);
+    }
+
+    /**
+     * Creates a context enforcing the given limits, the output is wrapped when its size is limited and
+     * the line length of the input is limited to the maximum string length.
+     */
+    public ExecutionContext(final Frame frame,
+                            final OutputSink output,
+                            final InputReader input,
+                            final ExecutionLimits limits) {
+        this.frame = frame;
+        frame.attach(this);
+        this.output = limits.getMaxOutputBytes() == Long.MAX_VALUE
+                ? output
+                : new LimitedOutputSink(output, limits.getMaxOutputBytes());
+        this.input = input;
+        if (limits.getMaxStringLength() != Integer.MAX_VALUE) input.limitLineLength(limits.getMaxStringLength());
+        this.limits = limits;
+        this.maxStatements = limits.getMaxStatements();
+        this.maxStringLength = limits.getMaxStringLength();
+        this.maxCallDepth = limits.getMaxCallDepth();
+        this.hasDeadline = limits.getTimeout() != null;
+        this.deadline = hasDeadline ? System.nanoTime() + limits.getTimeout().toNanos() : 0;
+    }
+
+    /**
+     * @return the frame of the running routine call, or of the algorithm itself outside of calls.
+     */
+    public Frame getFrame() {
+        return frame;
+    }
+
+    public OutputSink getOutput() {
+        return output;
+    }
+
+    public InputReader getInput() {
+        return input;
+    }
+
+    public ExecutionLimits getLimits() {
+        return limits;
+    }
+
+    public void countEvaluation() {
+        evaluations++;
+    }
+
+    /**
+     * Adds evaluations counted by compiled code, which counts them on its own until it calls a routine or returns.
+     */
+    public void addEvaluations(final long count) {
+        evaluations += count;
+    }
+
+    public void countValuesRead(final int count) {
+        valuesRead += count;
+    }
+
+    /**
+     * @return how many expressions and conditions were evaluated so far.
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public long getValuesRead() {
+        return valuesRead;
+    }
+
+    /**
+     * @return the listener notified of the instructions the execution runs, or {@code null}.
+     */
+    public InstructionListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Sets the listener notified of every instruction the execution runs, a profiler for instance.
+     * It should be set before the execution starts.
+     */
+    public void setListener(final InstructionListener listener) {
+        this.listener = listener;
+    }
+
+    void countStatement() {
+        statements++;
+    }
+
+    /**
+     * Adds statements run by compiled code, which counts them on its own until it calls a routine or returns.
+     */
+    public void addStatements(final long count) {
+        statements += count;
+    }
+
+    /**
+     * @return how many statements the execution ran so far, the ones of routine calls included.
+     */
+    public long getStatements() {
+        return statements;
+    }
+
+    public int getIntegerResult() {
+        return integerResult;
+    }
+
+    public double getRealResult() {
+        return realResult;
+    }
+
+    public CharSequence getStringResult() {
+        return stringResult;
+    }
+
+    void setResult(final int value) {
+        integerResult = value;
+    }
+
+    void setResult(final double value) {
+        realResult = value;
+    }
+
+    void setResult(final CharSequence value) {
+        stringResult = value;
+    }
+
+    /**
+     * Called when a routine starts, checks the call depth, cancellation and the statement and time limits.
+     *
+     * @throws LimitExceededException if the call goes deeper than the call depth limit, or the execution went over
+     *                                another limit.
+     */
+    public void enterCall() {
+        if (callDepth == maxCallDepth) {
+            throw new LimitExceededException("Call depth limit of " + maxCallDepth + " exceeded");
+        }
+        callDepth++;
+        checkLimits(0);
+    }
+
+    /**
+     * Called when a routine returns.
+     *
+     * @param pending how many statements the call ran and did not add yet.
+     */
+    public void exitCall(final long pending) {
+        callDepth--;
+        statements += pending;
+    }
+
+    /**
+     * Enters a call of the routine from the interpreter.
+     *
+     * @return the frame of the call, its variables hold their initial values and its parameters are not set yet.
+     */
+    Frame enterCall(final Routine routine) {
+        enterCall();
+        final int index = routine.getIndex();
+        if (index >= callLevels.length) {
+            callFrames = Arrays.copyOf(callFrames, index + 1);
+            callLevels = Arrays.copyOf(callLevels, index + 1);
+        }
+        final int level = callLevels[index]++;
+        Frame[] frames = callFrames[index];
+        if (frames == null) {
+            frames = callFrames[index] = new Frame[8];
+        } else if (level == frames.length) {
+            frames = callFrames[index] = Arrays.copyOf(frames, level * 2);
+        }
+        Frame frame = frames[level];
+        if (frame == null) {
+            frame = frames[level] = routine.getVariableTable().newFrame();
+            frame.attach(this);
+        } else {
+            routine.getVariableTable().reset(frame);
+        }
+        return frame;
+    }
+
+    /**
+     * Makes the statements of the execution run on the given frame, until the call returns.
+     */
+    void switchFrame(final Frame frame) {
+        this.frame = frame;
+    }
+
+    /**
+     * Leaves a call of the routine from the interpreter, the statements run on the frame of the caller again.
+     */
+    void exitCall(final Routine routine,
+                  final Frame caller) {
+        callLevels[routine.getIndex()]--;
+        frame = caller;
+        callDepth--;
+    }
+
+    /**
+     * Requests the execution to stop, it ends with a {@link CancellationException} at the next loop iteration.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @throws CancellationException if the execution was cancelled or its thread was interrupted.
+     */
+    public void checkCancelled() {
+        if (cancelled || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Execution was cancelled");
+        }
+    }
+
+    /**
+     * Called before a string built by the execution is stored.
+     *
+     * @return the given string.
+     * @throws LimitExceededException if it is longer than the string length limit.
+     */
+    public CharSequence checkLength(final CharSequence value) {
+        if (value.length() > maxStringLength) {
+            throw new LimitExceededException("String length limit of " + maxStringLength + " characters exceeded");
+        }
+        return value;
+    }
+
+    /**
+     * Called by loops when they jump back, checks for cancellation and for the statement and time limits.
+     *
+     * @param pending how many statements compiled code ran and did not add yet, {@code 0} for the interpreter.
+     * @throws LimitExceededException if the execution went over one of its limits.
+     */
+    public void checkLimits(final long pending) {
+        checkCancelled();
+        checkStatements(pending);
+        if (hasDeadline && --deadlineCountdown <= 0) {
+            deadlineCountdown = DEADLINE_CHECK_INTERVAL;
+            if (System.nanoTime() - deadline >= 0) {
+                throw new LimitExceededException("Time limit of " + limits.getTimeout().toMillis() + " ms exceeded");
+            }
+        }
+    }
+
+    /**
+     * Checks the statement limit only, also called once the execution is over since a program without loops
+     * never checks it while running.
+     *
+     * @param pending how many statements compiled code ran and did not add yet, {@code 0} for the interpreter.
+     * @throws LimitExceededException if the execution ran more statements than allowed.
+     */
+    public void checkStatements(final long pending) {
+        if (statements + pending > maxStatements) {
+            throw new LimitExceededException("Statement limit of " + maxStatements + " exceeded");
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.akraml.algo.interpreter.runtime;
+
+import java.time.Duration;
+
+/**
+ * Resources a single execution may use, immutable. An execution going over one of them stops with a
+ * {@link LimitExceededException}.
+ * <p>
+ * The statement count and the time are checked every time a loop jumps back, so an execution may run one more
+ * pass of straight statements before it stops, and when a routine is called. The time is counted from the creation
+ * of the execution context.
+ */
+public final class ExecutionLimits {
+
+    /**
+     * How deep routine calls may nest when no other limit is given, deep enough for recursive exercises while a
+     * runaway recursion stops long before the thread stack overflows.
+     */
+    public static final int DEFAULT_MAX_CALL_DEPTH = 1000;
+
+    /**
+     * No limit at all, the default of every execution. Only the call depth keeps its default bound.
+     */
+    public static final ExecutionLimits NONE = new ExecutionLimits(Long.MAX_VALUE, null, Long.MAX_VALUE,
+            Integer.MAX_VALUE, DEFAULT_MAX_CALL_DEPTH);
+
+    private final long maxStatements;
+    private final Duration timeout;
+    private final long maxOutputBytes;
+    private final int maxStringLength;
+    private final int maxCallDepth;
+
+    private ExecutionLimits(final long maxStatements,
+                            final Duration timeout,
+                            final long maxOutputBytes,
+                            final int maxStringLength,
+                            final int maxCallDepth) {
+        this.maxStatements = maxStatements;
+        this.timeout = timeout;
+        this.maxOutputBytes = maxOutputBytes;
+        this.maxStringLength = maxStringLength;
+        this.maxCallDepth = maxCallDepth;
+    }
+
+    public ExecutionLimits withMaxStatements(final long maxStatements) {
+        if (maxStatements <= 0) throw new IllegalArgumentException("Statement limit should be positive");
+        return new ExecutionLimits(maxStatements, timeout, maxOutputBytes, maxStringLength, maxCallDepth);
+    }
+
+    /**
+     * @param timeout the maximum execution time, or {@code null} for no limit.
+     */
+    public ExecutionLimits withTimeout(final Duration timeout) {
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw new IllegalArgumentException("Timeout should be positive");
+        }
+        return new ExecutionLimits(maxStatements, timeout, maxOutputBytes, maxStringLength, maxCallDepth);
+    }
+
+    /**
+     * @param maxOutputBytes the maximum output size, counted as UTF-8.
+     */
+    public ExecutionLimits withMaxOutputBytes(final long maxOutputBytes) {
+        if (maxOutputBytes <= 0) throw new IllegalArgumentException("Output limit should be positive");
+        return new ExecutionLimits(maxStatements, timeout, maxOutputBytes, maxStringLength, maxCallDepth);
+    }
+
+    /**
+     * @param maxStringLength the maximum number of characters of a string value.
+     */
+    public ExecutionLimits withMaxStringLength(final int maxStringLength) {
+        if (maxStringLength <= 0) throw new IllegalArgumentException("String length limit should be positive");
+        return new ExecutionLimits(maxStatements, timeout, maxOutputBytes, maxStringLength, maxCallDepth);
+    }
+
+    /**
+     * @param maxCallDepth the maximum number of routine calls running at once, recursive calls included.
+     */
+    public ExecutionLimits withMaxCallDepth(final int maxCallDepth) {
+        if (maxCallDepth <= 0) throw new IllegalArgumentException("Call depth limit should be positive");
+        return new ExecutionLimits(maxStatements, timeout, maxOutputBytes, maxStringLength, maxCallDepth);
+    }
+
+    /**
+     * @return the maximum number of executed statements, {@link Long#MAX_VALUE} when unlimited.
+     */
+    public long getMaxStatements() {
+        return maxStatements;
+    }
+
+    /**
+     * @return the maximum execution time, or {@code null} when unlimited.
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return the maximum output size in bytes, {@link Long#MAX_VALUE} when unlimited.
+     */
+    public long getMaxOutputBytes() {
+        return maxOutputBytes;
+    }
+
+    /**
+     * @return the maximum length of a string, {@link Integer#MAX_VALUE} when unlimited.
+     */
+    public int getMaxStringLength() {
+        return maxStringLength;
+    }
+
+    public int getMaxCallDepth() {
+        return maxCallDepth;
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutionLimits{maxStatements=" + maxStatements + ", timeout=" + timeout
+                + ", maxOutputBytes=" + maxOutputBytes + ", maxStringLength=" + maxStringLength
+                + ", maxCallDepth=" + maxCallDepth + "}";
+    }
+
+}
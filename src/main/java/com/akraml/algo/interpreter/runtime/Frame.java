@@ -0,0 +1,142 @@
+package com.akraml.algo.interpreter.runtime;
+
+import java.util.Arrays;
+
+/**
+ * Holds the values of all variables during an execution.
+ * Numbers are stored in primitive arrays so reading or writing a variable never allocates,
+ * and each array variable is a primitive array of its own, allocated with the frame.
+ * <p>
+ * Each routine call runs on a frame of the routine, frames are kept by the {@link ExecutionContext} and reused by
+ * the next call at the same depth. A frame knows its execution, so an expression calling a routine can reach it.
+ */
+public final class Frame {
+
+    private final int[] integers;
+    private final double[] reals;
+    private final Object[] references;
+    private final int[][] integerArrays;
+    private final double[][] realArrays;
+    private final Object[][] referenceArrays;
+    private ExecutionContext context;
+
+    Frame(final int integerCount,
+          final int realCount,
+          final int referenceCount,
+          final int integerArrayCount,
+          final int realArrayCount,
+          final int referenceArrayCount) {
+        this.integers = new int[integerCount];
+        this.reals = new double[realCount];
+        this.references = new Object[referenceCount];
+        this.integerArrays = new int[integerArrayCount][];
+        this.realArrays = new double[realArrayCount][];
+        this.referenceArrays = new Object[referenceArrayCount][];
+    }
+
+    void allocate(final Variable array) {
+        switch (array.getDataType()) {
+            case INTEGER -> integerArrays[array.getSlot()] = new int[array.getLength()];
+            case DOUBLE -> realArrays[array.getSlot()] = new double[array.getLength()];
+            case STRING -> referenceArrays[array.getSlot()] = new Object[array.getLength()];
+        }
+    }
+
+    void clear(final Variable array) {
+        switch (array.getDataType()) {
+            case INTEGER -> Arrays.fill(integerArrays[array.getSlot()], 0);
+            case DOUBLE -> Arrays.fill(realArrays[array.getSlot()], 0);
+            case STRING -> Arrays.fill(referenceArrays[array.getSlot()], null);
+        }
+    }
+
+    /**
+     * Makes an array parameter refer to the array given by the caller.
+     */
+    void bind(final Variable parameter,
+              final Frame caller,
+              final Variable array) {
+        switch (parameter.getDataType()) {
+            case INTEGER -> integerArrays[parameter.getSlot()] = caller.integerArrays[array.getSlot()];
+            case DOUBLE -> realArrays[parameter.getSlot()] = caller.realArrays[array.getSlot()];
+            case STRING -> referenceArrays[parameter.getSlot()] = caller.referenceArrays[array.getSlot()];
+        }
+    }
+
+    void attach(final ExecutionContext context) {
+        this.context = context;
+    }
+
+    /**
+     * @return the execution this frame belongs to, or {@code null} if it is not used by any.
+     */
+    public ExecutionContext getContext() {
+        return context;
+    }
+
+    public int getInteger(final int slot) {
+        return integers[slot];
+    }
+
+    public void setInteger(final int slot, final int value) {
+        integers[slot] = value;
+    }
+
+    public double getReal(final int slot) {
+        return reals[slot];
+    }
+
+    public void setReal(final int slot, final double value) {
+        reals[slot] = value;
+    }
+
+    public Object getReference(final int slot) {
+        return references[slot];
+    }
+
+    public void setReference(final int slot, final Object value) {
+        references[slot] = value;
+    }
+
+    /**
+     * @return the elements of the integer array in the given slot, indexing it checks the bounds.
+     */
+    public int[] getIntegerArray(final int slot) {
+        return integerArrays[slot];
+    }
+
+    public double[] getRealArray(final int slot) {
+        return realArrays[slot];
+    }
+
+    public Object[] getReferenceArray(final int slot) {
+        return referenceArrays[slot];
+    }
+
+    /**
+     * Boxed access to a variable value, meant for tooling and not for the execution path.
+     * Arrays are copied and strings are flattened, so the returned value never changes.
+     */
+    public Object get(final Variable variable) {
+        if (variable.isArray()) {
+            return switch (variable.getDataType()) {
+                case INTEGER -> integerArrays[variable.getSlot()].clone();
+                case DOUBLE -> realArrays[variable.getSlot()].clone();
+                case STRING -> {
+                    final Object[] elements = referenceArrays[variable.getSlot()];
+                    final String[] strings = new String[elements.length];
+                    for (int i = 0; i < elements.length; i++) {
+                        strings[i] = Text.flatten(elements[i]);
+                    }
+                    yield strings;
+                }
+            };
+        }
+        return switch (variable.getDataType()) {
+            case INTEGER -> integers[variable.getSlot()];
+            case DOUBLE -> reals[variable.getSlot()];
+            case STRING -> Text.flatten(references[variable.getSlot()]);
+        };
+    }
+
+}
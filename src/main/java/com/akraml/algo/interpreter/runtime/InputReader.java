@@ -0,0 +1,257 @@
+package com.akraml.algo.interpreter.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * Input source of {@code Read} statements, one instance is shared by a whole execution so buffered input
+ * is never lost between statements.
+ * <p>
+ * Numbers are parsed straight from the byte buffer without going through regular expressions. Like
+ * {@link java.util.Scanner}, numbers are separated by any white space; reading a string reads a whole line,
+ * and if a number was read last, the rest of its line is skipped when it is blank so that
+ * {@code Read(x); Read(name);} reads the name from the next line.
+ */
+public final class InputReader {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream in;
+    private final Charset charset;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position, limit;
+    private boolean afterNumber;
+    private byte[] lineBuffer = new byte[128];
+    private int maxLineLength = Integer.MAX_VALUE;
+
+    public InputReader(final InputStream in) {
+        this(in, Charset.defaultCharset());
+    }
+
+    public InputReader(final InputStream in,
+                       final Charset charset) {
+        this.in = in;
+        this.charset = charset;
+    }
+
+    /**
+     * Makes reading a line longer than the given number of characters fail with a {@link LimitExceededException},
+     * such a line is not buffered entirely.
+     */
+    public void limitLineLength(final int maxLineLength) {
+        if (maxLineLength <= 0) throw new IllegalArgumentException("Line length limit should be positive");
+        this.maxLineLength = maxLineLength;
+    }
+
+    public static InputReader fromFile(final Path path) throws IOException {
+        return new InputReader(Files.newInputStream(path));
+    }
+
+    public static InputReader fromString(final String input) {
+        return new InputReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+
+    public int readInteger() {
+        int c = skipWhitespaces();
+        final boolean negative = c == '-';
+        if (c == '-' || c == '+') {
+            position++;
+            c = peek();
+        }
+        if (!isDigit(c)) throw mismatch("an integer");
+        // Accumulate as a negative number so Integer.MIN_VALUE can be read too.
+        int result = 0;
+        while (isDigit(c)) {
+            final int digit = c - '0';
+            if (result < (Integer.MIN_VALUE + digit) / 10) throw mismatch("an integer");
+            result = result * 10 - digit;
+            position++;
+            c = peek();
+        }
+        if (c != -1 && !isWhitespace(c)) throw mismatch("an integer");
+        if (!negative && result == Integer.MIN_VALUE) throw mismatch("an integer");
+        afterNumber = true;
+        return negative ? result : -result;
+    }
+
+    public double readReal() {
+        int c = skipWhitespaces();
+        // Consumed bytes are kept so the slow path can hand the token to the JDK parser.
+        int length = 0;
+        final boolean negative = c == '-';
+        if (c == '-' || c == '+') {
+            length = store(length, c);
+            c = peek();
+        }
+        long mantissa = 0;
+        int digits = 0, scale = 0;
+        boolean dot = false, any = false;
+        while (isDigit(c) || (c == '.' && !dot)) {
+            if (c == '.') {
+                dot = true;
+            } else {
+                any = true;
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) digits++;
+                if (dot) scale++;
+                // Stop accumulating before the mantissa overflows, the slow path takes over.
+                if (digits > 15) mantissa = 0;
+            }
+            length = store(length, c);
+            c = peek();
+        }
+        if (!any) throw mismatch("a real number");
+        // Fast path, both the mantissa and the power of ten are exact doubles so one division rounds correctly.
+        if ((c == -1 || isWhitespace(c)) && digits <= 15 && scale < POWERS_OF_TEN.length) {
+            afterNumber = true;
+            final double value = mantissa / POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+        // Exponents, very long numbers and anything unusual go through the JDK parser.
+        while (c != -1 && !isWhitespace(c)) {
+            length = store(length, c);
+            c = peek();
+        }
+        final String token = new String(lineBuffer, 0, length, StandardCharsets.US_ASCII);
+        try {
+            final double value = Double.parseDouble(token);
+            afterNumber = true;
+            return value;
+        } catch (final NumberFormatException exception) {
+            throw new InputMismatchException("Expected a real number but found '" + token + "'");
+        }
+    }
+
+    public String readLine() {
+        int c = peek();
+        if (afterNumber) {
+            afterNumber = false;
+            // Skip the end of the line the last number was on if nothing else is written there,
+            // otherwise the rest of that line is the value.
+            while (c == ' ' || c == '\t') {
+                position++;
+                c = peek();
+            }
+            if (c == '\r' || c == '\n') {
+                consumeLineEnd(c);
+                c = peek();
+            }
+        }
+        if (c == -1) throw new NoSuchElementException("No line found");
+        int length = 0;
+        // No charset takes more than four bytes per character, a longer line is too long whatever its content.
+        final long maxBytes = maxLineLength * 4L;
+        while (c != -1 && c != '\n' && c != '\r') {
+            if (length == maxBytes) throw lineTooLong();
+            length = store(length, c);
+            c = peek();
+        }
+        if (c != -1) consumeLineEnd(c);
+        final String line = new String(lineBuffer, 0, length, charset);
+        if (line.length() > maxLineLength) throw lineTooLong();
+        return line;
+    }
+
+    private LimitExceededException lineTooLong() {
+        return new LimitExceededException("String length limit of " + maxLineLength + " characters exceeded");
+    }
+
+    /**
+     * Reads one integer for each element of the array, in order.
+     */
+    public void readIntegers(final int[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readInteger();
+        }
+    }
+
+    public void readReals(final double[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readReal();
+        }
+    }
+
+    /**
+     * Reads one line for each element of the array, in order.
+     */
+    public void readLines(final Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readLine();
+        }
+    }
+
+    /**
+     * Consumes the current byte and appends it to the token buffer.
+     *
+     * @return the new token length.
+     */
+    private int store(final int length, final int c) {
+        if (length == lineBuffer.length) {
+            final byte[] grown = new byte[lineBuffer.length * 2];
+            System.arraycopy(lineBuffer, 0, grown, 0, length);
+            lineBuffer = grown;
+        }
+        lineBuffer[length] = (byte) c;
+        position++;
+        return length + 1;
+    }
+
+    private void consumeLineEnd(final int c) {
+        position++;
+        if (c == '\r' && peek() == '\n') position++;
+    }
+
+    private int skipWhitespaces() {
+        int c = peek();
+        while (c != -1 && isWhitespace(c)) {
+            position++;
+            c = peek();
+        }
+        if (c == -1) throw new NoSuchElementException("No more input to read");
+        return c;
+    }
+
+    private InputMismatchException mismatch(final String expected) {
+        final int c = peek();
+        return new InputMismatchException("Expected " + expected + " but found " +
+                (c == -1 ? "end of input" : "'" + (char) c + "'"));
+    }
+
+    private int peek() {
+        if (position == limit && !fill()) return -1;
+        return buffer[position] & 0xFF;
+    }
+
+    private boolean fill() {
+        try {
+            final int read = in.read(buffer, 0, buffer.length);
+            if (read <= 0) return false;
+            position = 0;
+            limit = read;
+            return true;
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static boolean isDigit(final int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWhitespace(final int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f' || c == 0x0B;
+    }
+
+}
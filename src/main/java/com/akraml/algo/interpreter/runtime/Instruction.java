@@ -0,0 +1,110 @@
+package com.akraml.algo.interpreter.runtime;
+
+import com.akraml.algo.interpreter.expression.Condition;
+
+/**
+ * An entry of the flat instruction stream, along with where it comes from in the source file.
+ * <p>
+ * Control flow constructs are compiled into jumps to instruction indexes, the dispatch loop of
+ * {@link com.akraml.algo.interpreter.Algorithm} switches on the {@link #getOpcode() opcode}.
+ */
+public final class Instruction {
+
+    /**
+     * Executes the statement and moves to the next instruction.
+     */
+    public static final int EXECUTE = 0;
+    /**
+     * Moves to the target instruction.
+     */
+    public static final int JUMP = 1;
+    /**
+     * Moves to the target instruction if the condition is false, to the next instruction otherwise.
+     */
+    public static final int JUMP_IF_FALSE = 2;
+    /**
+     * Executes the statement if there is one, it stores the result of a function, and leaves the routine.
+     */
+    public static final int RETURN = 3;
+
+    private final int opcode;
+    private final Statement statement;
+    private final Condition condition;
+    private final int target;
+    private final int line;
+    private final String source;
+
+    private Instruction(final int opcode,
+                        final Statement statement,
+                        final Condition condition,
+                        final int target,
+                        final int line,
+                        final String source) {
+        this.opcode = opcode;
+        this.statement = statement;
+        this.condition = condition;
+        this.target = target;
+        this.line = line;
+        this.source = source;
+    }
+
+    public static Instruction execute(final Statement statement,
+                                      final int line,
+                                      final String source) {
+        return new Instruction(EXECUTE, statement, null, -1, line, source);
+    }
+
+    public static Instruction jump(final int target,
+                                   final int line,
+                                   final String source) {
+        return new Instruction(JUMP, null, null, target, line, source);
+    }
+
+    public static Instruction jumpIfFalse(final Condition condition,
+                                          final int target,
+                                          final int line,
+                                          final String source) {
+        return new Instruction(JUMP_IF_FALSE, null, condition, target, line, source);
+    }
+
+    /**
+     * @param statement stores the returned value, {@code null} when a procedure returns.
+     */
+    public static Instruction returning(final Statement statement,
+                                        final int line,
+                                        final String source) {
+        return new Instruction(RETURN, statement, null, -1, line, source);
+    }
+
+    /**
+     * @return a copy of this jump instruction going to another target, used to patch forward jumps.
+     */
+    public Instruction withTarget(final int target) {
+        return new Instruction(opcode, statement, condition, target, line, source);
+    }
+
+    public int getOpcode() {
+        return opcode;
+    }
+
+    public Statement getStatement() {
+        return statement;
+    }
+
+    public Condition getCondition() {
+        return condition;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.akraml.algo.interpreter.runtime;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Thrown by the {@link Dispatcher} when one of the instructions it runs fails, it tells which one so the failure is
+ * reported on its line, the line of the routine for a failure inside a call. The cause is the original failure.
+ * <p>
+ * Compiled code throws it too, every instruction it emits is covered by a handler passing the failure to
+ * {@link #locate(Throwable, Instruction)}.
+ */
+public final class InstructionException extends RuntimeException {
+
+    private final int line;
+    private final String source;
+
+    InstructionException(final int line,
+                         final String source,
+                         final RuntimeException cause) {
+        super(cause.getMessage(), cause);
+        this.line = line;
+        this.source = source;
+    }
+
+    /**
+     * Locates a failure of the given instruction on its line, failures already located by a routine call and
+     * cancellations are returned as they are, like errors. A stack overflow goes over the limits of the execution, a
+     * recursion too deep for the JVM stack fails the same way in both backends whatever the call depth limit is.
+     *
+     * @return the exception to throw instead of the failure.
+     */
+    public static Throwable locate(final Throwable failure,
+                                   final Instruction instruction) {
+        return locate(failure, instruction.getLine(), instruction.getSource());
+    }
+
+    /**
+     * Locates a failure on the given line, like {@link #locate(Throwable, Instruction)}.
+     */
+    public static Throwable locate(final Throwable failure,
+                                   final int line,
+                                   final String source) {
+        if (failure instanceof InstructionException || failure instanceof CancellationException) return failure;
+        if (failure instanceof RuntimeException exception) return new InstructionException(line, source, exception);
+        if (failure instanceof StackOverflowError) {
+            return new InstructionException(line, source, new LimitExceededException("Call stack overflow"));
+        }
+        return failure;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public synchronized RuntimeException getCause() {
+        return (RuntimeException) super.getCause();
+    }
+
+}
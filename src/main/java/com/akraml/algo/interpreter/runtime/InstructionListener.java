@@ -0,0 +1,20 @@
+package com.akraml.algo.interpreter.runtime;
+
+/**
+ * Notified around every instruction run by the {@link Dispatcher} for an execution, see
+ * {@link ExecutionContext#setListener}. An instruction calling a routine is notified around the instructions of
+ * the routine, and is not notified after if it fails.
+ */
+public interface InstructionListener {
+
+    /**
+     * @param routine the routine owning the instruction, or {@code null} for the body of the algorithm.
+     * @param index   the position of the instruction in its instruction stream.
+     */
+    void before(final Routine routine,
+                final int index);
+
+    void after(final Routine routine,
+               final int index);
+
+}
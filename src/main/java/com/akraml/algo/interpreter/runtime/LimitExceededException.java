@@ -0,0 +1,13 @@
+package com.akraml.algo.interpreter.runtime;
+
+/**
+ * Thrown when an execution goes over one of its {@link ExecutionLimits}, the algorithm reports it as an
+ * {@link com.akraml.algo.interpreter.InterpretationException.Kind#LIMIT LIMIT} failure.
+ */
+public final class LimitExceededException extends RuntimeException {
+
+    public LimitExceededException(final String message) {
+        super(message);
+    }
+
+}
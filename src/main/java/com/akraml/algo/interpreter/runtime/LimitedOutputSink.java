@@ -0,0 +1,64 @@
+package com.akraml.algo.interpreter.runtime;
+
+/**
+ * Forwards output to another sink until it reaches a size limit, counted as UTF-8 as it is printed.
+ * A print going over the limit is dropped entirely and fails with a {@link LimitExceededException}.
+ */
+final class LimitedOutputSink implements OutputSink {
+
+    private final OutputSink delegate;
+    private final long maxBytes;
+    private long bytes;
+
+    LimitedOutputSink(final OutputSink delegate,
+                      final long maxBytes) {
+        this.delegate = delegate;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void print(final String text) {
+        count(MemoryOutputSink.utf8Length(text));
+        delegate.print(text);
+    }
+
+    @Override
+    public void print(final int value) {
+        count(digits(value));
+        delegate.print(value);
+    }
+
+    @Override
+    public void print(final double value) {
+        final String text = Double.toString(value);
+        count(text.length());
+        delegate.print(text);
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return delegate.getBytesWritten();
+    }
+
+    private void count(final long length) {
+        if (bytes + length > maxBytes) {
+            throw new LimitExceededException("Output limit of " + maxBytes + " bytes exceeded");
+        }
+        bytes += length;
+    }
+
+    private static int digits(final int value) {
+        int length = value < 0 ? 2 : 1;
+        // Counted on the negative value so Integer.MIN_VALUE does not overflow.
+        for (int rest = value < 0 ? value : -value; rest <= -10; rest /= 10) {
+            length++;
+        }
+        return length;
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.akraml.algo.interpreter.runtime;
+
+/**
+ * Keeps the whole output in memory, useful when the interpreter is embedded in another application.
+ */
+public final class MemoryOutputSink implements OutputSink {
+
+    private final StringBuilder output = new StringBuilder();
+
+    @Override
+    public void print(final String text) {
+        output.append(text);
+    }
+
+    @Override
+    public void print(final int value) {
+        output.append(value);
+    }
+
+    @Override
+    public void print(final double value) {
+        output.append(value);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * @return the size of the output once encoded in UTF-8.
+     */
+    @Override
+    public long getBytesWritten() {
+        return utf8Length(output);
+    }
+
+    static long utf8Length(final CharSequence text) {
+        long bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                // A surrogate pair is a single four bytes code point.
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    public String getOutput() {
+        return output.toString();
+    }
+
+    public void reset() {
+        output.setLength(0);
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.akraml.algo.interpreter.runtime;
+
+/**
+ * Destination of everything written by {@code Write} statements.
+ */
+public interface OutputSink {
+
+    void print(final String text);
+
+    void print(final int value);
+
+    void print(final double value);
+
+    /**
+     * Pushes any pending output to its destination.
+     */
+    void flush();
+
+    /**
+     * @return how many bytes reached the destination so far, pending output excluded.
+     */
+    default long getBytesWritten() {
+        return 0;
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.akraml.algo.interpreter.runtime;
+
+import com.akraml.algo.interpreter.expression.Expression;
+
+/**
+ * Reads one value from the input of the execution for each target variable, in order.
+ * For index {@code i}, {@code indexes[i]} selects the element to read when {@code targets[i]} is an array,
+ * without an index every element of the array is read.
+ */
+public final class ReadStatement implements Statement {
+
+    private final Variable[] targets;
+    private final Expression[] indexes;
+    private final int valueCount;
+
+    public ReadStatement(final Variable[] targets) {
+        this(targets, new Expression[targets.length]);
+    }
+
+    public ReadStatement(final Variable[] targets,
+                         final Expression[] indexes) {
+        this.targets = targets;
+        this.indexes = indexes;
+        int valueCount = 0;
+        for (int i = 0; i < targets.length; i++) {
+            valueCount += targets[i].isArray() && indexes[i] == null ? targets[i].getLength() : 1;
+        }
+        this.valueCount = valueCount;
+    }
+
+    public Variable[] getTargets() {
+        return targets.clone();
+    }
+
+    public Expression[] getIndexes() {
+        return indexes.clone();
+    }
+
+    /**
+     * @return how many values an execution of the statement reads, every element of the arrays read whole included.
+     */
+    public int getValueCount() {
+        return valueCount;
+    }
+
+    @Override
+    public void execute(final ExecutionContext context) {
+        // Make sure prompts written so far are visible before blocking on input.
+        context.getOutput().flush();
+        final Frame frame = context.getFrame();
+        final InputReader input = context.getInput();
+        for (int i = 0; i < targets.length; i++) {
+            final Variable target = targets[i];
+            if (target.isArray()) {
+                read(frame, input, target, indexes[i]);
+                continue;
+            }
+            switch (target.getDataType()) {
+                case STRING -> frame.setReference(target.getSlot(), input.readLine());
+                case INTEGER -> frame.setInteger(target.getSlot(), input.readInteger());
+                case DOUBLE -> frame.setReal(target.getSlot(), input.readReal());
+            }
+        }
+        context.countValuesRead(valueCount);
+    }
+
+    private static void read(final Frame frame,
+                             final InputReader input,
+                             final Variable array,
+                             final Expression index) {
+        final int slot = array.getSlot();
+        if (index == null) {
+            switch (array.getDataType()) {
+                case STRING -> input.readLines(frame.getReferenceArray(slot));
+                case INTEGER -> input.readIntegers(frame.getIntegerArray(slot));
+                case DOUBLE -> input.readReals(frame.getRealArray(slot));
+            }
+            return;
+        }
+        final int i = index.evaluateInteger(frame);
+        switch (array.getDataType()) {
+            case STRING -> frame.getReferenceArray(slot)[i] = input.readLine();
+            case INTEGER -> frame.getIntegerArray(slot)[i] = input.readInteger();
+            case DOUBLE -> frame.getRealArray(slot)[i] = input.readReal();
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.akraml.algo.interpreter.runtime;
+
+import com.akraml.algo.interpreter.expression.Expression;
+import com.akraml.algo.interpreter.token.TokenType;
+
+/**
+ * Evaluates the value returned by a function and leaves it in the context, where the caller reads it.
+ */
+public final class ReturnStatement implements Statement {
+
+    private final TokenType.DataType type;
+    private final Expression expression;
+
+    /**
+     * @param type the return type of the function.
+     */
+    public ReturnStatement(final TokenType.DataType type,
+                           final Expression expression) {
+        this.type = type;
+        this.expression = expression;
+    }
+
+    public TokenType.DataType getType() {
+        return type;
+    }
+
+    public Expression getExpression() {
+        return expression;
+    }
+
+    @Override
+    public void execute(final ExecutionContext context) {
+        final Frame frame = context.getFrame();
+        context.countEvaluation();
+        switch (type) {
+            case INTEGER -> context.setResult(expression.evaluateInteger(frame));
+            case DOUBLE -> context.setResult(expression.evaluateReal(frame));
+            case STRING -> context.setResult(expression.evaluateString(frame));
+        }
+    }
+
+}
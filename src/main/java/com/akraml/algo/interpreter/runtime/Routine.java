@@ -0,0 +1,130 @@
+package com.akraml.algo.interpreter.runtime;
+
+import com.akraml.algo.interpreter.expression.Expression;
+import com.akraml.algo.interpreter.token.TokenType;
+
+import java.util.List;
+
+/**
+ * A {@code Function} or a {@code Procedure} of an algorithm, with its own variable table and instruction stream.
+ * <p>
+ * A routine only sees its parameters, its variables and the constants of the algorithm. Numbers and strings are
+ * passed by value and arrays by reference. It is declared before its body is interpreted so it can call itself,
+ * and is immutable once {@link #define(List) defined}.
+ */
+public final class Routine {
+
+    private final String name;
+    private final TokenType.DataType returnType;
+    private final VariableTable variables;
+    private final Variable[] parameters;
+    private final int index, line;
+    private final String source;
+    private Instruction[] instructions;
+
+    /**
+     * @param returnType the type of the returned value, {@code null} for a procedure.
+     * @param variables  the table of the routine, holding its parameters.
+     * @param index      the position of the routine in its algorithm.
+     */
+    public Routine(final String name,
+                   final TokenType.DataType returnType,
+                   final VariableTable variables,
+                   final int index,
+                   final int line,
+                   final String source) {
+        this.name = name;
+        this.returnType = returnType;
+        this.variables = variables;
+        this.parameters = variables.getParameters().toArray(new Variable[0]);
+        this.index = index;
+        this.line = line;
+        this.source = source;
+    }
+
+    /**
+     * Sets the body of the routine and freezes its variable table.
+     */
+    public void define(final List<Instruction> instructions) {
+        if (this.instructions != null) throw new IllegalStateException("Routine '" + name + "' is already defined");
+        variables.freeze();
+        this.instructions = instructions.toArray(new Instruction[0]);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isFunction() {
+        return returnType != null;
+    }
+
+    /**
+     * @return the type of the returned value, or {@code null} for a procedure.
+     */
+    public TokenType.DataType getReturnType() {
+        return returnType;
+    }
+
+    public VariableTable getVariableTable() {
+        return variables;
+    }
+
+    public List<Variable> getParameters() {
+        return List.of(parameters);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the line declaring the routine.
+     */
+    public int getLine() {
+        return line;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public List<Instruction> getInstructions() {
+        return List.of(instructions);
+    }
+
+    /**
+     * Calls the routine from the given frame, the result of a function is left in the context of the frame.
+     * For index {@code i}, an array parameter refers to {@code arrays[i]}, other ones take the value of
+     * {@code arguments[i]} evaluated on the caller frame.
+     *
+     * @throws InstructionException if an instruction of the routine failed.
+     */
+    public void call(final Frame caller,
+                     final Expression[] arguments,
+                     final Variable[] arrays) {
+        final ExecutionContext context = caller.getContext();
+        final Frame frame = context.enterCall(this);
+        try {
+            for (int i = 0; i < parameters.length; i++) {
+                final Variable parameter = parameters[i];
+                if (parameter.isArray()) {
+                    frame.bind(parameter, caller, arrays[i]);
+                    continue;
+                }
+                switch (parameter.getDataType()) {
+                    case INTEGER -> frame.setInteger(parameter.getSlot(), arguments[i].evaluateInteger(caller));
+                    case DOUBLE -> frame.setReal(parameter.getSlot(), arguments[i].evaluateReal(caller));
+                    case STRING -> frame.setReference(parameter.getSlot(),
+                            context.checkLength(arguments[i].evaluateString(caller)));
+                }
+            }
+            // Arguments may call routines too, the frame is only switched once they are evaluated.
+            context.switchFrame(frame);
+            Dispatcher.run(this, instructions, context, frame);
+        } finally {
+            context.exitCall(this, caller);
+        }
+    }
+
+}
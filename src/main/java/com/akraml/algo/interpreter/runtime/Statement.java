@@ -0,0 +1,11 @@
+package com.akraml.algo.interpreter.runtime;
+
+/**
+ * A statement that has already been resolved during interpretation, executing it does no parsing.
+ */
+@FunctionalInterface
+public interface Statement {
+
+    void execute(final ExecutionContext context);
+
+}
@@ -0,0 +1,112 @@
+package com.akraml.algo.interpreter.runtime;
+
+/**
+ * A string built by concatenation, a prefix of a growable buffer that several texts may share.
+ * <p>
+ * Appending to a text that ends where its buffer ends appends to the buffer in place, the new text simply sees a
+ * longer prefix while the old one keeps its length, so {@code s = s + "x"} costs the appended characters only,
+ * and building a string in a loop is linear instead of quadratic. Appending to any other text copies it first.
+ * Texts are flattened into a {@link String} lazily, only when they are written or compared, and the flat string is
+ * kept. A text belongs to a single execution and is not thread-safe, like the frame holding it.
+ * <p>
+ * String values of a frame are either a {@link String} or a text, both are {@link CharSequence}s.
+ */
+public final class Text implements CharSequence {
+
+    private final StringBuilder chars;
+    private final int length;
+    private String flat;
+
+    private Text(final StringBuilder chars) {
+        this.chars = chars;
+        this.length = chars.length();
+    }
+
+    /**
+     * @return the string value of a frame slot, an unassigned string reads as {@code "null"} like {@code Write}
+     * prints it.
+     */
+    public static CharSequence valueOf(final Object value) {
+        return value == null ? "null" : (CharSequence) value;
+    }
+
+    /**
+     * @return the string value as a {@link String}, or {@code null} if it is unassigned.
+     */
+    public static String flatten(final Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    public static CharSequence concat(final CharSequence head,
+                                      final CharSequence tail) {
+        final StringBuilder chars = extend(head, tail.length());
+        if (tail instanceof Text text) {
+            chars.append(text.chars, 0, text.length);
+        } else {
+            chars.append(tail);
+        }
+        return new Text(chars);
+    }
+
+    /**
+     * Appends the number the same way the output sinks print it.
+     */
+    public static CharSequence concat(final CharSequence head,
+                                      final int tail) {
+        return new Text(extend(head, 11).append(tail));
+    }
+
+    public static CharSequence concat(final CharSequence head,
+                                      final double tail) {
+        return new Text(extend(head, 24).append(tail));
+    }
+
+    /**
+     * Compares two strings lexicographically like {@link String#compareTo}, flattening them.
+     */
+    public static int compare(final CharSequence left,
+                              final CharSequence right) {
+        return left.toString().compareTo(right.toString());
+    }
+
+    /**
+     * @return the buffer to append to so that the result starts with the head.
+     */
+    private static StringBuilder extend(final CharSequence head,
+                                        final int extra) {
+        if (head instanceof Text text && text.length == text.chars.length()) return text.chars;
+        // A new buffer with room to grow, the next appends to the result happen in place.
+        final StringBuilder chars = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8,
+                Math.max(16, (head.length() + (long) extra) * 2)));
+        if (head instanceof Text text) {
+            chars.append(text.chars, 0, text.length);
+        } else {
+            chars.append(head);
+        }
+        return chars;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= length) throw new StringIndexOutOfBoundsException(index);
+        return chars.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start,
+                                    final int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        if (flat == null) flat = chars.substring(0, length);
+        return flat;
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.akraml.algo.interpreter.runtime;
+
+import com.akraml.algo.interpreter.token.TokenType;
+
+/**
+ * A declared variable, its slot is an index in the {@link Frame} array that matches its data type.
+ * An array variable has the data type of its elements and its slot is in the arrays of that type.
+ * A parameter of a routine gets its value from each call, an array parameter refers to the array of the caller.
+ */
+public final class Variable {
+
+    private final String name;
+    private final TokenType.DataType dataType;
+    private final int slot;
+    private final Object initialValue;
+    private final int length;
+    private final boolean parameter;
+
+    Variable(final String name,
+             final TokenType.DataType dataType,
+             final int slot,
+             final Object initialValue,
+             final int length,
+             final boolean parameter) {
+        this.name = name;
+        this.dataType = dataType;
+        this.slot = slot;
+        this.initialValue = initialValue;
+        this.length = length;
+        this.parameter = parameter;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public TokenType.DataType getDataType() {
+        return dataType;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public boolean isArray() {
+        return length > 0;
+    }
+
+    public boolean isParameter() {
+        return parameter;
+    }
+
+    /**
+     * @return the number of elements of an array, or {@code 0} if the variable is not an array.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return the value given in the declaration, or {@code null} if the variable is not initialized.
+     */
+    public Object getInitialValue() {
+        return initialValue;
+    }
+
+}
@@ -0,0 +1,190 @@
+package com.akraml.algo.interpreter.runtime;
+
+import com.akraml.algo.interpreter.token.TokenType;
+
+import java.util.*;
+
+/**
+ * Assigns every declared variable a fixed slot at interpretation time.
+ * Each data type has its own slot sequence for variables and another one for arrays, matching the arrays of
+ * {@link Frame}.
+ * <p>
+ * A routine has a table of its own, its parameters are declared first and are not initialized by the frame.
+ * Once the algorithm is built the table is frozen, from then on it is only read and can be shared between threads.
+ */
+public final class VariableTable {
+
+    private final Map<String, Variable> variables = new LinkedHashMap<>();
+    private int integerCount, realCount, referenceCount;
+    private final List<Variable> arrays = new ArrayList<>();
+    private int integerArrayCount, realArrayCount, referenceArrayCount;
+    private final List<Variable> parameters = new ArrayList<>();
+    // Variables that are not parameters, a reused frame resets them. Known once the table is frozen.
+    private Variable[] locals;
+    private boolean frozen;
+
+    public Variable declare(final String name,
+                            final TokenType.DataType dataType,
+                            final Object initialValue) {
+        if (frozen) throw new IllegalStateException("Variable table is frozen, cannot declare '" + name + "'");
+        final int slot = switch (dataType) {
+            case INTEGER -> integerCount++;
+            case DOUBLE -> realCount++;
+            case STRING -> referenceCount++;
+        };
+        final Variable variable = new Variable(name, dataType, slot, initialValue, 0, false);
+        variables.put(name, variable);
+        return variable;
+    }
+
+    /**
+     * Declares a parameter of a routine, with a length for an array parameter or {@code 0}. The frame leaves it
+     * empty, each call stores its argument, and an array argument is passed by reference.
+     */
+    public Variable declareParameter(final String name,
+                                     final TokenType.DataType dataType,
+                                     final int length) {
+        if (frozen) throw new IllegalStateException("Variable table is frozen, cannot declare '" + name + "'");
+        if (variables.size() > parameters.size()) {
+            throw new IllegalStateException("Parameter '" + name + "' should be declared before the variables");
+        }
+        final int slot = length > 0
+                ? switch (dataType) {
+                    case INTEGER -> integerArrayCount++;
+                    case DOUBLE -> realArrayCount++;
+                    case STRING -> referenceArrayCount++;
+                }
+                : switch (dataType) {
+                    case INTEGER -> integerCount++;
+                    case DOUBLE -> realCount++;
+                    case STRING -> referenceCount++;
+                };
+        final Variable variable = new Variable(name, dataType, slot, null, length, true);
+        variables.put(name, variable);
+        parameters.add(variable);
+        return variable;
+    }
+
+    /**
+     * Declares a fixed-size array, its elements have the given data type and start with its default value.
+     */
+    public Variable declareArray(final String name,
+                                 final TokenType.DataType dataType,
+                                 final int length) {
+        if (frozen) throw new IllegalStateException("Variable table is frozen, cannot declare '" + name + "'");
+        if (length <= 0) throw new IllegalArgumentException("Array '" + name + "' should have at least one element");
+        final int slot = switch (dataType) {
+            case INTEGER -> integerArrayCount++;
+            case DOUBLE -> realArrayCount++;
+            case STRING -> referenceArrayCount++;
+        };
+        final Variable variable = new Variable(name, dataType, slot, null, length, false);
+        variables.put(name, variable);
+        arrays.add(variable);
+        return variable;
+    }
+
+    /**
+     * Forbids any further declaration.
+     *
+     * @return this table.
+     */
+    public VariableTable freeze() {
+        if (frozen) return this;
+        frozen = true;
+        locals = variables.values().stream().filter(variable -> !variable.isParameter()).toArray(Variable[]::new);
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    public boolean contains(final String name) {
+        return variables.containsKey(name);
+    }
+
+    public Variable get(final String name) {
+        return variables.get(name);
+    }
+
+    public Collection<Variable> getVariables() {
+        return Collections.unmodifiableCollection(variables.values());
+    }
+
+    /**
+     * @return the parameters of the routine owning this table, in declaration order.
+     */
+    public List<Variable> getParameters() {
+        return Collections.unmodifiableList(parameters);
+    }
+
+    /**
+     * Creates a frame holding the initial value of every variable.
+     */
+    public Frame newFrame() {
+        final Frame frame = new Frame(integerCount, realCount, referenceCount,
+                integerArrayCount, realArrayCount, referenceArrayCount);
+        for (final Variable array : arrays) {
+            frame.allocate(array);
+        }
+        for (final Variable variable : variables.values()) {
+            final Object value = variable.getInitialValue();
+            if (value == null || variable.isArray()) continue;
+            switch (variable.getDataType()) {
+                case INTEGER -> frame.setInteger(variable.getSlot(), (Integer) value);
+                case DOUBLE -> frame.setReal(variable.getSlot(), (Double) value);
+                case STRING -> frame.setReference(variable.getSlot(), value);
+            }
+        }
+        return frame;
+    }
+
+    /**
+     * Gives the variables of a frame created by this table their initial values again, so it can be reused by
+     * another call without allocating. Parameters are left as they are, the call overwrites them.
+     */
+    void reset(final Frame frame) {
+        if (!frozen) throw new IllegalStateException("Variable table should be frozen before frames are reused");
+        for (final Variable variable : locals) {
+            if (variable.isArray()) {
+                frame.clear(variable);
+                continue;
+            }
+            final Object value = variable.getInitialValue();
+            switch (variable.getDataType()) {
+                case INTEGER -> frame.setInteger(variable.getSlot(), value == null ? 0 : (Integer) value);
+                case DOUBLE -> frame.setReal(variable.getSlot(), value == null ? 0 : (Double) value);
+                case STRING -> frame.setReference(variable.getSlot(), value);
+            }
+        }
+    }
+
+    /**
+     * Read-only view of the variables values stored in the given frame.
+     */
+    public Map<String, Object> asMap(final Frame frame) {
+        return new AbstractMap<>() {
+            @Override
+            public Set<Entry<String, Object>> entrySet() {
+                final Set<Entry<String, Object>> entries = new LinkedHashSet<>();
+                for (final Variable variable : variables.values()) {
+                    entries.add(new SimpleImmutableEntry<>(variable.getName(), frame.get(variable)));
+                }
+                return Collections.unmodifiableSet(entries);
+            }
+
+            @Override
+            public boolean containsKey(final Object key) {
+                return variables.containsKey(key);
+            }
+
+            @Override
+            public Object get(final Object key) {
+                final Variable variable = variables.get(key);
+                return variable == null ? null : frame.get(variable);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.akraml.algo.interpreter.runtime;
+
+import com.akraml.algo.interpreter.expression.Expression;
+
+/**
+ * Prints a sequence of components, each component is either a resolved text or a variable.
+ * For index {@code i}, {@code sources[i]} is {@code null} when {@code texts[i]} should be printed.
+ * When the source is an array, {@code indexes[i]} selects the element to print, without an index every element
+ * is printed separated by a space.
+ */
+public final class WriteStatement implements Statement {
+
+    private final String[] texts;
+    private final Variable[] sources;
+    private final Expression[] indexes;
+
+    public WriteStatement(final String[] texts,
+                          final Variable[] sources) {
+        this(texts, sources, new Expression[texts.length]);
+    }
+
+    public WriteStatement(final String[] texts,
+                          final Variable[] sources,
+                          final Expression[] indexes) {
+        this.texts = texts;
+        this.sources = sources;
+        this.indexes = indexes;
+    }
+
+    public String[] getTexts() {
+        return texts.clone();
+    }
+
+    public Variable[] getSources() {
+        return sources.clone();
+    }
+
+    public Expression[] getIndexes() {
+        return indexes.clone();
+    }
+
+    @Override
+    public void execute(final ExecutionContext context) {
+        final Frame frame = context.getFrame();
+        final OutputSink output = context.getOutput();
+        for (int i = 0; i < texts.length; i++) {
+            final Variable source = sources[i];
+            if (source == null) {
+                output.print(texts[i]);
+                continue;
+            }
+            if (source.isArray()) {
+                write(frame, output, source, indexes[i]);
+                continue;
+            }
+            switch (source.getDataType()) {
+                case INTEGER -> output.print(frame.getInteger(source.getSlot()));
+                case DOUBLE -> output.print(frame.getReal(source.getSlot()));
+                case STRING -> output.print(String.valueOf(frame.getReference(source.getSlot())));
+            }
+        }
+    }
+
+    private static void write(final Frame frame,
+                              final OutputSink output,
+                              final Variable array,
+                              final Expression index) {
+        final int slot = array.getSlot();
+        if (index == null) {
+            switch (array.getDataType()) {
+                case INTEGER -> printElements(output, frame.getIntegerArray(slot));
+                case DOUBLE -> printElements(output, frame.getRealArray(slot));
+                case STRING -> printElements(output, frame.getReferenceArray(slot));
+            }
+            return;
+        }
+        final int i = index.evaluateInteger(frame);
+        switch (array.getDataType()) {
+            case INTEGER -> output.print(frame.getIntegerArray(slot)[i]);
+            case DOUBLE -> output.print(frame.getRealArray(slot)[i]);
+            case STRING -> output.print(String.valueOf(frame.getReferenceArray(slot)[i]));
+        }
+    }
+
+    /**
+     * Prints every element of the array separated by a space, compiled algorithms call it too.
+     */
+    public static void printElements(final OutputSink output,
+                                     final int[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) output.print(" ");
+            output.print(values[i]);
+        }
+    }
+
+    public static void printElements(final OutputSink output,
+                                     final double[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) output.print(" ");
+            output.print(values[i]);
+        }
+    }
+
+    public static void printElements(final OutputSink output,
+                                     final Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) output.print(" ");
+            output.print(String.valueOf(values[i]));
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.akraml.algo.interpreter.token;
+
+/**
+ * Validates and parses numeric literals in a single pass, without throwing for invalid ones.
+ * <p>
+ * Integers are an optional sign followed by digits and should fit in an {@code int}. Reals are an optional sign,
+ * digits with an optional fraction, and an optional exponent, like {@code -1.5}, {@code .5} or {@code 2e-3}.
+ */
+public final class NumberParser {
+
+    /**
+     * Returned by {@link #parseInteger} for an invalid literal, no {@code int} has this value.
+     */
+    public static final long INVALID_INTEGER = Long.MIN_VALUE;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private NumberParser() {
+    }
+
+    public static long parseInteger(final CharSequence input) {
+        return parseInteger(input, 0, input.length());
+    }
+
+    /**
+     * @return the integer written between {@code start} and {@code end}, or {@link #INVALID_INTEGER}.
+     */
+    public static long parseInteger(final CharSequence input,
+                                    final int start,
+                                    final int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (input.charAt(i) == '-' || input.charAt(i) == '+')) {
+            negative = input.charAt(i) == '-';
+            i++;
+        }
+        if (i == end) return INVALID_INTEGER;
+        long value = 0;
+        for (; i < end; i++) {
+            final char c = input.charAt(i);
+            if (c < '0' || c > '9') return INVALID_INTEGER;
+            value = value * 10 + (c - '0');
+            // One more than the largest int so Integer.MIN_VALUE is accepted.
+            if (value > (long) Integer.MAX_VALUE + 1) return INVALID_INTEGER;
+        }
+        if (negative) return -value;
+        return value > Integer.MAX_VALUE ? INVALID_INTEGER : value;
+    }
+
+    public static double parseReal(final CharSequence input) {
+        return parseReal(input, 0, input.length());
+    }
+
+    /**
+     * @return the real written between {@code start} and {@code end}, or {@link Double#NaN} if it is invalid.
+     */
+    public static double parseReal(final CharSequence input,
+                                   final int start,
+                                   final int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (input.charAt(i) == '-' || input.charAt(i) == '+')) {
+            negative = input.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0, scale = 0;
+        boolean any = false, dot = false;
+        for (; i < end; i++) {
+            final char c = input.charAt(i);
+            if (c == '.' && !dot) {
+                dot = true;
+            } else if (c >= '0' && c <= '9') {
+                any = true;
+                // Digits after the 18th cannot be accumulated, the slow path handles them.
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) digits++;
+                    if (dot) scale++;
+                } else {
+                    digits++;
+                }
+            } else {
+                break;
+            }
+        }
+        if (!any) return Double.NaN;
+        int exponent = 0;
+        if (i < end && (input.charAt(i) == 'e' || input.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (input.charAt(i) == '-' || input.charAt(i) == '+')) {
+                negativeExponent = input.charAt(i) == '-';
+                i++;
+            }
+            if (i == end) return Double.NaN;
+            for (; i < end; i++) {
+                final char c = input.charAt(i);
+                if (c < '0' || c > '9') return Double.NaN;
+                // Larger exponents overflow or underflow anyway.
+                if (exponent < 100_000) exponent = exponent * 10 + (c - '0');
+            }
+            if (negativeExponent) exponent = -exponent;
+        }
+        if (i != end) return Double.NaN;
+        // Fast path, the mantissa and the power of ten are exact doubles so one operation rounds correctly.
+        final int power = exponent - scale;
+        if (digits <= 15 && power > -POWERS_OF_TEN.length && power < POWERS_OF_TEN.length) {
+            final double value = power < 0 ? mantissa / POWERS_OF_TEN[-power] : mantissa * POWERS_OF_TEN[power];
+            return negative ? -value : value;
+        }
+        // The literal is valid, the JDK parser rounds the unusual ones correctly.
+        return Double.parseDouble(input.subSequence(start, end).toString());
+    }
+
+}
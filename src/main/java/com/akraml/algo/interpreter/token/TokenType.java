@@ -1,6 +1,8 @@
 package com.akraml.algo.interpreter.token;
 
-import java.util.function.Function;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
 
 public interface TokenType {
 
@@ -27,22 +29,8 @@ public interface TokenType {
 
     enum DataType implements TokenType {
 
-        INTEGER("Integer", Integer.class, str -> {
-            try {
-                Integer.parseInt(str);
-                return true;
-            } catch (final Exception exception) {
-                return false;
-            }
-        }),
-        DOUBLE("Real", Double.class, str -> {
-            try {
-                Double.parseDouble(str);
-                return true;
-            } catch (final Exception exception) {
-                return false;
-            }
-        }),
+        INTEGER("Integer", Integer.class, str -> NumberParser.parseInteger(str) != NumberParser.INVALID_INTEGER),
+        DOUBLE("Real", Double.class, str -> !Double.isNaN(NumberParser.parseReal(str))),
         STRING("String", String.class, str -> {
             if (!str.startsWith("\"") || !str.endsWith("\"")) return false;
             final String str1 = str.substring(1, str.length() - 1);
@@ -60,13 +48,23 @@ public interface TokenType {
             return true;
         });
 
+        private static final Map<String, DataType> BY_NAME = new HashMap<>();
+        private static final Map<Class<?>, DataType> BY_CLASS = new HashMap<>();
+
+        static {
+            for (final DataType dataType : values()) {
+                BY_NAME.put(dataType.name, dataType);
+                BY_CLASS.put(dataType.classType, dataType);
+            }
+        }
+
         private final String name;
         private final Class<?> classType;
-        private final Function<String, Boolean> validationFunction;
+        private final Predicate<String> validationFunction;
 
         DataType(final String name,
                  final Class<?> classType,
-                 final Function<String, Boolean> validationFunction) {
+                 final Predicate<String> validationFunction) {
             this.name = name;
             this.classType = classType;
             this.validationFunction = validationFunction;
@@ -82,21 +80,15 @@ public interface TokenType {
         }
 
         public boolean isValid(final String input) {
-            return validationFunction.apply(input);
+            return validationFunction.test(input);
         }
 
         public static DataType fromName(final String name) {
-            for (final DataType dataType : values()) {
-                if (dataType.getName().equals(name)) return dataType;
-            }
-            return null;
+            return BY_NAME.get(name);
         }
 
         public static DataType getByClass(final Class<?> classType) {
-            for (final DataType dataType : values()) {
-                if (classType.getSimpleName().equals(dataType.getTypeClass().getSimpleName())) return dataType;
-            }
-            return null;
+            return BY_CLASS.get(classType);
         }
     }
 
@@ -5,18 +5,21 @@ public final class Tokenizer {
     public Object tokenize(final TokenType.DataType dataType,
                            final String variable) throws TokenizeException {
         // Check if data type is a number.
-        if (variable == null) return new Undefined(dataType);
+        if (variable == null) return null;
         if (Number.class.isAssignableFrom(dataType.getTypeClass())) {
             switch (dataType) {
+                // Validated and parsed in the same pass, white spaces around the value are allowed.
                 case DOUBLE -> {
-                    if (!TokenType.DataType.DOUBLE.isValid(variable))
+                    final double value = NumberParser.parseReal(variable.trim());
+                    if (Double.isNaN(value))
                         throw new TokenizeException("Illegal real number type '" + variable + "'");
-                    return Double.parseDouble(variable);
+                    return value;
                 }
                 case INTEGER -> {
-                    if (!TokenType.DataType.INTEGER.isValid(variable))
+                    final long value = NumberParser.parseInteger(variable.trim());
+                    if (value == NumberParser.INVALID_INTEGER)
                         throw new TokenizeException("Illegal integer type '" + variable + "'");
-                    return Integer.parseInt(variable);
+                    return (int) value;
                 }
             }
         } else if (dataType == TokenType.DataType.STRING) {
@@ -0,0 +1,166 @@
+package com.akraml.algo.interpreter;
+
+import com.akraml.algo.interpreter.runtime.ExecutionContext;
+import com.akraml.algo.interpreter.runtime.InputReader;
+import com.akraml.algo.interpreter.runtime.Instruction;
+import com.akraml.algo.interpreter.runtime.MemoryOutputSink;
+import com.akraml.algo.interpreter.runtime.Routine;
+import com.akraml.algo.interpreter.runtime.Variable;
+import com.akraml.algo.interpreter.runtime.VariableTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Writes algorithms in the {@code .algoc} format and reads them back, the loaded algorithm should be the same as the
+ * interpreted one: variables, constants, routines, instructions with their jump targets, and its executions.
+ */
+final class AlgorithmSerializerTest {
+
+    private static final String SOURCE = """
+            Algorithm Sample;
+
+            Constants
+                N = 4;
+                RATE = 0.5;
+                NAME = "sample";
+
+            Function Sum(t: Array[N] of Integer): Integer;
+            Variables
+                i: Integer;
+                s = 0: Integer;
+            Begin
+                For i = 0 To N - 1 Do
+                    s = s + t[i];
+                EndFor
+                Return s;
+            EndFunction
+
+            Function Label(prefix: String, value: Real): String;
+            Begin
+                Return prefix + "=" + value;
+            EndFunction
+
+            Procedure Fill(t: Array[N] of Integer, start: Integer);
+            Variables
+                i: Integer;
+            Begin
+                i = 0;
+                While i < N Do
+                    If i % 2 = 0 And Not (start < 0) Then
+                        t[i] = start + i;
+                    Else
+                        t[i] = start - i;
+                    EndIf
+                    i = i + 1;
+                EndWhile
+            EndProcedure
+
+            Variables
+                t: Array[N] of Integer;
+                names: Array[2] of String;
+                x = 1.5: Real;
+                total: Integer;
+                s: String;
+
+            Begin
+                Read(names[1], names[0]);
+                Fill(t, 10);
+                total = Sum(t);
+                s = Label(NAME, x * RATE);
+                Write(t, " ", total, " ", s, " ", names, "\\n");
+            End
+            """;
+    private static final String INPUT = "first\nsecond\n";
+
+    private final AlgorithmSerializer serializer = new AlgorithmSerializer();
+
+    @Test
+    void roundTripKeepsTheAlgorithm() throws InterpretationException {
+        final Algorithm original = new AlgoInterpreter().interpret(new StringReader(SOURCE));
+        final byte[] bytes = serializer.serialize(original);
+        final Algorithm loaded = serializer.deserialize(ByteBuffer.wrap(bytes));
+
+        assertEquals(original.getName(), loaded.getName());
+        assertEquals(original.getConstants(), loaded.getConstants());
+        assertEquals(describe(original.getVariableTable()), describe(loaded.getVariableTable()));
+        assertEquals(describe(original.getInstructions()), describe(loaded.getInstructions()));
+        assertEquals(original.getRoutines().size(), loaded.getRoutines().size());
+        for (int i = 0; i < original.getRoutines().size(); i++) {
+            assertEquals(describe(original.getRoutines().get(i)), describe(loaded.getRoutines().get(i)));
+        }
+        // Statements, expressions and conditions have no equality, writing them again gives the same bytes.
+        assertArrayEquals(bytes, serializer.serialize(loaded));
+        assertEquals(run(original), run(loaded));
+    }
+
+    @Test
+    void loadReadsWrittenFile(@TempDir final Path directory) throws InterpretationException {
+        final Algorithm original = new AlgoInterpreter().interpret(new StringReader(SOURCE));
+        final Path file = directory.resolve("Sample" + AlgorithmSerializer.EXTENSION);
+        serializer.write(original, file);
+        final Algorithm loaded = serializer.load(file);
+        assertArrayEquals(serializer.serialize(original), serializer.serialize(loaded));
+        assertEquals("10 9 12 7 38 sample=0.75 second first\n", run(loaded));
+    }
+
+    @Test
+    void truncatedFileIsCorrupted() throws InterpretationException {
+        final byte[] bytes = serializer.serialize(new AlgoInterpreter().interpret(new StringReader(SOURCE)));
+        final InterpretationException exception = assertThrows(InterpretationException.class,
+                () -> serializer.deserialize(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length / 2))));
+        assertEquals(InterpretationException.Kind.IO, exception.getKind());
+    }
+
+    @Test
+    void otherFilesAreRejected() {
+        final InterpretationException exception = assertThrows(InterpretationException.class,
+                () -> serializer.deserialize(ByteBuffer.wrap("Algorithm Sample;".getBytes())));
+        assertEquals("Not a compiled algorithm file", exception.getMessage());
+    }
+
+    private static String run(final Algorithm algorithm) {
+        final MemoryOutputSink output = new MemoryOutputSink();
+        final ExecutionContext context = algorithm.newContext(output, InputReader.fromString(INPUT));
+        algorithm.execute(context);
+        return output.getOutput();
+    }
+
+    private static List<String> describe(final VariableTable table) {
+        final List<String> variables = new ArrayList<>();
+        for (final Variable variable : table.getVariables()) {
+            variables.add(variable.getName() + ' ' + variable.getDataType() + " slot=" + variable.getSlot()
+                    + (variable.isArray() ? " length=" + variable.getLength() : " initial=" + variable.getInitialValue())
+                    + (variable.isParameter() ? " parameter" : ""));
+        }
+        return variables;
+    }
+
+    private static List<String> describe(final List<Instruction> instructions) {
+        final List<String> described = new ArrayList<>();
+        for (final Instruction instruction : instructions) {
+            described.add(instruction.getOpcode() + " target=" + instruction.getTarget() + " line="
+                    + instruction.getLine() + ' ' + instruction.getSource()
+                    + (instruction.getStatement() == null ? "" : ' ' + instruction.getStatement().getClass().getSimpleName()));
+        }
+        return described;
+    }
+
+    private static String describe(final Routine routine) {
+        return routine.getName() + " index=" + routine.getIndex() + " returns=" + routine.getReturnType()
+                + " line=" + routine.getLine() + ' ' + routine.getSource()
+                + "\n" + describe(routine.getVariableTable())
+                + "\n" + describe(routine.getInstructions());
+    }
+
+}
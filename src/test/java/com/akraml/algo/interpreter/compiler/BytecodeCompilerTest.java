@@ -0,0 +1,335 @@
+package com.akraml.algo.interpreter.compiler;
+
+import com.akraml.algo.interpreter.AlgoInterpreter;
+import com.akraml.algo.interpreter.Algorithm;
+import com.akraml.algo.interpreter.InterpretationException;
+import com.akraml.algo.interpreter.runtime.ExecutionContext;
+import com.akraml.algo.interpreter.runtime.ExecutionLimits;
+import com.akraml.algo.interpreter.runtime.InputReader;
+import com.akraml.algo.interpreter.runtime.MemoryOutputSink;
+import com.akraml.algo.interpreter.runtime.Statement;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the same algorithms interpreted and compiled, both backends should write the same output and fail the same
+ * way, on the same line.
+ */
+final class BytecodeCompilerTest {
+
+    @Test
+    void loopsAndConditions() throws InterpretationException {
+        assertSameOutcome("""
+                Algorithm Loops;
+
+                Variables
+                    i: Integer;
+                    j: Integer;
+                    n = 10: Integer;
+                    sum = 0: Integer;
+                    x = 0.0: Real;
+
+                Begin
+                    For i = 1 To n Do
+                        If i % 2 = 0 And Not (i > 8) Then
+                            sum = sum + i;
+                        Else
+                            If (i + 1) * 2 > 15 Or i = 1 Then
+                                Write("odd ", i, "\\n");
+                            EndIf
+                        EndIf
+                    EndFor
+                    Write("sum=", sum, "\\n");
+                    For x = 1 To 0 Step -0.25 Do
+                        Write(x, " ");
+                    EndFor
+                    j = 0;
+                    While j < 3 Do
+                        j = j + 1;
+                        Write("j", j);
+                    EndWhile
+                    Write("\\n", i, "\\n");
+                End
+                """, "", ExecutionLimits.NONE, "odd 1\nodd 7\nodd 9\nodd 10\nsum=20\n");
+    }
+
+    @Test
+    void arraysAndInput() throws InterpretationException {
+        assertSameOutcome("""
+                Algorithm Arrays;
+
+                Constants
+                    N = 5;
+
+                Variables
+                    t: Array[N] of Integer;
+                    r: Array[2] of Real;
+                    i: Integer;
+                    j: Integer;
+                    tmp: Integer;
+
+                Begin
+                    Read(t);
+                    Read(r[1]);
+                    For i = 0 To N - 2 Do
+                        For j = 0 To N - 2 - i Do
+                            If t[j] > t[j + 1] Then
+                                tmp = t[j];
+                                t[j] = t[j + 1];
+                                t[j + 1] = tmp;
+                            EndIf
+                        EndFor
+                    EndFor
+                    r[0] = r[1] * 2;
+                    Write(t, "\\n", r, "\\n");
+                End
+                """, "4 1 5 3 2\n1.5\n", ExecutionLimits.NONE, "1 2 3 4 5");
+    }
+
+    @Test
+    void strings() throws InterpretationException {
+        assertSameOutcome("""
+                Algorithm Strings;
+
+                Constants
+                    GREETING = "hi";
+
+                Variables
+                    s: String;
+                    u: String;
+                    names: Array[2] of String;
+                    i: Integer;
+
+                Begin
+                    Read(u);
+                    s = GREETING + ", " + u + " " + (1 + 2);
+                    For i = 1 To 3 Do
+                        s = s + "!";
+                    EndFor
+                    names[0] = "b";
+                    names[1] = names[0] + "c";
+                    If names[0] < names[1] And s <> "" Then
+                        Write(s, " ", names, "\\n");
+                    EndIf
+                End
+                """, "world\n", ExecutionLimits.NONE, "hi, world 3!!!");
+    }
+
+    @Test
+    void routinesAndRecursion() throws InterpretationException {
+        assertSameOutcome("""
+                Algorithm Routines;
+
+                Constants
+                    N = 6;
+
+                Function Factorial(n: Integer): Integer;
+                Begin
+                    If n <= 1 Then
+                        Return 1;
+                    EndIf
+                    Return n * Factorial(n - 1);
+                EndFunction
+
+                Function Half(x: Real): Real;
+                Begin
+                    Return x / 2;
+                EndFunction
+
+                Function Repeat(word: String, times: Integer): String;
+                Variables
+                    s = "": String;
+                    i: Integer;
+                Begin
+                    For i = 1 To times Do
+                        s = s + word;
+                    EndFor
+                    Return s;
+                EndFunction
+
+                Procedure Swap(t: Array[N] of Integer, i: Integer, j: Integer);
+                Variables
+                    tmp: Integer;
+                Begin
+                    tmp = t[i];
+                    t[i] = t[j];
+                    t[j] = tmp;
+                EndProcedure
+
+                Procedure QuickSort(t: Array[N] of Integer, lo: Integer, hi: Integer);
+                Variables
+                    p: Integer;
+                    i: Integer;
+                    j: Integer;
+                Begin
+                    If lo >= hi Then
+                        Return;
+                    EndIf
+                    p = t[hi];
+                    i = lo;
+                    For j = lo To hi - 1 Do
+                        If t[j] < p Then
+                            Swap(t, i, j);
+                            i = i + 1;
+                        EndIf
+                    EndFor
+                    Swap(t, i, hi);
+                    QuickSort(t, lo, i - 1);
+                    QuickSort(t, i + 1, hi);
+                EndProcedure
+
+                Variables
+                    t: Array[N] of Integer;
+                    i: Integer;
+                    f: Integer;
+                    r: Real;
+                    s: String;
+
+                Begin
+                    f = Factorial(10);
+                    r = Half(Factorial(5)) + 0.25;
+                    s = Repeat("ab", 3);
+                    Write(f, "\\n", r, " ", s, "\\n");
+                    For i = 0 To N - 1 Do
+                        t[i] = (i * 37 + 11) % 17;
+                    EndFor
+                    QuickSort(t, 0, N - 1);
+                    Write(t, "\\n");
+                End
+                """, "", ExecutionLimits.NONE, "3628800\n");
+    }
+
+    @Test
+    void callDepthLimit() throws InterpretationException {
+        assertSameOutcome("""
+                Algorithm Deep;
+
+                Function R(n: Integer): Integer;
+                Begin
+                    Return R(n + 1);
+                EndFunction
+
+                Variables
+                    x: Integer;
+
+                Begin
+                    x = R(0);
+                End
+                """, "", ExecutionLimits.NONE.withMaxCallDepth(50), "LIMIT: Error in line 5: Call depth limit of 50");
+    }
+
+    @Test
+    void statementLimitWithoutLoops() throws InterpretationException {
+        assertSameOutcome("""
+                Algorithm Straight;
+
+                Variables
+                    x = 0: Integer;
+
+                Begin
+                    x = x + 1;
+                    Write(x, "\\n");
+                    x = x + 1;
+                    Write(x, "\\n");
+                End
+                """, "", ExecutionLimits.NONE.withMaxStatements(3), "LIMIT: Error in line 10: Statement limit of 3");
+    }
+
+    @Test
+    void runtimeFailures() throws InterpretationException {
+        final String source = """
+                Algorithm Failures;
+
+                Variables
+                    x = 0: Integer;
+                    y: Integer;
+                    t: Array[3] of Integer;
+                    big = 2147483647: Integer;
+
+                Begin
+                    Read(y);
+                    If y = 1 Then
+                        y = 5 Div x;
+                    EndIf
+                    If y = 2 Then
+                        t[y + 1] = 1;
+                    EndIf
+                    If y = 3 Then
+                        y = big + 1;
+                    EndIf
+                End
+                """;
+        assertSameOutcome(source, "1\n", ExecutionLimits.NONE, "RUNTIME: Error in line 12: Failed to interpret this line: Division by zero");
+        assertSameOutcome(source, "2\n", ExecutionLimits.NONE, "RUNTIME: Error in line 15: Failed to interpret this line: Index 3");
+        assertSameOutcome(source, "3\n", ExecutionLimits.NONE, "RUNTIME: Error in line 18: Failed to interpret this line: integer overflow");
+    }
+
+    @Test
+    void largeProgram() throws InterpretationException {
+        assertSameOutcome(straightLine(2000), "", ExecutionLimits.NONE, "2000\n");
+    }
+
+    @Test
+    void programTooLargeToCompile() throws InterpretationException {
+        final Algorithm algorithm = interpret(straightLine(10000));
+        final InterpretationException exception = assertThrows(InterpretationException.class,
+                () -> new BytecodeCompiler().compile(algorithm));
+        assertEquals("Algorithm 'Big' is too large to compile", exception.getMessage());
+        // The interpreter still runs it.
+        assertEquals("10000\n", run(algorithm, null, "", ExecutionLimits.NONE));
+    }
+
+    private static String straightLine(final int statements) {
+        final StringBuilder source = new StringBuilder("Algorithm Big;\n\nVariables\n    x = 0: Integer;\n\nBegin\n");
+        for (int i = 0; i < statements; i++) {
+            source.append("    x = x + 1;\n");
+        }
+        return source.append("    Write(x, \"\\n\");\nEnd\n").toString();
+    }
+
+    /**
+     * Checks both backends give the same outcome, and that it contains the expected text.
+     */
+    private static void assertSameOutcome(final String source,
+                                          final String input,
+                                          final ExecutionLimits limits,
+                                          final String expected) throws InterpretationException {
+        final Algorithm algorithm = interpret(source);
+        final String interpreted = run(algorithm, null, input, limits);
+        final String compiled = run(algorithm, new BytecodeCompiler().compile(algorithm), input, limits);
+        assertEquals(interpreted, compiled);
+        assertTrue(interpreted.contains(expected), () -> "Expected '" + expected + "' in:\n" + interpreted);
+    }
+
+    private static Algorithm interpret(final String source) throws InterpretationException {
+        return new AlgoInterpreter().interpret(new StringReader(source));
+    }
+
+    /**
+     * @return the output of the execution, followed by the kind and message of its failure if it failed.
+     */
+    private static String run(final Algorithm algorithm,
+                              final Statement compiled,
+                              final String input,
+                              final ExecutionLimits limits) {
+        final MemoryOutputSink output = new MemoryOutputSink();
+        final ExecutionContext context = algorithm.newContext(output, InputReader.fromString(input), limits);
+        try {
+            if (compiled == null) {
+                algorithm.execute(context);
+            } else {
+                algorithm.execute(context, compiled);
+            }
+            return output.getOutput();
+        } catch (final RuntimeException exception) {
+            final InterpretationException failure = (InterpretationException) exception.getCause();
+            return output.getOutput() + failure.getKind() + ": " + failure.getMessage();
+        }
+    }
+
+}